@@ -0,0 +1,55 @@
+package com.example.examenmercado.benchmark;
+
+import com.example.examenmercado.config.HashProperties;
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.service.DnaHasher;
+import com.example.examenmercado.service.PackedDnaMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hash de la secuencia ({@link DnaHasher#hash(PackedDnaMatrix)}, antes
+ * {@code MutantService.calculateDnaHash}) con cada algoritmo configurable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DnaHasherBenchmark {
+
+    @Param({"4", "6", "100", "1000", "5000"})
+    private int size;
+
+    @Param({"SHA_256", "MURMUR3_128"})
+    private HashProperties.Algorithm algorithm;
+
+    private DnaHasher hasher;
+    private PackedDnaMatrix dna;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HashProperties properties = new HashProperties();
+        properties.setAlgorithm(algorithm);
+        hasher = new DnaHasher(properties);
+        dna = PackedDnaMatrix.encode(DnaInputs.random(size));
+    }
+
+    @Benchmark
+    public DnaHash hash() {
+        return hasher.hash(dna);
+    }
+}
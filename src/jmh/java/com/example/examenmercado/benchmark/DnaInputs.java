@@ -0,0 +1,70 @@
+package com.example.examenmercado.benchmark;
+
+import java.util.Random;
+
+/**
+ * Matrices de entrada para los benchmarks. Todas son deterministas para que los resultados sean
+ * comparables entre corridas.
+ */
+final class DnaInputs {
+
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+    private static final long SEED = 42L;
+
+    private DnaInputs() {
+    }
+
+    enum Shape {
+        // Dos secuencias en las primeras filas: el detector corta enseguida
+        EARLY_MUTANT,
+        // Sin ninguna secuencia en ninguna dirección: recorrido completo
+        WORST_HUMAN,
+        // Bases aleatorias con semilla fija
+        RANDOM
+    }
+
+    static String[] create(Shape shape, int n) {
+        return switch (shape) {
+            case EARLY_MUTANT -> earlyMutant(n);
+            case WORST_HUMAN -> worstHuman(n);
+            case RANDOM -> random(n);
+        };
+    }
+
+    /**
+     * Base {@code (c + 2r) % 4}: vecinos horizontales, verticales y diagonales siempre difieren
+     * en al menos una de cada cuatro posiciones, así que no hay secuencias.
+     */
+    static String[] worstHuman(int n) {
+        String[] dna = new String[n];
+        char[] row = new char[n];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                row[c] = BASES[(c + 2 * r) & 3];
+            }
+            dna[r] = new String(row);
+        }
+        return dna;
+    }
+
+    static String[] earlyMutant(int n) {
+        String[] dna = worstHuman(n);
+        String run = "A".repeat(n);
+        dna[0] = run;
+        dna[1] = run;
+        return dna;
+    }
+
+    static String[] random(int n) {
+        Random random = new Random(SEED + n);
+        String[] dna = new String[n];
+        char[] row = new char[n];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                row[c] = BASES[random.nextInt(BASES.length)];
+            }
+            dna[r] = new String(row);
+        }
+        return dna;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.examenmercado.benchmark;
+
+import com.example.examenmercado.validation.ValidDnaSequenceValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación de la petición ({@link ValidDnaSequenceValidator#isValid}) sobre una matriz válida,
+ * que es el caso que recorre todas las filas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DnaValidatorBenchmark {
+
+    @Param({"4", "6", "100", "1000", "5000"})
+    private int size;
+
+    private ValidDnaSequenceValidator validator;
+    private String[] dna;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validator = new ValidDnaSequenceValidator();
+        dna = DnaInputs.random(size);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(dna, null);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.examenmercado.benchmark;
+
+import com.example.examenmercado.service.MutantDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MutantDetector#isMutant(String[])} (validación + codificación + búsqueda) con la
+ * configuración por defecto, para los tamaños y formas de entrada típicos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MutantDetectorBenchmark {
+
+    @Param({"4", "6", "100", "1000", "5000"})
+    private int size;
+
+    @Param({"EARLY_MUTANT", "WORST_HUMAN", "RANDOM"})
+    private DnaInputs.Shape shape;
+
+    private MutantDetector detector;
+    private String[] dna;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        detector = new MutantDetector();
+        dna = DnaInputs.create(shape, size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.shutdown();
+    }
+
+    @Benchmark
+    public boolean isMutant() {
+        return detector.isMutant(dna);
+    }
+}
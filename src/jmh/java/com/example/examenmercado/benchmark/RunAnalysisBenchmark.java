@@ -0,0 +1,64 @@
+package com.example.examenmercado.benchmark;
+
+import com.example.examenmercado.service.MutantDetector;
+import com.example.examenmercado.service.PackedDnaMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Análisis completo de una matriz ya codificada: {@link MutantDetector#countRuns} (solo el
+ * total) contra {@link MutantDetector#findRuns} (cada secuencia al listener), para medir el
+ * costo de ubicar las secuencias frente al de contarlas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RunAnalysisBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    private int size;
+
+    @Param({"WORST_HUMAN", "RANDOM"})
+    private DnaInputs.Shape shape;
+
+    private MutantDetector detector;
+    private PackedDnaMatrix matrix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        detector = new MutantDetector();
+        matrix = PackedDnaMatrix.encode(DnaInputs.create(shape, size));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.shutdown();
+    }
+
+    @Benchmark
+    public long countRuns() {
+        return detector.countRuns(matrix);
+    }
+
+    @Benchmark
+    public long findRuns(Blackhole blackhole) {
+        return detector.findRuns(matrix, (direction, row, col, base) -> blackhole.consume(col));
+    }
+}
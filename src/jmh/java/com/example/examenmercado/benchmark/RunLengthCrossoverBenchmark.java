@@ -0,0 +1,92 @@
+package com.example.examenmercado.benchmark;
+
+import com.example.examenmercado.config.DetectorProperties;
+import com.example.examenmercado.service.MutantDetector;
+import com.example.examenmercado.service.PackedDnaMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motor por filas, escalar y vectorial, contra el recorrido por tramos, sobre una matriz ya
+ * codificada. El N desde el que {@code RUN_LENGTH} le gana en {@code WORST_HUMAN} al motor por
+ * filas que elige el detector (el escalar; el vectorial solo con {@code vector-enabled}) es el valor de
+ * {@code mutant.detector.run-length-threshold}; {@code EARLY_MUTANT} mide lo que cuesta la pasada
+ * por tramos cuando el corte temprano llega en las primeras filas. {@code VECTOR_ROWS} cae al
+ * motor escalar si falta {@code --add-modules jdk.incubator.vector}.
+ * <p>
+ * Referencia de {@code countRuns} en {@code WORST_HUMAN} (un núcleo, Vector API de 8 carriles), en µs:
+ * <pre>
+ *      N   VECTOR_ROWS  SCALAR_ROWS  RUN_LENGTH
+ *     16          0,97         0,78        0,93
+ *     32          2,97         2,86        2,09
+ *     64          7,20         7,95        4,98
+ *    128         20,95        21,05       15,74
+ *    256         71,58        70,05       61,63
+ *   1000      1.318,43       952,82      793,93
+ *  10000    110.504,32    81.497,76   81.332,25
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RunLengthCrossoverBenchmark {
+
+    public enum Engine {
+        SCALAR_ROWS,
+        VECTOR_ROWS,
+        RUN_LENGTH
+    }
+
+    @Param({"16", "32", "64", "128", "256", "1000", "10000"})
+    private int size;
+
+    @Param({"EARLY_MUTANT", "WORST_HUMAN"})
+    private DnaInputs.Shape shape;
+
+    @Param({"SCALAR_ROWS", "VECTOR_ROWS", "RUN_LENGTH"})
+    private Engine engine;
+
+    private MutantDetector detector;
+    private PackedDnaMatrix matrix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DetectorProperties properties = new DetectorProperties();
+        properties.setVectorEnabled(engine == Engine.VECTOR_ROWS);
+        properties.setRunLengthEnabled(engine == Engine.RUN_LENGTH);
+        properties.setRunLengthThreshold(0);
+        detector = new MutantDetector(properties);
+        matrix = PackedDnaMatrix.encode(DnaInputs.create(shape, size));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.shutdown();
+    }
+
+    @Benchmark
+    public boolean isMutant() {
+        return detector.isMutant(matrix);
+    }
+
+    @Benchmark
+    public long countRuns() {
+        return detector.countRuns(matrix);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.examenmercado.benchmark;
+
+import com.example.examenmercado.config.DetectorProperties;
+import com.example.examenmercado.service.MutantDetector;
+import com.example.examenmercado.service.PackedDnaMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recorrido completo de un humano sin secuencias (el peor caso de {@code isMutant}) con cada
+ * motor: por filas (4 filas leídas por fila de inicio) o por tramos (cada fila una vez), en
+ * secuencia o por bandas de filas en paralelo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraversalBenchmark {
+
+    public enum Engine {
+        ROWS,
+        RUN_LENGTH,
+        PARALLEL_ROWS,
+        PARALLEL_RUN_LENGTH
+    }
+
+    @Param({"100", "1000", "5000", "10000"})
+    private int size;
+
+    @Param({"ROWS", "RUN_LENGTH", "PARALLEL_ROWS", "PARALLEL_RUN_LENGTH"})
+    private Engine engine;
+
+    private MutantDetector detector;
+    private PackedDnaMatrix matrix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DetectorProperties properties = new DetectorProperties();
+        properties.setRunLengthEnabled(engine == Engine.RUN_LENGTH || engine == Engine.PARALLEL_RUN_LENGTH);
+        properties.setRunLengthThreshold(0);
+        properties.setParallelEnabled(engine == Engine.PARALLEL_ROWS || engine == Engine.PARALLEL_RUN_LENGTH);
+        properties.setParallelThreshold(0);
+        detector = new MutantDetector(properties);
+        matrix = PackedDnaMatrix.encode(DnaInputs.create(DnaInputs.Shape.WORST_HUMAN, size));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.shutdown();
+    }
+
+    @Benchmark
+    public boolean isMutant() {
+        return detector.isMutant(matrix);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración del análisis asíncrono de {@code POST /mutant} ({@code mutant.async.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.async")
+public class AsyncProperties {
+
+    // Si es false el análisis corre completo en el hilo de la petición, sin plazo
+    private boolean enabled = true;
+
+    // Hilos de plataforma para la detección; 0 = cantidad de procesadores disponibles
+    private int detectionThreads = 0;
+
+    // Detecciones esperando un hilo como máximo; con la cola llena se responde 503
+    private int queueCapacity = 1_000;
+
+    // Plazo de cada petición: vencido, se corta la detección y se responde 503
+    private Duration deadline = Duration.ofSeconds(10);
+}
@@ -0,0 +1,29 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración del endpoint de lotes {@code /mutant/batch} ({@code mutant.batch.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.batch")
+public class BatchProperties {
+
+    // Elementos leídos por tramo: comparten una consulta a la base y se detectan en paralelo
+    private int chunkSize = 256;
+
+    // Celdas (suma de N²) por tramo: el tramo retiene sus matrices hasta detectarlas. 64 millones
+    // son unos 16 MB empaquetados; una matriz de 10000x10000 va sola en su tramo
+    private long chunkMaxCells = 64_000_000L;
+
+    // Detecciones de un mismo lote a la vez en el pool de CPU compartido con /mutant
+    // (mutant.async.*), para que un lote no llene su cola; 0 = hilos de ese pool
+    private int parallelism = 0;
+
+    // Cada elemento se cobra al cliente (N² celdas) al leerlo. Sin saldo el lote espera la recarga
+    // hasta esto por elemento; si no alcanza, el elemento se informa como error y el lote termina
+    private Duration rateLimitMaxWait = Duration.ofSeconds(5);
+}
@@ -0,0 +1,23 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración de concurrencia con hilos virtuales ({@code mutant.concurrency.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.concurrency")
+public class ConcurrencyProperties {
+
+    // Accesos simultáneos a la base; 0 = tamaño del pool de conexiones (Hikari)
+    private int dbMaxConcurrency = 0;
+
+    // Espera máxima por un permiso antes de responder 503
+    private Duration dbAcquireTimeout = Duration.ofSeconds(5);
+
+    // Al iniciar, avisa de bloques/métodos synchronized que fijan hilos virtuales a su portador
+    private boolean pinningCheck = true;
+}
@@ -0,0 +1,30 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuración del re-análisis por ediciones de celdas, {@code /mutant/delta} ({@code mutant.delta.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.delta")
+public class DeltaProperties {
+
+    // Si es false no se guardan matrices y /mutant/delta responde 404
+    private boolean enabled = true;
+
+    // N mínimo para guardar una matriz como base; las chicas se reenvían enteras sin costo
+    private int minSize = 100;
+
+    // Memoria máxima de las matrices guardadas (2 bits por base)
+    private DataSize cacheMaximumSize = DataSize.ofMegabytes(256);
+
+    // Una matriz sin usar se descarta pasado este tiempo
+    private Duration expireAfterAccess = Duration.ofMinutes(30);
+
+    // Ediciones máximas por petición
+    private int maxEdits = 10_000;
+}
@@ -0,0 +1,39 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración del motor de detección ({@code mutant.detector.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.detector")
+public class DetectorProperties {
+
+    // Motor vectorial (jdk.incubator.vector), opt-in: solo vectoriza filas de N >= ~259 (8 carriles), donde
+    // ya decide el recorrido por tramos, y en RunLengthCrossoverBenchmark es más lento que el escalar
+    // (1318 contra 953 µs en N = 1000). Requiere --add-modules jdk.incubator.vector y pasar el autochequeo
+    private boolean vectorEnabled = false;
+
+    // Habilita el recorrido paralelo por bandas de filas (opt-in)
+    private boolean parallelEnabled = false;
+
+    // Tamaño N a partir del cual se usa el recorrido paralelo
+    private int parallelThreshold = 1000;
+
+    // Hilos del ForkJoinPool; 0 = cantidad de procesadores disponibles
+    private int parallelism = 0;
+
+    // Filas por banda: por debajo de este tamaño una tarea ya no se divide
+    private int parallelBandRows = 64;
+
+    // Recorrido de una sola pasada por tramos (RunLengthScanner) para matrices grandes
+    private boolean runLengthEnabled = true;
+
+    // Tamaño N a partir del cual se usa; sale de RunLengthCrossoverBenchmark (WORST_HUMAN): contra
+    // el motor escalar pierde en N = 16 y desde N = 32 el recorrido por tramos tarda 0,63 a 1 vez
+    private int runLengthThreshold = 32;
+
+    // Secuencias máximas que devuelve /mutant/runs; el conteo total no se corta
+    private int maxReportedRuns = 100_000;
+}
@@ -0,0 +1,26 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Límites de la lectura del cuerpo de {@code POST /mutant} y {@code /mutant/batch}
+ * ({@code mutant.request.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.request")
+public class DnaRequestProperties {
+
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+    public static final DataSize DEFAULT_MAX_BODY_SIZE = DataSize.ofMegabytes(128);
+
+    // N máximo aceptado; una matriz más grande se rechaza al leer su primera fila
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    // Cuerpo máximo de /mutant y /mutant/runs según Content-Length: 10.000 x 10.000 en JSON son ~100 MB
+    private DataSize maxBodySize = DEFAULT_MAX_BODY_SIZE;
+
+    // Rechazo temprano (EarlyRejectionFilter): largo, N y forma del cuerpo antes del binding
+    private boolean earlyRejectionEnabled = true;
+}
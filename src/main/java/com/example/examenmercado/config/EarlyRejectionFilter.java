@@ -0,0 +1,360 @@
+package com.example.examenmercado.config;
+
+import com.example.examenmercado.dto.PackedDnaDeserializer;
+import com.example.examenmercado.service.MutantMetrics;
+import com.example.examenmercado.service.MutantMetrics.RejectionReason;
+import com.example.examenmercado.service.PackedDnaMatrix;
+import com.example.examenmercado.validation.ValidDnaSequence;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rechazo temprano de cuerpos inválidos en {@code POST /mutant} y {@code /mutant/runs}, antes
+ * del binding, la validación del DTO y el {@code GlobalExceptionHandler}.
+ * <p>
+ * Solo mira lo barato: el {@code Content-Length}, y los primeros bytes del cuerpo (el encabezado
+ * N del formato binario, o hasta el cierre de la primera fila del JSON, que fija N). Con N se
+ * sabe cuántos bytes debe tener el cuerpo como mínimo (JSON) o exactamente (binario). Si el
+ * prefijo no tiene la forma esperada ({@code {"dna": ["...}), se deja pasar sin rechazar:
+ * decide la validación completa. Los bytes leídos se devuelven al request para el parser.
+ * <p>
+ * Corre después de {@link RateLimitFilter}: el prefijo solo se lee de las peticiones que el límite
+ * por cliente y el descarte de carga ya admitieron.
+ * <p>
+ * Las respuestas de error se serializan una sola vez, sin {@code timestamp} ni {@code path}, con
+ * el mismo {@code status}, {@code error} y {@code message} que daría la validación completa.
+ * Cada rechazo se cuenta en {@code mutant.request.rejections{reason}}.
+ */
+@Component
+@Order(EarlyRejectionFilter.ORDER)
+@Slf4j
+public class EarlyRejectionFilter extends OncePerRequestFilter {
+
+    static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    private static final Set<String> PATHS = Set.of("/mutant", "/mutant/runs");
+    private static final String VALIDATION_PREFIX = "La petición contiene errores de validación: dna: ";
+    private static final int MIN_SIZE = 4;
+    // Margen de bytes antes de la primera fila: espacios y la clave "dna"
+    private static final int PREFIX_SLACK = 256;
+    private static final int END = -1;
+    private static final int LIMIT = -2;
+    private static final ObjectMapper BODY_MAPPER = new ObjectMapper();
+
+    private boolean enabled = true;
+    private int maxSize = DnaRequestProperties.DEFAULT_MAX_SIZE;
+    private long maxBodySize = DnaRequestProperties.DEFAULT_MAX_BODY_SIZE.toBytes();
+    private MutantMetrics mutantMetrics;
+    private Map<RejectionReason, byte[]> bodies = renderBodies();
+
+    @Autowired(required = false)
+    public void setProperties(DnaRequestProperties properties) {
+        this.enabled = properties.isEarlyRejectionEnabled();
+        this.maxSize = properties.getMaxSize();
+        this.maxBodySize = properties.getMaxBodySize().toBytes();
+        this.bodies = renderBodies();
+    }
+
+    @Autowired(required = false)
+    public void setMutantMetrics(MutantMetrics mutantMetrics) {
+        this.mutantMetrics = mutantMetrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !"POST".equals(request.getMethod())
+                || !PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        final long contentLength = request.getContentLengthLong();
+        if (contentLength > maxBodySize) {
+            reject(RejectionReason.BODY_TOO_LARGE, request, response);
+            return;
+        }
+        if (contentLength == 0) {
+            reject(RejectionReason.EMPTY_BODY, request, response);
+            return;
+        }
+
+        final MediaType contentType = contentType(request);
+        final boolean binary = contentType != null && PackedDnaHttpMessageConverter.DNA_PACKED.includes(contentType);
+        final boolean json = contentType != null && !binary && (MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || contentType.getSubtype().endsWith("+json"));
+        if (!binary && !json) {
+            // Tipo no soportado: lo responde Spring (415)
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Prefix prefix = new Prefix(request.getInputStream(), binary ? Integer.BYTES : maxSize + PREFIX_SLACK);
+        RejectionReason reason = binary ? checkBinary(prefix, contentLength) : checkJson(prefix, contentLength);
+        if (reason != null) {
+            reject(reason, request, response);
+            return;
+        }
+        chain.doFilter(new PrefixedRequest(request, prefix), response);
+    }
+
+    private RejectionReason checkBinary(Prefix prefix, long contentLength) throws IOException {
+        int size = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            final int b = prefix.next();
+            if (b < 0) {
+                return i == 0 ? RejectionReason.EMPTY_BODY : RejectionReason.LENGTH_MISMATCH;
+            }
+            size |= b << (i * Byte.SIZE);
+        }
+        if (size < MIN_SIZE) {
+            return RejectionReason.INVALID_SIZE;
+        }
+        if (size > maxSize) {
+            return RejectionReason.SIZE_TOO_LARGE;
+        }
+        // Una sola secuencia: el cuerpo tiene exactamente el encabezado y las N*N bases
+        if (contentLength >= 0 && contentLength != Integer.BYTES + PackedDnaMatrix.packedLength(size)) {
+            return RejectionReason.LENGTH_MISMATCH;
+        }
+        return null;
+    }
+
+    private RejectionReason checkJson(Prefix prefix, long contentLength) throws IOException {
+        int b = prefix.nextNonWhitespace();
+        if (b == END && prefix.length() == 0) {
+            return RejectionReason.EMPTY_BODY;
+        }
+        if (b != '{') {
+            // Cualquier otro carácter ASCII visible no puede ser un objeto JSON; el resto lo decide Jackson
+            return b > ' ' && b < 0x7F ? RejectionReason.NOT_JSON_OBJECT : null;
+        }
+        if (prefix.nextNonWhitespace() != '"' || prefix.next() != 'd' || prefix.next() != 'n'
+                || prefix.next() != 'a' || prefix.next() != '"'
+                || prefix.nextNonWhitespace() != ':' || prefix.nextNonWhitespace() != '[') {
+            return null;
+        }
+
+        b = prefix.nextNonWhitespace();
+        if (b == ']') {
+            return RejectionReason.EMPTY_DNA;
+        }
+        if (b != '"') {
+            return null;
+        }
+        int size = 0;
+        while ((b = prefix.next()) != '"') {
+            // Fin, límite del prefijo o escape: que lo resuelva el parser
+            if (b < 0 || b == '\\') {
+                return null;
+            }
+            if (++size > maxSize) {
+                return RejectionReason.SIZE_TOO_LARGE;
+            }
+        }
+        if (size < MIN_SIZE) {
+            return RejectionReason.INVALID_SIZE;
+        }
+        // Lo mínimo para N filas de N bases: {"dna":["...","..."]} sin espacios
+        if (contentLength >= 0 && contentLength < (long) size * (size + 3) + 9) {
+            return RejectionReason.LENGTH_MISMATCH;
+        }
+        return null;
+    }
+
+    private void reject(RejectionReason reason, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        log.debug("Petición rechazada antes del binding: {} en {}", reason, request.getRequestURI());
+        if (mutantMetrics != null) {
+            mutantMetrics.rejected(reason);
+        }
+        byte[] body = bodies.get(reason);
+        response.setStatus(status(reason).value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private Map<RejectionReason, byte[]> renderBodies() {
+        Map<RejectionReason, byte[]> rendered = new EnumMap<>(RejectionReason.class);
+        for (RejectionReason reason : RejectionReason.values()) {
+            if (reason == RejectionReason.VALIDATION) {
+                continue;
+            }
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("status", status(reason).value());
+            body.put("error", status(reason).getReasonPhrase());
+            body.put("message", message(reason));
+            try {
+                rendered.put(reason, BODY_MAPPER.writeValueAsBytes(body));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return rendered;
+    }
+
+    private String message(RejectionReason reason) {
+        return switch (reason) {
+            case BODY_TOO_LARGE -> "El cuerpo de la petición supera el máximo de " + maxBodySize + " bytes.";
+            case EMPTY_BODY -> "El cuerpo de la petición está vacío.";
+            case NOT_JSON_OBJECT -> "El cuerpo de la petición no es un JSON válido.";
+            case EMPTY_DNA -> VALIDATION_PREFIX + PackedDnaDeserializer.EMPTY_MESSAGE;
+            case SIZE_TOO_LARGE -> VALIDATION_PREFIX + String.format(PackedDnaDeserializer.TOO_LARGE_MESSAGE, maxSize);
+            case INVALID_SIZE, LENGTH_MISMATCH, VALIDATION -> VALIDATION_PREFIX + ValidDnaSequence.DEFAULT_MESSAGE;
+        };
+    }
+
+    private static HttpStatus status(RejectionReason reason) {
+        return reason == RejectionReason.BODY_TOO_LARGE ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.BAD_REQUEST;
+    }
+
+    private static MediaType contentType(HttpServletRequest request) {
+        if (request.getContentType() == null) {
+            return null;
+        }
+        try {
+            return MediaType.parseMediaType(request.getContentType());
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+
+    /** Bytes leídos del cuerpo para revisarlos, hasta {@code limit}; después se devuelven al request. */
+    private static final class Prefix {
+
+        private final InputStream body;
+        private final int limit;
+        private byte[] bytes = new byte[64];
+        private int length;
+
+        Prefix(InputStream body, int limit) {
+            this.body = body;
+            this.limit = limit;
+        }
+
+        int length() {
+            return length;
+        }
+
+        int next() throws IOException {
+            if (length >= limit) {
+                return LIMIT;
+            }
+            final int b = body.read();
+            if (b < 0) {
+                return END;
+            }
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.min(limit, length * 2));
+            }
+            bytes[length++] = (byte) b;
+            return b;
+        }
+
+        int nextNonWhitespace() throws IOException {
+            int b;
+            do {
+                b = next();
+            } while (b == ' ' || b == '\n' || b == '\r' || b == '\t');
+            return b;
+        }
+    }
+
+    /** Request cuyo cuerpo vuelve a empezar por los bytes ya leídos del prefijo. */
+    private static final class PrefixedRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream inputStream;
+
+        PrefixedRequest(HttpServletRequest request, Prefix prefix) throws IOException {
+            super(request);
+            this.inputStream = new PrefixedInputStream(prefix.bytes, prefix.length, request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(inputStream, charset));
+        }
+    }
+
+    private static final class PrefixedInputStream extends ServletInputStream {
+
+        private final byte[] prefix;
+        private final int prefixLength;
+        private final ServletInputStream body;
+        private int position;
+
+        PrefixedInputStream(byte[] prefix, int prefixLength, ServletInputStream body) {
+            this.prefix = prefix;
+            this.prefixLength = prefixLength;
+            this.body = body;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return position < prefixLength ? prefix[position++] & 0xFF : body.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position < prefixLength) {
+                final int count = Math.min(length, prefixLength - position);
+                System.arraycopy(prefix, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+            return body.read(buffer, offset, length);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return position >= prefixLength && body.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return position < prefixLength || body.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            body.setReadListener(readListener);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración del filtro de Bloom sobre los hashes guardados ({@code mutant.hash-filter.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.hash-filter")
+public class HashFilterProperties {
+
+    // Si es false se consulta siempre la base
+    private boolean enabled = true;
+
+    // Capacidad del primer tramo del filtro; al llenarse se agrega uno del doble
+    private long expectedInsertions = 1_000_000;
+
+    // Tasa de falsos positivos objetivo del filtro completo (todos los tramos)
+    private double falsePositiveRate = 0.01;
+}
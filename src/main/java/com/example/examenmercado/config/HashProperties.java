@@ -0,0 +1,22 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración del hash de ADN ({@code mutant.hash.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.hash")
+public class HashProperties {
+
+    // Cambiar el algoritmo invalida los hashes ya guardados
+    private Algorithm algorithm = Algorithm.SHA_256;
+
+    public enum Algorithm {
+        // Criptográfico, 32 bytes
+        SHA_256,
+        // No criptográfico y más rápido, 16 bytes
+        MURMUR3_128
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.examenmercado.config;
+
+import com.example.examenmercado.dto.DnaRequest;
+import com.example.examenmercado.dto.PackedDnaBinaryReader;
+import com.example.examenmercado.dto.PackedDnaDeserializer;
+import com.example.examenmercado.exception.InvalidDnaException;
+import com.example.examenmercado.service.MutantMetrics;
+import com.example.examenmercado.service.PackedDnaMatrix;
+import com.example.examenmercado.validation.ValidDnaSequence;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+/**
+ * Lee el cuerpo de {@code POST /mutant} en formato binario ({@value PackedDnaBinaryReader#MEDIA_TYPE})
+ * a un {@link DnaRequest}, junto al JSON. Los errores de formato llegan al
+ * {@code GlobalExceptionHandler} como {@link HttpMessageNotReadableException} con la
+ * {@link InvalidDnaException} como causa, igual que desde el JSON.
+ */
+@Component
+public class PackedDnaHttpMessageConverter extends AbstractHttpMessageConverter<DnaRequest> {
+
+    public static final MediaType DNA_PACKED = MediaType.parseMediaType(PackedDnaBinaryReader.MEDIA_TYPE);
+
+    private int maxSize = DnaRequestProperties.DEFAULT_MAX_SIZE;
+    private MutantMetrics mutantMetrics;
+
+    public PackedDnaHttpMessageConverter() {
+        super(DNA_PACKED);
+    }
+
+    @Autowired(required = false)
+    public void setProperties(DnaRequestProperties properties) {
+        this.maxSize = properties.getMaxSize();
+    }
+
+    @Autowired(required = false)
+    public void setMutantMetrics(MutantMetrics mutantMetrics) {
+        this.mutantMetrics = mutantMetrics;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return DnaRequest.class == clazz;
+    }
+
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected DnaRequest readInternal(Class<? extends DnaRequest> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        long start = System.nanoTime();
+        try {
+            return new DnaRequest(read(inputMessage));
+        } catch (InvalidDnaException e) {
+            throw new HttpMessageNotReadableException("ADN binario inválido: " + e.getMessage(), e, inputMessage);
+        } finally {
+            if (mutantMetrics != null) {
+                mutantMetrics.recordStage(MutantMetrics.Stage.VALIDATION, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private PackedDnaMatrix read(HttpInputMessage inputMessage) throws IOException {
+        PackedDnaBinaryReader reader = new PackedDnaBinaryReader(Channels.newChannel(inputMessage.getBody()), maxSize);
+        PackedDnaMatrix dna = reader.next();
+        if (dna == null) {
+            throw new InvalidDnaException(PackedDnaDeserializer.EMPTY_MESSAGE, -1, -1);
+        }
+        // Una sola secuencia: bytes de más indican que N no corresponde al cuerpo
+        if (!reader.atEnd()) {
+            throw new InvalidDnaException(ValidDnaSequence.DEFAULT_MESSAGE, -1, -1);
+        }
+        return dna;
+    }
+
+    @Override
+    protected void writeInternal(DnaRequest request, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("El formato " + PackedDnaBinaryReader.MEDIA_TYPE + " es solo de entrada.");
+    }
+}
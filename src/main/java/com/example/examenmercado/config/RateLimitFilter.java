@@ -0,0 +1,226 @@
+package com.example.examenmercado.config;
+
+import com.example.examenmercado.service.ClientRateLimiter;
+import com.example.examenmercado.service.LoadShedder;
+import com.example.examenmercado.service.MutantMetrics;
+import com.example.examenmercado.service.MutantMetrics.ThrottleReason;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Límite por cliente y descarte de carga de las rutas que analizan matrices, antes de leer el
+ * cuerpo: corre antes que {@link EarlyRejectionFilter}, así un cliente limitado no cuesta ni la
+ * lectura del prefijo. El costo de una petición son sus N² celdas estimadas por el
+ * {@code Content-Length} (una base por byte en JSON, cuatro en binario); sin largo conocido
+ * (chunked) se cuenta lo máximo que puede costar: {@code max-size}² para una matriz y
+ * {@code burst-cells} para un lote. Primero se cobra al cliente ({@link ClientRateLimiter}) y
+ * después se consulta la carga del servicio ({@link LoadShedder}); cualquiera de los dos responde
+ * 429 con {@code Retry-After} y un cuerpo pre-serializado.
+ * <p>
+ * A un lote el filtro solo le cobra el costo mínimo: cada elemento se cobra al leerlo en
+ * {@code MutantBatchService}, con la clave del cliente que queda en {@link #CLIENT_ATTRIBUTE}. El
+ * costo estimado del lote cuenta igual para el descarte de carga.
+ * <p>
+ * {@code /mutant} y {@code /mutant/batch} responden de forma asíncrona: si la petición sigue
+ * abierta al volver del filtro, su carga deja de contar cuando termina la respuesta.
+ */
+@Component
+@Order(RateLimitFilter.ORDER)
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final int ORDER = EarlyRejectionFilter.ORDER - 1;
+    /** Clave del cliente de un lote (String), para cobrar cada elemento. */
+    public static final String CLIENT_ATTRIBUTE = RateLimitFilter.class.getName() + ".client";
+
+    private static final String BATCH_PATH = "/mutant/batch";
+    private static final Set<String> PATHS = Set.of("/mutant", "/mutant/runs", BATCH_PATH);
+    private static final ObjectMapper BODY_MAPPER = new ObjectMapper();
+    private static final Map<ThrottleReason, byte[]> BODIES = renderBodies();
+
+    private RateLimitProperties properties;
+    private ClientRateLimiter rateLimiter;
+    private LoadShedder loadShedder;
+    private MutantMetrics mutantMetrics;
+    private long maxMatrixCells = (long) DnaRequestProperties.DEFAULT_MAX_SIZE * DnaRequestProperties.DEFAULT_MAX_SIZE;
+
+    // Sin estos beans (por ejemplo en los tests de la capa web) el filtro no limita
+    @Autowired(required = false)
+    public void setLimits(RateLimitProperties properties, ClientRateLimiter rateLimiter, LoadShedder loadShedder) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+    }
+
+    @Autowired(required = false)
+    public void setRequestProperties(DnaRequestProperties requestProperties) {
+        this.maxMatrixCells = (long) requestProperties.getMaxSize() * requestProperties.getMaxSize();
+    }
+
+    @Autowired(required = false)
+    public void setMutantMetrics(MutantMetrics mutantMetrics) {
+        this.mutantMetrics = mutantMetrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return properties == null || !properties.isEnabled()
+                || !"POST".equals(request.getMethod())
+                || !PATHS.contains(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        final long cells = cells(request);
+        final boolean batch = BATCH_PATH.equals(path(request));
+        final String client = clientKey(request);
+
+        final long clientWait = rateLimiter.tryAcquire(client, batch ? 0 : cells);
+        if (clientWait > 0) {
+            throttle(ThrottleReason.RATE_LIMIT, clientWait, request, response);
+            return;
+        }
+        final long queueDelay = loadShedder.tryAdmit(cells);
+        if (queueDelay > 0) {
+            throttle(ThrottleReason.OVERLOAD, queueDelay, request, response);
+            return;
+        }
+        if (batch) {
+            request.setAttribute(CLIENT_ATTRIBUTE, client);
+        }
+
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(cells));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                loadShedder.complete(cells);
+            }
+        }
+    }
+
+    private long cells(HttpServletRequest request) {
+        final long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            // Sin largo conocido (chunked) un lote puede traer matrices de cualquier tamaño
+            return BATCH_PATH.equals(path(request)) ? properties.getBurstCells() : maxMatrixCells;
+        }
+        final String contentType = request.getContentType();
+        final boolean binary = contentType != null
+                && contentType.startsWith(PackedDnaHttpMessageConverter.DNA_PACKED.toString());
+        return binary ? contentLength * 4 : contentLength;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        // Un header que manda el propio cliente se cambia en cada petición para evadir el límite
+        if (!properties.isTrustedProxy()) {
+            return request.getRemoteAddr();
+        }
+        final String client = request.getHeader(properties.getClientHeader());
+        return client != null && !client.isBlank() ? client : request.getRemoteAddr();
+    }
+
+    private void throttle(ThrottleReason reason, long waitNanos, HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        log.debug("Petición limitada ({}) en {}: reintentar en {} ms",
+                reason, request.getRequestURI(), TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        if (mutantMetrics != null) {
+            mutantMetrics.throttled(reason);
+        }
+        // Retry-After va en segundos enteros: se redondea hacia arriba
+        final long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        final byte[] body = BODIES.get(reason);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /** Libera la carga de una petición asíncrona una sola vez, termine como termine. */
+    private final class CompletionListener implements AsyncListener {
+
+        private final long cells;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        CompletionListener(long cells) {
+            this.cells = cells;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Un nuevo ciclo asíncrono quita los listeners: se vuelve a registrar
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                loadShedder.complete(cells);
+            }
+        }
+    }
+
+    private static Map<ThrottleReason, byte[]> renderBodies() {
+        Map<ThrottleReason, byte[]> rendered = new EnumMap<>(ThrottleReason.class);
+        for (ThrottleReason reason : ThrottleReason.values()) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+            body.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+            body.put("message", reason == ThrottleReason.RATE_LIMIT
+                    ? "Se superó el límite de celdas de ADN por segundo del cliente. Reintentar después de Retry-After."
+                    : "El servicio está saturado. Reintentar después de Retry-After.");
+            try {
+                rendered.put(reason, BODY_MAPPER.writeValueAsBytes(body));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return rendered;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Límite de velocidad por cliente y descarte de carga de {@code POST /mutant}, {@code /mutant/runs}
+ * y {@code /mutant/batch} ({@code mutant.rate-limit.*}). El costo de una matriz es N² celdas.
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // La clave del cliente es la IP de origen. Solo detrás de un proxy de confianza, que fija el
+    // header y descarta el que manda el cliente, se usa client-header (sin él, la IP)
+    private boolean trustedProxy = false;
+    private String clientHeader = "X-Client-Id";
+
+    // Celdas por segundo que recupera cada cliente
+    private long cellsPerSecond = 100_000_000L;
+
+    // Ráfaga máxima por cliente; un costo mayor (un elemento enorme) se admite con la ráfaga llena y
+    // queda como deuda
+    private long burstCells = 200_000_000L;
+
+    // Costo mínimo de una petición, aunque la matriz sea chica
+    private long minCost = 4_096;
+
+    // Clientes recordados a la vez, y tiempo sin peticiones tras el cual se olvida uno
+    private int maxClients = 100_000;
+    private Duration clientIdleTimeout = Duration.ofMinutes(10);
+
+    // Descarte de carga: con una espera estimada mayor a max-queue-delay se rechazan las matrices
+    // de shedding-min-cost celdas o más; con el doble, todas
+    private boolean sheddingEnabled = true;
+    private Duration maxQueueDelay = Duration.ofMillis(500);
+    private long sheddingMinCost = 1_000_000L;
+
+    // Piso del throughput medido (celdas por segundo) para estimar la espera sin muestras
+    private long minThroughput = 50_000_000L;
+}
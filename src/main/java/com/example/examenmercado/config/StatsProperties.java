@@ -0,0 +1,26 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración de los contadores de estadísticas ({@code mutant.stats.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.stats")
+public class StatsProperties {
+
+    // Recalcula los contadores desde dna_records al iniciar; si es false se parte de la fila de resumen
+    private boolean rebuildOnStartup = true;
+
+    // Cada cuánto se vuelcan los contadores a la fila de resumen (lo lee @Scheduled)
+    private long flushIntervalMs = 10_000;
+
+    // Serie temporal (/stats/timeseries): cuánto se guardan los tramos por minuto y por hora
+    // (los diarios no se borran) y máximo de tramos por consulta
+    private Duration minuteRetention = Duration.ofDays(2);
+    private Duration hourRetention = Duration.ofDays(90);
+    private int timeseriesMaxPoints = 1500;
+}
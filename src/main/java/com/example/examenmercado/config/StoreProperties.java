@@ -0,0 +1,29 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración del almacenamiento de registros de ADN ({@code mutant.store.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.store")
+public class StoreProperties {
+
+    // jpa (tabla dna_records) o file (log en disco con índice mapeado en memoria)
+    private String type = "jpa";
+
+    // Solo con type=file: directorio del log y del índice
+    private String directory = "data/dna-store";
+
+    // Fuerza el log a disco (fsync) antes de confirmar cada escritura; si es false un corte de
+    // energía puede perder las últimas escrituras, pero no corromper el log
+    private boolean syncOnWrite = true;
+
+    // Posiciones iniciales del índice; se duplica al pasar el 70% de ocupación
+    private int initialIndexCapacity = 1 << 16;
+
+    // Cada cuánto se marca en el índice hasta dónde cubre el log (lo lee @Scheduled); acota lo
+    // que hay que releer del log al recuperarse de una caída
+    private long checkpointIntervalMs = 10_000;
+}
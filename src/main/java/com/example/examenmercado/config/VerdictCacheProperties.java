@@ -0,0 +1,20 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la cache de veredictos en memoria ({@code mutant.cache.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.cache")
+public class VerdictCacheProperties {
+
+    // Cantidad máxima de hashes en memoria (desalojo W-TinyLFU)
+    private long maximumSize = 100_000;
+
+    // Tiempo de vida de cada entrada desde que se escribe
+    private Duration expireAfterWrite = Duration.ofHours(1);
+}
@@ -0,0 +1,101 @@
+package com.example.examenmercado.config;
+
+import com.example.examenmercado.ExamenmercadoApplication;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Con hilos virtuales habilitados, revisa al iniciar el bytecode de las clases de la aplicación y
+ * avisa de cada método o bloque {@code synchronized}: un hilo virtual que se bloquea dentro de
+ * un monitor queda fijado a su hilo portador (pinning) y deja de escalar.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadPinningCheck {
+
+    private final Environment environment;
+    private final ConcurrencyProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkPinning() {
+        if (!properties.isPinningCheck()
+                || !environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            return;
+        }
+
+        Set<String> hotSpots = findSynchronizedCode();
+        hotSpots.forEach(hotSpot -> log.warn("Posible pinning de hilos virtuales: {}", hotSpot));
+        if (hotSpots.isEmpty()) {
+            log.info("Hilos virtuales habilitados. Sin código synchronized en la aplicación.");
+        }
+
+        if (System.getProperty("jdk.tracePinnedThreads") == null) {
+            log.info("Para detectar pinning en librerías (por ejemplo el driver JDBC) usar -Djdk.tracePinnedThreads=short.");
+        }
+    }
+
+    Set<String> findSynchronizedCode() {
+        Set<String> hotSpots = new LinkedHashSet<>();
+        String pattern = "classpath*:" + ExamenmercadoApplication.class.getPackageName().replace('.', '/') + "/**/*.class";
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(pattern)) {
+                try (InputStream input = resource.getInputStream()) {
+                    new ClassReader(input).accept(new SynchronizedFinder(hotSpots),
+                            ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo revisar el bytecode en busca de pinning: {}", e.getMessage());
+        }
+        return hotSpots;
+    }
+
+    private static final class SynchronizedFinder extends ClassVisitor {
+
+        private final Set<String> hotSpots;
+        private String className;
+
+        private SynchronizedFinder(Set<String> hotSpots) {
+            super(SpringAsmInfo.ASM_VERSION);
+            this.hotSpots = hotSpots;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.className = name.replace('/', '.');
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            final String method = className + "." + name;
+            if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                hotSpots.add(method + " (método synchronized)");
+            }
+            return new MethodVisitor(SpringAsmInfo.ASM_VERSION) {
+                @Override
+                public void visitInsn(int opcode) {
+                    if (opcode == Opcodes.MONITORENTER) {
+                        hotSpots.add(method + " (bloque synchronized)");
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.examenmercado.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la escritura diferida de registros nuevos ({@code mutant.write-behind.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "mutant.write-behind")
+public class WriteBehindProperties {
+
+    // Si es false cada registro se guarda en el momento (un INSERT por request)
+    private boolean enabled = true;
+
+    // Registros pendientes como máximo; con la cola llena los productores esperan
+    private int queueCapacity = 10_000;
+
+    // Disparador por tamaño: filas por lote
+    private int batchSize = 500;
+
+    // Disparador por tiempo: espera máxima antes de volcar un lote incompleto
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    // Espera máxima con la cola llena; vencida, el productor guarda el registro él mismo
+    private Duration offerTimeout = Duration.ofSeconds(5);
+
+    // Primera espera antes de reintentar un lote que falló con la base saturada; se duplica en cada intento
+    private Duration retryBackoff = Duration.ofMillis(100);
+
+    // Espera máxima entre reintentos de un mismo lote
+    private Duration maxRetryBackoff = Duration.ofSeconds(5);
+}
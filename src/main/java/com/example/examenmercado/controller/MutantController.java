@@ -1,18 +1,35 @@
 package com.example.examenmercado.controller;
 
+import com.example.examenmercado.config.RateLimitFilter;
+import com.example.examenmercado.dto.DnaDeltaRequest;
+import com.example.examenmercado.dto.DnaDeltaResponse;
 import com.example.examenmercado.dto.DnaRequest;
+import com.example.examenmercado.dto.DnaRunsResponse;
+import com.example.examenmercado.dto.PackedDnaBinaryReader;
 import com.example.examenmercado.dto.StatsResponse;
+import com.example.examenmercado.dto.StatsTimeSeriesResponse;
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.service.MutantBatchService;
 import com.example.examenmercado.service.MutantService;
 import com.example.examenmercado.service.StatsService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/")
@@ -20,30 +37,103 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Mutant Detector", description = "API para la detección de ADN mutante y estadísticas.")
 public class MutantController {
 
+    // Hash del ADN analizado por /mutant: es el base_hash para editarlo en /mutant/delta
+    public static final String DNA_HASH_HEADER = "X-Dna-Hash";
+
     private final MutantService mutantService;
+    private final MutantBatchService mutantBatchService;
     private final StatsService statsService;
 
     @PostMapping("/mutant")
-    @Operation(summary = "Verificar si un ADN es mutante")
+    @Operation(summary = "Verificar si un ADN es mutante",
+            description = "Acepta JSON o el formato binario " + PackedDnaBinaryReader.MEDIA_TYPE
+                    + " (N de 4 bytes little-endian y las N*N bases a 2 bits).")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "ADN es de un mutante."),
-            @ApiResponse(responseCode = "403", description = "ADN es de un humano."),
+            @ApiResponse(responseCode = "200", description = "ADN es de un mutante.",
+                    headers = @Header(name = DNA_HASH_HEADER, description = "Hash del ADN, base_hash de /mutant/delta")),
+            @ApiResponse(responseCode = "403", description = "ADN es de un humano.",
+                    headers = @Header(name = DNA_HASH_HEADER, description = "Hash del ADN, base_hash de /mutant/delta")),
+            @ApiResponse(responseCode = "400", description = "El formato de ADN es inválido o no es una matriz NxN."),
+            @ApiResponse(responseCode = "503", description = "Cola de detección llena o análisis más largo que el plazo.")
+    })
+    public CompletableFuture<ResponseEntity<Void>> checkMutant(@Valid @RequestBody DnaRequest request) {
+
+        // El formato (NxN, A/T/C/G) se valida y codifica al leer el cuerpo (PackedDnaDeserializer para
+        // JSON, PackedDnaHttpMessageConverter para el binario); @Valid completa la validación del DTO (@NotNull, @ValidDnaSequence)
+
+        // El hilo de la petición se libera: la respuesta se escribe cuando el futuro termina
+        return mutantService.analyzeDnaAsync(request.getDna()).thenApply(verdict -> {
+            // Sin cuerpo; el hash va en un header para editar este ADN después en /mutant/delta
+            String dnaHash = verdict.dnaHash().toString();
+            if (verdict.mutant()) {
+                // Requerimiento: HTTP 200 OK si es mutante
+                return ResponseEntity.ok().header(DNA_HASH_HEADER, dnaHash).build();
+            } else {
+                // Requerimiento: HTTP 403 Forbidden si no es mutante
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).header(DNA_HASH_HEADER, dnaHash).build();
+            }
+        });
+    }
+
+    @PostMapping("/mutant/runs")
+    @Operation(summary = "Listar todas las secuencias de un ADN",
+            description = "Análisis completo sin corte temprano: dirección, celda de inicio y base de cada secuencia."
+                    + " Acepta los mismos formatos que /mutant. No guarda el veredicto.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Secuencias agrupadas por dirección, mutante o no."),
             @ApiResponse(responseCode = "400", description = "El formato de ADN es inválido o no es una matriz NxN.")
     })
-    public ResponseEntity<Void> checkMutant(@Valid @RequestBody DnaRequest request) {
+    public ResponseEntity<DnaRunsResponse> findRuns(@Valid @RequestBody DnaRequest request) {
+        return ResponseEntity.ok(mutantService.findRuns(request.getDna()));
+    }
 
-        // La validación de formato (NxN, A/T/C/G) ocurre en el MutantDetector
-        // y la validación de DTO (@NotNull, @NotEmpty) ocurre aquí con @Valid
+    @PostMapping("/mutant/delta")
+    @Operation(summary = "Verificar un ADN dado como ediciones de celdas sobre otro ya enviado",
+            description = "Solo recuenta las secuencias que tocan las celdas editadas. base_hash es el header "
+                    + DNA_HASH_HEADER + " de /mutant, el dna_hash de un elemento de /mutant/batch o el de otro delta;"
+                    + " la base debe seguir en memoria (solo se guardan las de N >= mutant.delta.min-size).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "El ADN editado es de un mutante."),
+            @ApiResponse(responseCode = "403", description = "El ADN editado es de un humano."),
+            @ApiResponse(responseCode = "400", description = "Ediciones inválidas o fuera de la matriz."),
+            @ApiResponse(responseCode = "404", description = "La matriz base no está en memoria: hay que enviarla completa a /mutant.")
+    })
+    public ResponseEntity<DnaDeltaResponse> checkMutantDelta(@Valid @RequestBody DnaDeltaRequest request) {
+        DnaDeltaResponse response = mutantService.analyzeDelta(
+                DnaHash.fromHex(request.getBaseHash()), request.getEdits());
+        // Mismos códigos que /mutant; el cuerpo lleva el hash para encadenar la próxima edición
+        return ResponseEntity.status(response.isMutant() ? HttpStatus.OK : HttpStatus.FORBIDDEN).body(response);
+    }
 
-        boolean isMutantResult = mutantService.analyzeDna(request.getDna());
+    @PostMapping(value = "/mutant/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Verificar un lote de ADN (array JSON o NDJSON de objetos {\"dna\": [...]})")
+    @ApiResponse(responseCode = "200",
+            description = "Un veredicto NDJSON por elemento, escrito a medida que termina. Los errores de un elemento no cortan el lote,"
+                    + " salvo el límite del cliente: cada elemento cuesta N² celdas y sin saldo el lote termina.")
+    public ResponseEntity<StreamingResponseBody> checkMutantBatch(InputStream body,
+            @Parameter(hidden = true) @RequestAttribute(name = RateLimitFilter.CLIENT_ATTRIBUTE, required = false) String client) {
+        // El cuerpo se lee y la respuesta se escribe en streaming, sin cargar el lote completo en memoria;
+        // cada elemento se cobra al cliente que fijó RateLimitFilter (sin límite, client es null)
+        StreamingResponseBody stream = output -> mutantBatchService.analyzeBatch(body, output, client);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(stream);
+    }
 
-        if (isMutantResult) {
-            // Requerimiento: HTTP 200 OK si es mutante
-            return ResponseEntity.ok().build();
-        } else {
-            // Requerimiento: HTTP 403 Forbidden si no es mutante
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
+    @PostMapping(value = "/mutant/batch",
+            consumes = PackedDnaBinaryReader.MEDIA_TYPE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Verificar un lote de ADN en formato binario (secuencias " + PackedDnaBinaryReader.MEDIA_TYPE + " concatenadas)")
+    @ApiResponse(responseCode = "200",
+            description = "Un veredicto NDJSON por elemento. Un encabezado inválido, un cuerpo cortado o el límite del cliente termina el lote.")
+    public ResponseEntity<StreamingResponseBody> checkMutantPackedBatch(InputStream body,
+            @Parameter(hidden = true) @RequestAttribute(name = RateLimitFilter.CLIENT_ATTRIBUTE, required = false) String client) {
+        StreamingResponseBody stream = output -> mutantBatchService.analyzePackedBatch(body, output, client);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(stream);
     }
 
     @GetMapping("/stats")
@@ -54,4 +144,19 @@ public class MutantController {
         // El DTO StatsResponse se serializa automáticamente a JSON con snake_case
         return ResponseEntity.ok(stats);
     }
+
+    @GetMapping("/stats/timeseries")
+    @Operation(summary = "Obtener estadísticas por minuto, hora o día en un rango")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Un punto por tramo, también los vacíos."),
+            @ApiResponse(responseCode = "400", description = "Granularidad inválida, rango vacío o demasiados tramos.")
+    })
+    public ResponseEntity<StatsTimeSeriesResponse> getStatsTimeSeries(
+            @Parameter(description = "minute, hour o day") @RequestParam(defaultValue = "hour") String granularity,
+            @Parameter(description = "Inicio del rango (ISO, hora local). Por defecto los últimos tramos.")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Fin del rango (ISO, hora local). Por defecto ahora.")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(statsService.getTimeSeries(granularity, from, to));
+    }
 }
@@ -0,0 +1,39 @@
+package com.example.examenmercado.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+// Usa snake_case para los nombres de las propiedades en el JSON (dna_hash)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(description = "Veredicto de un elemento del lote (una línea NDJSON)")
+public class BatchItemResult {
+
+    @Schema(description = "Posición del elemento en el lote (desde 0).")
+    private int index;
+
+    @Schema(description = "Hash hexadecimal del ADN.")
+    private String dnaHash;
+
+    @Schema(description = "true si es mutante, false si es humano. Ausente si hubo error.")
+    private Boolean mutant;
+
+    @Schema(description = "Motivo por el que el elemento no se pudo analizar.")
+    private String error;
+
+    public static BatchItemResult verdict(int index, String dnaHash, boolean mutant) {
+        return new BatchItemResult(index, dnaHash, mutant, null);
+    }
+
+    public static BatchItemResult error(int index, String error) {
+        return new BatchItemResult(index, null, null, error);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.examenmercado.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Usa snake_case para los nombres de las propiedades en el JSON (base_hash)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(description = "Request para verificar un ADN dado como ediciones de celdas sobre otro ya enviado")
+public class DnaDeltaRequest {
+
+    @NotNull(message = "El hash base no puede ser null.")
+    @Pattern(regexp = "[0-9a-fA-F]{32}|[0-9a-fA-F]{64}", message = "El hash base debe ser hexadecimal de 16 o 32 bytes.")
+    @Schema(description = "Hash hexadecimal del ADN base, tal como lo devuelven /mutant/batch y /mutant/delta.")
+    private String baseHash;
+
+    @NotEmpty(message = "La lista de ediciones no puede estar vacía.")
+    @Valid
+    @Schema(description = "Celdas que cambian respecto del ADN base.")
+    private List<CellEdit> edits;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Nueva base de una celda")
+    public static class CellEdit {
+
+        @Min(value = 0, message = "La fila no puede ser negativa.")
+        private int row;
+
+        @Min(value = 0, message = "La columna no puede ser negativa.")
+        private int col;
+
+        @NotNull(message = "La base no puede ser null.")
+        @Pattern(regexp = "[ATCGatcg]", message = "La base debe ser A, T, C o G.")
+        @Schema(example = "A")
+        private String base;
+    }
+}
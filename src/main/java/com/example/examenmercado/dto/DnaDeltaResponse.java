@@ -0,0 +1,26 @@
+package com.example.examenmercado.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Usa snake_case para los nombres de las propiedades en el JSON (dna_hash)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(description = "Veredicto del ADN editado")
+public class DnaDeltaResponse {
+
+    @Schema(description = "Hash hexadecimal del ADN editado; sirve de base para la próxima edición.")
+    private String dnaHash;
+
+    @Schema(description = "true si es mutante, false si es humano.")
+    private boolean mutant;
+
+    @Schema(description = "Cantidad total de secuencias de 4 bases iguales en el ADN editado.")
+    private long runCount;
+}
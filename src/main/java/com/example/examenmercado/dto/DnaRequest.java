@@ -1,8 +1,9 @@
 package com.example.examenmercado.dto;
 
+import com.example.examenmercado.service.PackedDnaMatrix;
 import com.example.examenmercado.validation.ValidDnaSequence;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -11,15 +12,18 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+// A nivel de clase: tamaño mínimo de la matriz ya codificada (ver DnaRequestValidator)
+@ValidDnaSequence
 @Schema(description = "Request para verificar si una secuencia de ADN pertenece a un mutante")
 public class DnaRequest {
 
+    // Se lee en streaming y se codifica a 2 bits mientras se parsea: no se materializan las filas
     @NotNull(message = "El array de ADN no puede ser null.")
-    @NotEmpty(message = "El array de ADN no puede estar vacío.")
-    @ValidDnaSequence
+    @JsonDeserialize(using = PackedDnaDeserializer.class)
     @Schema(
             description = "Secuencia de ADN como matriz NxN de Strings. Solo caracteres A, T, C, G.",
+            implementation = String[].class,
             example = "[\"ATGCGA\",\"CAGTGC\",\"TTATGT\",\"AGAAGG\",\"CCCCTA\",\"TCACTG\"]"
     )
-    private String[] dna;
+    private PackedDnaMatrix dna;
 }
@@ -0,0 +1,51 @@
+package com.example.examenmercado.dto;
+
+import com.example.examenmercado.service.RunDirection;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Usa snake_case para los nombres de las propiedades en el JSON (run_count)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(description = "Todas las secuencias de 4 bases iguales del ADN, agrupadas por dirección")
+public class DnaRunsResponse {
+
+    @Schema(description = "true si es mutante (2 o más secuencias).")
+    private boolean mutant;
+
+    @Schema(description = "Cantidad total de secuencias, también si la lista se cortó.")
+    private long runCount;
+
+    @Schema(description = "true si había más secuencias que mutant.detector.max-reported-runs y la lista está incompleta.")
+    private boolean truncated;
+
+    @Schema(description = "Una entrada por dirección con secuencias.")
+    private List<RunList> runs;
+
+    // Columnar: la secuencia i de la dirección es (rows[i], cols[i]) con la base bases[i]
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Secuencias de una dirección, en orden de fila de inicio")
+    public static class RunList {
+
+        private RunDirection direction;
+
+        @Schema(description = "Fila de la celda de inicio de cada secuencia.")
+        private int[] rows;
+
+        @Schema(description = "Columna de la celda de inicio de cada secuencia.")
+        private int[] cols;
+
+        @Schema(description = "Base de cada secuencia, un carácter por secuencia.", example = "CA")
+        private String bases;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.examenmercado.dto;
+
+import com.example.examenmercado.exception.InvalidDnaException;
+import com.example.examenmercado.service.PackedDnaMatrix;
+import com.example.examenmercado.validation.ValidDnaSequence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Lector del formato binario {@value #MEDIA_TYPE}: cada secuencia es N (entero de 4 bytes,
+ * little-endian) seguido de las N*N bases fila por fila a 2 bits por base, 4 por byte
+ * (A=00, C=01, G=10, T=11, la primera base en los bits bajos). Es un cuarto del JSON y no hay
+ * texto que parsear: los bytes se leen del canal a un buffer y se decodifican directo a palabras.
+ * <p>
+ * Un cuerpo de {@code POST /mutant} es una secuencia; uno de {@code /mutant/batch} es una
+ * concatenación de secuencias hasta el fin del cuerpo. El buffer de bases se reutiliza entre
+ * secuencias; una instancia la usa un solo hilo.
+ */
+public class PackedDnaBinaryReader {
+
+    public static final String MEDIA_TYPE = "application/x-dna-packed";
+
+    private static final int MIN_SIZE = 4;
+
+    private final ReadableByteChannel channel;
+    private final int maxSize;
+    private final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private byte[] bases = new byte[0];
+
+    public PackedDnaBinaryReader(ReadableByteChannel channel, int maxSize) {
+        this.channel = channel;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Lee la siguiente secuencia, o devuelve {@code null} si el cuerpo terminó justo antes.
+     *
+     * @throws InvalidDnaException si N está fuera de rango o el cuerpo se corta a mitad de una secuencia
+     */
+    public PackedDnaMatrix next() throws IOException {
+        header.clear();
+        if (!readFully(header, true)) {
+            return null;
+        }
+        int size = header.getInt(0);
+        if (size < MIN_SIZE) {
+            throw invalid();
+        }
+        if (size > maxSize) {
+            throw new InvalidDnaException(String.format(PackedDnaDeserializer.TOO_LARGE_MESSAGE, maxSize), 0, -1);
+        }
+
+        int length = PackedDnaMatrix.packedLength(size);
+        if (bases.length < length) {
+            bases = new byte[length];
+        }
+        readFully(ByteBuffer.wrap(bases, 0, length), false);
+        return PackedDnaMatrix.fromPacked(size, bases);
+    }
+
+    /** {@code true} si no quedan bytes en el cuerpo. */
+    public boolean atEnd() throws IOException {
+        header.clear().limit(1);
+        return !readFully(header, true);
+    }
+
+    // false solo si el canal terminó antes del primer byte y se permite el fin
+    private boolean readFully(ByteBuffer buffer, boolean endAllowed) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (endAllowed && buffer.position() == 0) {
+                    return false;
+                }
+                // Secuencia cortada: faltan bases o parte del encabezado
+                throw invalid();
+            }
+        }
+        return true;
+    }
+
+    private static InvalidDnaException invalid() {
+        return new InvalidDnaException(ValidDnaSequence.DEFAULT_MESSAGE, -1, -1);
+    }
+}
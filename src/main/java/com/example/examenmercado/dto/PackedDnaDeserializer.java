@@ -0,0 +1,108 @@
+package com.example.examenmercado.dto;
+
+import com.example.examenmercado.config.DnaRequestProperties;
+import com.example.examenmercado.exception.InvalidDnaException;
+import com.example.examenmercado.service.MutantMetrics;
+import com.example.examenmercado.service.PackedDnaMatrix;
+import com.example.examenmercado.validation.ValidDnaSequence;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+
+/**
+ * Lee el array {@code dna} token por token directo a un {@link PackedDnaMatrix} (2 bits por base),
+ * sin crear un {@code String} por fila: cada fila se codifica desde el buffer de caracteres del
+ * parser. La primera fila fija N; cualquier error (fila de otro largo, base inválida, N fuera de
+ * rango) corta la lectura en ese punto con una {@link InvalidDnaException} y el resto del cuerpo
+ * no se lee.
+ * <p>
+ * Los mensajes son los de la validación del DTO. Con el {@code ObjectMapper} de Spring los
+ * límites y las métricas se inyectan; fuera de Spring se usan los valores por defecto.
+ */
+public class PackedDnaDeserializer extends StdDeserializer<PackedDnaMatrix> {
+
+    private static final int MIN_SIZE = 4;
+    public static final String EMPTY_MESSAGE = "El array de ADN no puede estar vacío.";
+    public static final String TOO_LARGE_MESSAGE = "La secuencia de ADN es demasiado grande: N no puede superar %d.";
+
+    private int maxSize = DnaRequestProperties.DEFAULT_MAX_SIZE;
+    private MutantMetrics mutantMetrics;
+
+    public PackedDnaDeserializer() {
+        super(PackedDnaMatrix.class);
+    }
+
+    @Autowired(required = false)
+    public void setProperties(DnaRequestProperties properties) {
+        this.maxSize = properties.getMaxSize();
+    }
+
+    @Autowired(required = false)
+    public void setMutantMetrics(MutantMetrics mutantMetrics) {
+        this.mutantMetrics = mutantMetrics;
+    }
+
+    @Override
+    public PackedDnaMatrix deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartArrayToken()) {
+            return (PackedDnaMatrix) context.handleUnexpectedToken(PackedDnaMatrix.class, parser);
+        }
+
+        long start = System.nanoTime();
+        try {
+            return readRows(parser);
+        } finally {
+            if (mutantMetrics != null) {
+                mutantMetrics.recordStage(MutantMetrics.Stage.VALIDATION, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private PackedDnaMatrix readRows(JsonParser parser) throws IOException {
+        PackedDnaMatrix.Builder builder = null;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            int row = builder == null ? 0 : builder.rows();
+            if (token != JsonToken.VALUE_STRING) {
+                // null, número, objeto o fin de entrada
+                throw invalid(row, -1);
+            }
+
+            int length = parser.getTextLength();
+            if (builder == null) {
+                // La primera fila fija N: se valida el tamaño antes de reservar la matriz
+                if (length < MIN_SIZE) {
+                    throw invalid(0, -1);
+                }
+                if (length > maxSize) {
+                    throw new InvalidDnaException(String.format(TOO_LARGE_MESSAGE, maxSize), 0, -1);
+                }
+                builder = new PackedDnaMatrix.Builder(length);
+            }
+
+            try {
+                builder.appendRow(parser.getTextCharacters(), parser.getTextOffset(), length);
+            } catch (InvalidDnaException e) {
+                throw invalid(e.getRow(), e.getColumn());
+            }
+        }
+
+        if (builder == null) {
+            throw new InvalidDnaException(EMPTY_MESSAGE, -1, -1);
+        }
+        try {
+            return builder.build();
+        } catch (InvalidDnaException e) {
+            throw invalid(e.getRow(), -1);
+        }
+    }
+
+    private static InvalidDnaException invalid(int row, int column) {
+        return new InvalidDnaException(ValidDnaSequence.DEFAULT_MESSAGE, row, column);
+    }
+}
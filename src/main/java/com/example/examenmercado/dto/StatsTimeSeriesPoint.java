@@ -0,0 +1,30 @@
+package com.example.examenmercado.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(description = "Verificaciones de ADN de un tramo de la serie")
+public class StatsTimeSeriesPoint {
+
+    @Schema(description = "Inicio del tramo (hora local del servidor).")
+    private LocalDateTime bucketStart;
+
+    @Schema(description = "Número de secuencias de ADN mutantes verificadas en el tramo.")
+    private long countMutantDna;
+
+    @Schema(description = "Número de secuencias de ADN humanos verificadas en el tramo.")
+    private long countHumanDna;
+
+    @Schema(description = "Ratio del tramo: count_mutant_dna / count_human_dna.")
+    private double ratio;
+}
@@ -0,0 +1,31 @@
+package com.example.examenmercado.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(description = "Estadísticas de verificaciones de ADN por tramo de tiempo")
+public class StatsTimeSeriesResponse {
+
+    @Schema(description = "Resolución de los tramos: minute, hour o day.", example = "hour")
+    private String granularity;
+
+    @Schema(description = "Inicio del rango (inicio del primer tramo).")
+    private LocalDateTime from;
+
+    @Schema(description = "Fin del rango, exclusivo.")
+    private LocalDateTime to;
+
+    @Schema(description = "Un punto por tramo del rango, también los vacíos, en orden.")
+    private List<StatsTimeSeriesPoint> points;
+}
@@ -0,0 +1,67 @@
+package com.example.examenmercado.entity;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Hash binario de tamaño fijo de una secuencia de ADN (32 bytes con SHA-256, 16 con
+ * Murmur3-128). Se usa como clave en la base y en las caches en memoria; {@link #toString()}
+ * devuelve la representación hexadecimal para logs y respuestas.
+ */
+public final class DnaHash {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final byte[] bytes;
+    private final int hashCode;
+
+    private DnaHash(byte[] bytes) {
+        this.bytes = bytes;
+        this.hashCode = Arrays.hashCode(bytes);
+    }
+
+    /** Toma posesión del arreglo: el llamador no debe modificarlo después. */
+    public static DnaHash wrap(byte[] bytes) {
+        return new DnaHash(bytes);
+    }
+
+    public static DnaHash fromHex(String hex) {
+        return new DnaHash(HEX.parseHex(hex));
+    }
+
+    public byte[] toBytes() {
+        return bytes.clone();
+    }
+
+    public int length() {
+        return bytes.length;
+    }
+
+    /**
+     * Los 8 bytes de la posición {@code index * 8}, sin copiar el arreglo. Los bytes ya están
+     * distribuidos uniformemente, así que sirven directo como hash de estructuras en memoria.
+     */
+    public long longAt(int index) {
+        return (long) LONG_VIEW.get(bytes, index * Long.BYTES);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other
+                || other instanceof DnaHash that && hashCode == that.hashCode && Arrays.equals(bytes, that.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return HEX.formatHex(bytes);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.examenmercado.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Guarda {@link DnaHash} como binario ({@code VARBINARY}) en lugar de un VARCHAR hexadecimal.
+ */
+@Converter
+public class DnaHashConverter implements AttributeConverter<DnaHash, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(DnaHash dnaHash) {
+        return dnaHash == null ? null : dnaHash.toBytes();
+    }
+
+    @Override
+    public DnaHash convertToEntityAttribute(byte[] bytes) {
+        return bytes == null ? null : DnaHash.wrap(bytes);
+    }
+}
@@ -11,20 +11,25 @@ import java.time.LocalDateTime;
         // Índice en el hash para búsquedas rápidas (caché)
         @Index(name = "idx_dna_hash", columnList = "dnaHash"),
         // Índice en isMutant para conteo rápido de estadísticas
-        @Index(name = "idx_is_mutant", columnList = "isMutant")
+        @Index(name = "idx_is_mutant", columnList = "isMutant"),
+        // Índice en createdAt para reconstruir la serie temporal por rangos
+        @Index(name = "idx_created_at", columnList = "createdAt")
 })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class DnaRecord {
 
+    // Secuencia con asignación en bloques: permite INSERTs por lotes (IDENTITY no)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dna_record_seq")
+    @SequenceGenerator(name = "dna_record_seq", sequenceName = "dna_record_seq", allocationSize = 50)
     private Long id;
 
-    // Columna para almacenar el hash SHA-256 del ADN. Debe ser único.
-    @Column(name = "dna_hash", unique = true, nullable = false, length = 64)
-    private String dnaHash;
+    // Columna para almacenar el hash binario del ADN (32 bytes SHA-256 o 16 Murmur3). Debe ser único.
+    @Convert(converter = DnaHashConverter.class)
+    @Column(name = "dna_hash", unique = true, nullable = false, length = 32)
+    private DnaHash dnaHash;
 
     // Columna para almacenar si es mutante o no (true/false)
     @Column(name = "is_mutant", nullable = false)
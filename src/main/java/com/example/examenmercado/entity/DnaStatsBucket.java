@@ -0,0 +1,29 @@
+package com.example.examenmercado.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tramo de la serie temporal de estadísticas: conteos de un minuto, hora o día. La clave
+ * primaria (granularidad, inicio) sirve a las consultas por rango, sin tocar {@code dna_records}.
+ */
+@Entity
+@Table(name = "dna_stats_buckets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DnaStatsBucket {
+
+    @EmbeddedId
+    private DnaStatsBucketId id;
+
+    // Cantidad de ADN mutantes registrados en el tramo
+    @Column(name = "count_mutant_dna", nullable = false)
+    private long countMutantDna;
+
+    // Cantidad de ADN humanos registrados en el tramo
+    @Column(name = "count_human_dna", nullable = false)
+    private long countHumanDna;
+}
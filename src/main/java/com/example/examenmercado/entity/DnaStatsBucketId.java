@@ -0,0 +1,27 @@
+package com.example.examenmercado.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DnaStatsBucketId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private StatsGranularity granularity;
+
+    // Inicio del tramo (hora local del servidor, igual que dna_records.created_at)
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+}
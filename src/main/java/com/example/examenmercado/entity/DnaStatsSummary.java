@@ -0,0 +1,33 @@
+package com.example.examenmercado.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "dna_stats_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DnaStatsSummary {
+
+    // Única fila de resumen
+    public static final long SUMMARY_ID = 1L;
+
+    @Id
+    private Long id;
+
+    // Cantidad de ADN mutantes registrados
+    @Column(name = "count_mutant_dna", nullable = false)
+    private long countMutantDna;
+
+    // Cantidad de ADN humanos registrados
+    @Column(name = "count_human_dna", nullable = false)
+    private long countHumanDna;
+
+    // Fecha del último volcado de los contadores
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
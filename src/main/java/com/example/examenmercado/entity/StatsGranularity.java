@@ -0,0 +1,54 @@
+package com.example.examenmercado.entity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Resolución de los tramos de {@code /stats/timeseries}. Cada inserción suma en un tramo de
+ * cada resolución.
+ */
+public enum StatsGranularity {
+
+    MINUTE(ChronoUnit.MINUTES, 60),
+    HOUR(ChronoUnit.HOURS, 24),
+    DAY(ChronoUnit.DAYS, 30);
+
+    private final ChronoUnit unit;
+    // Tramos que devuelve la consulta si no se indica el inicio del rango
+    private final int defaultPoints;
+
+    StatsGranularity(ChronoUnit unit, int defaultPoints) {
+        this.unit = unit;
+        this.defaultPoints = defaultPoints;
+    }
+
+    /** Inicio del tramo que contiene {@code time}. */
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public LocalDateTime plus(LocalDateTime bucketStart, long buckets) {
+        return bucketStart.plus(buckets, unit);
+    }
+
+    public long bucketsBetween(LocalDateTime from, LocalDateTime to) {
+        return unit.between(from, to);
+    }
+
+    public int getDefaultPoints() {
+        return defaultPoints;
+    }
+
+    /** Acepta el nombre en minúsculas o mayúsculas ({@code hour}, {@code HOUR}); null si no existe. */
+    public static StatsGranularity parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.examenmercado.exception;
+
+public class DatabaseBusyException extends RuntimeException {
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.examenmercado.exception;
+
+/**
+ * Se lanza cuando el análisis asíncrono no puede dar un veredicto: la cola de detección está
+ * llena o venció el plazo de la petición. Se responde 503 y el cliente puede reintentar.
+ */
+public class DetectionUnavailableException extends RuntimeException {
+
+    public DetectionUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,30 +1,43 @@
 package com.example.examenmercado.exception;
 
 import com.example.examenmercado.dto.ErrorResponse;
+import com.example.examenmercado.service.MutantMetrics;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.time.LocalDateTime;
 
+/**
+ * Errores de la API como {@link ErrorResponse}. Los cuerpos de {@code /mutant} con un largo, un N
+ * o una forma inválidos ya los rechaza antes {@code EarlyRejectionFilter}, sin llegar hasta aquí.
+ */
 @RestControllerAdvice
+@RequiredArgsConstructor
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private final MutantMetrics mutantMetrics;
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationErrors(
             MethodArgumentNotValidException ex, HttpServletRequest request) {
 
-        String detailedMessage = ex.getBindingResult().getFieldErrors().stream()
-                .map(error -> error.getField() + ": " + error.getDefaultMessage())
-                .findFirst()
-                .orElse("Error de validación desconocido");
+        // Solo el primer error: no hace falta recorrer ni copiar la lista completa
+        FieldError fieldError = ex.getBindingResult().getFieldError();
+        String detailedMessage = fieldError != null
+                ? fieldError.getField() + ": " + fieldError.getDefaultMessage()
+                : "Error de validación desconocido";
 
         log.warn("Error de validación: {}", detailedMessage);
+        mutantMetrics.validationRejected();
 
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
@@ -37,6 +50,87 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleNotReadable(
+            HttpMessageNotReadableException ex, HttpServletRequest request) {
+
+        // El ADN se valida al parsear el JSON (PackedDnaDeserializer): mismo formato que @Valid
+        InvalidDnaException invalidDna = findInvalidDna(ex);
+        String message;
+        if (invalidDna != null) {
+            log.warn("Error de validación: dna: {} (fila {}, columna {})",
+                    invalidDna.getMessage(), invalidDna.getRow(), invalidDna.getColumn());
+            mutantMetrics.validationRejected();
+            message = "La petición contiene errores de validación: dna: " + invalidDna.getMessage();
+        } else {
+            log.warn("Cuerpo de la petición ilegible: {}", ex.getMessage());
+            message = "El cuerpo de la petición no es un JSON válido.";
+        }
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message(message)
+                .path(request.getRequestURI())
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidDnaException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidDna(
+            InvalidDnaException ex, HttpServletRequest request) {
+
+        // Por ejemplo ediciones de /mutant/delta, que solo se pueden validar contra la matriz base
+        log.warn("Error de validación: {} (fila {}, columna {})", ex.getMessage(), ex.getRow(), ex.getColumn());
+        mutantMetrics.validationRejected();
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message("La petición contiene errores de validación: " + ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(UnknownDnaException.class)
+    public ResponseEntity<ErrorResponse> handleUnknownDna(
+            UnknownDnaException ex, HttpServletRequest request) {
+
+        log.info("ADN base desconocido: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.NOT_FOUND.value())
+                .error(HttpStatus.NOT_FOUND.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(InvalidStatsQueryException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidStatsQuery(
+            InvalidStatsQueryException ex, HttpServletRequest request) {
+
+        log.warn("Consulta de estadísticas inválida: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(DnaHashCalculationException.class)
     public ResponseEntity<ErrorResponse> handleDnaHashCalculationException(
             DnaHashCalculationException ex, HttpServletRequest request) {
@@ -53,4 +147,47 @@ public class GlobalExceptionHandler {
 
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    @ExceptionHandler(DatabaseBusyException.class)
+    public ResponseEntity<ErrorResponse> handleDatabaseBusyException(
+            DatabaseBusyException ex, HttpServletRequest request) {
+
+        log.warn("Base de datos saturada: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(DetectionUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleDetectionUnavailable(
+            DetectionUnavailableException ex, HttpServletRequest request) {
+
+        log.warn("Análisis de ADN no disponible: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private static InvalidDnaException findInvalidDna(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InvalidDnaException invalidDna) {
+                return invalidDna;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,27 @@
+package com.example.examenmercado.exception;
+
+/**
+ * Se lanza cuando una secuencia de ADN no puede codificarse: no es NxN, tiene filas nulas
+ * o contiene una base distinta de A, T, C, G. Indica la fila y columna del primer error
+ * (columna -1 cuando el problema es la fila completa).
+ */
+public class InvalidDnaException extends RuntimeException {
+
+    private final int row;
+    private final int column;
+
+    public InvalidDnaException(String message, int row, int column) {
+        // Sin stack trace: es un error de datos de entrada, no de programación
+        super(message, null, false, false);
+        this.row = row;
+        this.column = column;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.examenmercado.exception;
+
+import com.example.examenmercado.entity.DnaHash;
+
+/**
+ * Se lanza cuando se pide re-analizar un ADN cuya matriz no está en memoria (nunca se envió,
+ * o se descartó de la cache): hay que enviarla completa a {@code /mutant}.
+ */
+public class UnknownDnaException extends RuntimeException {
+
+    public UnknownDnaException(DnaHash dnaHash) {
+        super("No hay una matriz de ADN con hash " + dnaHash + " en memoria. Se debe enviar completa a /mutant.");
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.examenmercado.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Índice hash en disco, mapeado en memoria, de la posición de cada registro en el
+ * {@link DnaRecordLog}. Direccionamiento abierto con sondeo lineal; cada posición guarda los
+ * primeros 8 bytes del hash (ya uniformes, sirven de clave sin volver a hashear) y la posición
+ * del registro más uno (0 = vacía). Como la clave es solo un prefijo, quien busca compara el
+ * hash completo contra el registro del log.
+ * <p>
+ * La cabecera guarda hasta qué posición del log cubre el índice con certeza (el último
+ * checkpoint); lo que esté después se vuelve a indexar desde el log al abrir. No es seguro
+ * para hilos: lo protege el lock del almacenamiento.
+ */
+final class DnaHashIndex implements Closeable {
+
+    private static final long MAGIC = 0x444E414944583031L; // "DNAIDX01"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 16;
+    private static final int VERSION_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 12;
+    private static final int COVERED_OFFSET = 16;
+    // Un único MappedByteBuffer: hasta 1 GiB de posiciones
+    private static final int MAX_CAPACITY = 1 << 26;
+    private static final double MAX_LOAD = 0.7;
+
+    private final Path path;
+    private FileChannel channel;
+    private MappedByteBuffer slots;
+    private int capacity;
+    private int size;
+
+    private DnaHashIndex(Path path) {
+        this.path = path;
+    }
+
+    /** Abre el índice existente o crea uno vacío (que no cubre nada del log) si falta o no es válido. */
+    static DnaHashIndex open(Path path, int initialCapacity) throws IOException {
+        DnaHashIndex index = new DnaHashIndex(path);
+        if (!index.mapExisting()) {
+            index.create(path, Integer.highestOneBit(Math.max(16, Math.min(MAX_CAPACITY, initialCapacity))), 0L);
+        }
+        return index;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long coveredLength() {
+        return slots.getLong(COVERED_OFFSET);
+    }
+
+    int slotOf(long key) {
+        return (int) (key ^ (key >>> 32)) & (capacity - 1);
+    }
+
+    int next(int slot) {
+        return (slot + 1) & (capacity - 1);
+    }
+
+    boolean isEmpty(int slot) {
+        return slots.getLong(position(slot) + Long.BYTES) == 0;
+    }
+
+    long keyAt(int slot) {
+        return slots.getLong(position(slot));
+    }
+
+    long offsetAt(int slot) {
+        return slots.getLong(position(slot) + Long.BYTES) - 1;
+    }
+
+    /** Agrega la posición sin comprobar duplicados: quien llama ya buscó el hash. */
+    void put(long key, long offset) throws IOException {
+        if (size + 1 > capacity * MAX_LOAD) {
+            grow();
+        }
+        insert(slots, capacity, key, offset);
+        size++;
+    }
+
+    /** Posiciones que apuntan a {@code end} o más allá (bytes del log que se perdieron). */
+    long countBeyond(long end) {
+        long count = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (!isEmpty(slot) && offsetAt(slot) >= end) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    void clear() {
+        for (int slot = 0; slot < capacity; slot++) {
+            slots.putLong(position(slot), 0L);
+            slots.putLong(position(slot) + Long.BYTES, 0L);
+        }
+        slots.putLong(COVERED_OFFSET, 0L);
+        size = 0;
+    }
+
+    /** Baja a disco las posiciones y después marca que el índice cubre el log hasta {@code coveredLength}. */
+    void checkpoint(long coveredLength) {
+        slots.force();
+        slots.putLong(COVERED_OFFSET, coveredLength);
+        slots.force(0, HEADER_SIZE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        slots.force();
+        channel.close();
+    }
+
+    private boolean mapExisting() throws IOException {
+        if (!Files.exists(path) || Files.size(path) < HEADER_SIZE) {
+            return false;
+        }
+        FileChannel existing = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer header = existing.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        int storedCapacity = header.getInt(CAPACITY_OFFSET);
+        if (header.getLong(0) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION
+                || storedCapacity <= 0 || storedCapacity > MAX_CAPACITY || Integer.bitCount(storedCapacity) != 1
+                || existing.size() != fileSize(storedCapacity)) {
+            existing.close();
+            return false;
+        }
+
+        channel = existing;
+        capacity = storedCapacity;
+        slots = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity));
+        // Se recuenta: las posiciones agregadas después del último checkpoint pueden estar o no
+        for (int slot = 0; slot < capacity; slot++) {
+            if (!isEmpty(slot)) {
+                size++;
+            }
+        }
+        return true;
+    }
+
+    private void create(Path target, int newCapacity, long coveredLength) throws IOException {
+        channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        capacity = newCapacity;
+        size = 0;
+        slots = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity));
+        slots.putLong(0, MAGIC);
+        slots.putInt(VERSION_OFFSET, VERSION);
+        slots.putInt(CAPACITY_OFFSET, capacity);
+        slots.putLong(COVERED_OFFSET, coveredLength);
+        slots.force();
+    }
+
+    // Reconstruye al doble en un archivo nuevo y lo reemplaza de forma atómica
+    private void grow() throws IOException {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("El índice de ADN llegó a su capacidad máxima (" + capacity + " posiciones).");
+        }
+        final FileChannel oldChannel = channel;
+        final MappedByteBuffer oldSlots = slots;
+        final int oldCapacity = capacity;
+        final int oldSize = size;
+        final Path grown = path.resolveSibling(path.getFileName() + ".tmp");
+
+        create(grown, oldCapacity * 2, oldSlots.getLong(COVERED_OFFSET));
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int position = HEADER_SIZE + slot * SLOT_SIZE;
+            long reference = oldSlots.getLong(position + Long.BYTES);
+            if (reference != 0) {
+                insert(slots, capacity, oldSlots.getLong(position), reference - 1);
+            }
+        }
+        size = oldSize;
+        slots.force();
+        Files.move(grown, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        oldChannel.close();
+    }
+
+    private static void insert(MappedByteBuffer slots, int capacity, long key, long offset) {
+        int slot = (int) (key ^ (key >>> 32)) & (capacity - 1);
+        while (slots.getLong(HEADER_SIZE + slot * SLOT_SIZE + Long.BYTES) != 0) {
+            slot = (slot + 1) & (capacity - 1);
+        }
+        slots.putLong(HEADER_SIZE + slot * SLOT_SIZE, key);
+        slots.putLong(HEADER_SIZE + slot * SLOT_SIZE + Long.BYTES, offset + 1);
+    }
+
+    private static long fileSize(int capacity) {
+        return HEADER_SIZE + (long) capacity * SLOT_SIZE;
+    }
+
+    private static int position(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.examenmercado.repository;
+
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.entity.DnaRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Log en disco de registros de ADN, solo de anexado. Después de la cabecera {@code DNALOG01}
+ * cada registro ocupa {@code 18 + largo del hash} bytes, little-endian:
+ * <pre>
+ * crc32c int | largo del hash byte | flags byte (bit 0: mutante) | created_at segundos long | nanos int | hash
+ * </pre>
+ * El CRC cubre todo lo que sigue a él. Un registro inválido marca el final válido del log; es
+ * la cola de una escritura cortada por una caída solo si lo que sigue hasta el final del archivo
+ * no alcanza para un registro completo o son ceros (espacio reservado y nunca escrito), ver
+ * {@link #isTornTail(long)}. Cualquier otro caso es corrupción en medio del log.
+ * <p>
+ * El archivo se bloquea al abrirlo: un segundo proceso sobre el mismo directorio falla.
+ */
+final class DnaRecordLog implements Closeable {
+
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 18;
+    private static final byte[] MAGIC = "DNALOG01".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_HASH_LENGTH = 64;
+    private static final int MAX_RECORD_SIZE = RECORD_HEADER_SIZE + MAX_HASH_LENGTH;
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+    private static final int MUTANT_FLAG = 1;
+
+    /** Un registro leído del log; {@code offset} es su posición en el archivo. */
+    record Entry(long offset, DnaHash dnaHash, boolean mutant, LocalDateTime createdAt) {
+
+        long end() {
+            return offset + recordSize(dnaHash);
+        }
+
+        // El id del registro es su posición: el log nunca se reescribe
+        DnaRecord toRecord() {
+            return new DnaRecord(offset, dnaHash, mutant, createdAt);
+        }
+    }
+
+    /** Visita de registros durante {@link #scan}. */
+    @FunctionalInterface
+    interface Visitor {
+        void visit(Entry entry) throws IOException;
+    }
+
+    private final FileChannel channel;
+    private final FileLock fileLock;
+    private final boolean syncOnWrite;
+    // Solo cambia con el lock de escritura del almacenamiento
+    private volatile long end;
+
+    private DnaRecordLog(FileChannel channel, FileLock fileLock, boolean syncOnWrite, long end) {
+        this.channel = channel;
+        this.fileLock = fileLock;
+        this.syncOnWrite = syncOnWrite;
+        this.end = end;
+    }
+
+    static DnaRecordLog open(Path path, boolean syncOnWrite) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock fileLock = channel.tryLock();
+            if (fileLock == null) {
+                throw new IOException("El log " + path + " está abierto por otro proceso.");
+            }
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.wrap(MAGIC), 0);
+                channel.force(true);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                readFully(channel, header, 0);
+                if (!Arrays.equals(header.array(), MAGIC)) {
+                    throw new IOException(path + " no es un log de registros de ADN.");
+                }
+            }
+            return new DnaRecordLog(channel, fileLock, syncOnWrite, channel.size());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static int recordSize(DnaHash dnaHash) {
+        return RECORD_HEADER_SIZE + dnaHash.length();
+    }
+
+    long size() {
+        return end;
+    }
+
+    /**
+     * Anexa los registros con una sola escritura (y un fsync si {@code sync-on-write}). Si falla,
+     * el archivo vuelve al largo anterior.
+     *
+     * @return la posición de cada registro
+     */
+    long[] append(List<DnaRecord> records) throws IOException {
+        int total = 0;
+        for (DnaRecord record : records) {
+            if (record.getDnaHash().length() > MAX_HASH_LENGTH) {
+                throw new IllegalArgumentException("Hash de ADN demasiado largo: " + record.getDnaHash().length());
+            }
+            total += recordSize(record.getDnaHash());
+        }
+
+        final long start = end;
+        ByteBuffer buffer = ByteBuffer.allocate(total).order(ByteOrder.LITTLE_ENDIAN);
+        long[] offsets = new long[records.size()];
+        for (int i = 0; i < records.size(); i++) {
+            offsets[i] = start + buffer.position();
+            encode(buffer, records.get(i));
+        }
+        buffer.flip();
+
+        long position = start;
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            if (syncOnWrite) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            try {
+                channel.truncate(start);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        end = position;
+        return offsets;
+    }
+
+    /** El registro en {@code offset}, o {@code null} si ahí no empieza un registro válido. */
+    Entry read(long offset) throws IOException {
+        if (offset < HEADER_SIZE || offset + RECORD_HEADER_SIZE > end) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(MAX_RECORD_SIZE, end - offset)).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, buffer, offset);
+        buffer.flip();
+        return decode(buffer, offset);
+    }
+
+    /**
+     * Recorre en orden los registros de {@code [from, to)} con lecturas secuenciales grandes.
+     *
+     * @return la posición donde terminó: {@code to}, o el primer registro inválido
+     */
+    long scan(long from, long to, Visitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        long offset = from;
+        long filePosition = from;
+        while (offset < to) {
+            if (buffer.remaining() < MAX_RECORD_SIZE && filePosition < to) {
+                buffer.compact();
+                // Sin leer más allá de to
+                buffer.limit((int) Math.min(buffer.capacity(), buffer.position() + (to - filePosition)));
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer, filePosition);
+                    if (read < 0) {
+                        break;
+                    }
+                    filePosition += read;
+                }
+                buffer.flip();
+            }
+            Entry entry = decode(buffer, offset);
+            if (entry == null) {
+                return offset;
+            }
+            visitor.visit(entry);
+            offset = entry.end();
+        }
+        return offset;
+    }
+
+    /**
+     * Si los bytes desde {@code validEnd} hasta el final pueden ser solo la cola de un anexado
+     * cortado: menos que un registro de tamaño máximo, o nada más que ceros.
+     */
+    boolean isTornTail(long validEnd) throws IOException {
+        if (end - validEnd < MAX_RECORD_SIZE) {
+            return true;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        for (long position = validEnd; position < end; position += buffer.limit()) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            readFully(channel, buffer, position);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                if (buffer.get() != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Descarta todo desde {@code size} (la cola de una escritura cortada). */
+    void truncate(long size) throws IOException {
+        channel.truncate(size);
+        channel.force(true);
+        end = size;
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            fileLock.release();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static void encode(ByteBuffer buffer, DnaRecord record) {
+        final int start = buffer.position();
+        final LocalDateTime createdAt = record.getCreatedAt();
+        final byte[] hash = record.getDnaHash().toBytes();
+        buffer.putInt(0)
+                .put((byte) hash.length)
+                .put((byte) (record.isMutant() ? MUTANT_FLAG : 0))
+                .putLong(createdAt.toEpochSecond(ZoneOffset.UTC))
+                .putInt(createdAt.getNano())
+                .put(hash);
+        buffer.putInt(start, checksum(buffer, start, buffer.position() - start));
+    }
+
+    // Lee un registro desde la posición actual del buffer y la avanza; null si está incompleto o corrupto
+    private static Entry decode(ByteBuffer buffer, long offset) {
+        final int start = buffer.position();
+        if (buffer.remaining() < RECORD_HEADER_SIZE) {
+            return null;
+        }
+        final int hashLength = buffer.get(start + 4) & 0xFF;
+        final int size = RECORD_HEADER_SIZE + hashLength;
+        if (hashLength == 0 || hashLength > MAX_HASH_LENGTH || buffer.remaining() < size
+                || buffer.getInt(start) != checksum(buffer, start, size)) {
+            return null;
+        }
+
+        final boolean mutant = (buffer.get(start + 5) & MUTANT_FLAG) != 0;
+        final LocalDateTime createdAt = LocalDateTime.ofEpochSecond(
+                buffer.getLong(start + 6), buffer.getInt(start + 14), ZoneOffset.UTC);
+        byte[] hash = new byte[hashLength];
+        buffer.get(start + RECORD_HEADER_SIZE, hash);
+        buffer.position(start + size);
+        return new Entry(offset, DnaHash.wrap(hash), mutant, createdAt);
+    }
+
+    private static int checksum(ByteBuffer buffer, int start, int size) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + Integer.BYTES, size - Integer.BYTES));
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+    }
+}
@@ -1,15 +1,45 @@
 package com.example.examenmercado.repository;
 
+import com.example.examenmercado.entity.DnaHash;
 import com.example.examenmercado.entity.DnaRecord;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface DnaRecordRepository extends JpaRepository<DnaRecord, Long> {
 
-    Optional<DnaRecord> findByDnaHash(String dnaHash);
+    Optional<DnaRecord> findByDnaHash(DnaHash dnaHash);
+
+    // Una sola consulta para todos los hashes de un tramo del lote
+    List<DnaRecord> findByDnaHashIn(Collection<DnaHash> dnaHashes);
 
     long countByIsMutant(boolean isMutant);
+
+    // Carga del filtro de hashes al iniciar: recorre la tabla sin materializarla (requiere transacción)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.dnaHash FROM DnaRecord r")
+    Stream<DnaHash> streamAllHashes();
+
+    // Hashes del lote que ya existen en la tabla (deduplicación entre lotes)
+    @Query("SELECT r.dnaHash FROM DnaRecord r WHERE r.dnaHash IN :hashes")
+    List<DnaHash> findExistingHashes(@Param("hashes") Collection<DnaHash> hashes);
+
+    // Reconstrucción de la serie temporal: ventanas por rango sobre idx_created_at
+    @Query("SELECT MIN(r.createdAt) FROM DnaRecord r")
+    Optional<LocalDateTime> findOldestCreatedAt();
+
+    @Query("SELECT r.createdAt AS createdAt, r.isMutant AS mutant FROM DnaRecord r "
+            + "WHERE r.createdAt >= :from AND r.createdAt < :to")
+    List<RecordTime> findCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
\ No newline at end of file
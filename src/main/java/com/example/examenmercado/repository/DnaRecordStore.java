@@ -0,0 +1,45 @@
+package com.example.examenmercado.repository;
+
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.entity.DnaRecord;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Almacenamiento de los registros de ADN analizados. Los servicios solo dependen de esta
+ * interfaz; {@code mutant.store.type} elige la implementación: {@code jpa} (tabla
+ * {@code dna_records}, por defecto) o {@code file} (log en disco con índice mapeado en memoria).
+ * <p>
+ * Los registros son inmutables y únicos por {@code dna_hash}.
+ */
+public interface DnaRecordStore {
+
+    Optional<DnaRecord> findByDnaHash(DnaHash dnaHash);
+
+    // Una sola operación para todos los hashes de un tramo del lote
+    List<DnaRecord> findByDnaHashIn(Collection<DnaHash> dnaHashes);
+
+    /**
+     * Guarda en una sola unidad atómica los registros cuyo hash todavía no está guardado.
+     *
+     * @return los registros realmente insertados
+     */
+    List<DnaRecord> saveAllNew(Collection<DnaRecord> records);
+
+    /** @return {@code false} si el hash ya estaba guardado (otro hilo o instancia lo insertó) */
+    boolean saveIfAbsent(DnaRecord record);
+
+    long countByIsMutant(boolean isMutant);
+
+    /** Recorre todos los hashes guardados sin materializarlos en memoria. */
+    void forEachHash(Consumer<DnaHash> action);
+
+    // Reconstrucción de la serie temporal por ventanas de created_at
+    Optional<LocalDateTime> findOldestCreatedAt();
+
+    List<RecordTime> findCreatedBetween(LocalDateTime from, LocalDateTime to);
+}
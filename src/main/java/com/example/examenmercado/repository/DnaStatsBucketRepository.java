@@ -0,0 +1,30 @@
+package com.example.examenmercado.repository;
+
+import com.example.examenmercado.entity.DnaStatsBucket;
+import com.example.examenmercado.entity.DnaStatsBucketId;
+import com.example.examenmercado.entity.StatsGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DnaStatsBucketRepository extends JpaRepository<DnaStatsBucket, DnaStatsBucketId> {
+
+    // Rango sobre la clave primaria: [from, to)
+    @Query("SELECT b FROM DnaStatsBucket b WHERE b.id.granularity = :granularity "
+            + "AND b.id.bucketStart >= :from AND b.id.bucketStart < :to ORDER BY b.id.bucketStart")
+    List<DnaStatsBucket> findRange(@Param("granularity") StatsGranularity granularity,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    // Retención de los tramos finos
+    @Modifying
+    @Query("DELETE FROM DnaStatsBucket b WHERE b.id.granularity = :granularity AND b.id.bucketStart < :before")
+    int deleteOlderThan(@Param("granularity") StatsGranularity granularity,
+                        @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,9 @@
+package com.example.examenmercado.repository;
+
+import com.example.examenmercado.entity.DnaStatsSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DnaStatsSummaryRepository extends JpaRepository<DnaStatsSummary, Long> {
+}
@@ -0,0 +1,390 @@
+package com.example.examenmercado.repository;
+
+import com.example.examenmercado.config.StoreProperties;
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.entity.DnaRecord;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * {@link DnaRecordStore} embebido y durable para un solo nodo, sin base externa: un
+ * {@link DnaRecordLog} solo de anexado más un {@link DnaHashIndex} mapeado en memoria. Una
+ * búsqueda es un sondeo en el índice y una lectura del registro en el log.
+ * <p>
+ * Recuperación: al abrir se recorre el log una vez, en secuencia, validando cada CRC. Se
+ * recalculan los contadores y el mapa de tiempos, y se indexa lo escrito después del último
+ * checkpoint. Si una caída dejó un registro incompleto al final, se trunca el log y el índice
+ * se reconstruye entero para que ninguna posición apunte a bytes perdidos. Un registro corrupto
+ * con datos después no es una caída: el arranque falla sin tocar el archivo.
+ * <p>
+ * Los registros son inmutables y únicos, así que el log no acumula entradas muertas que
+ * compactar; la tarea periódica es un checkpoint que acota lo que hay que releer al
+ * recuperarse. Las lecturas comparten un lock de lectura; las escrituras se serializan.
+ */
+@Repository
+@ConditionalOnProperty(name = "mutant.store.type", havingValue = "file")
+@Slf4j
+public class FileDnaRecordStore implements DnaRecordStore {
+
+    private static final String LOG_FILE = "dna-records.log";
+    private static final String INDEX_FILE = "dna-records.idx";
+    // Registros por bloque del mapa de tiempos
+    private static final int RECORDS_PER_BLOCK = 4096;
+
+    private final StoreProperties properties;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private DnaRecordLog recordLog;
+    private DnaHashIndex index;
+    private long mutantCount;
+    private long humanCount;
+    // Rango de created_at de cada tramo consecutivo del log: las consultas por tiempo solo leen
+    // los tramos que se solapan (el log está casi ordenado por created_at)
+    private final List<TimeBlock> blocks = new ArrayList<>();
+
+    public FileDnaRecordStore(StoreProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void open() {
+        final Path directory = Path.of(properties.getDirectory());
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            recordLog = DnaRecordLog.open(directory.resolve(LOG_FILE), properties.isSyncOnWrite());
+            index = DnaHashIndex.open(directory.resolve(INDEX_FILE), properties.getInitialIndexCapacity());
+            recover();
+            log.info("Almacenamiento de ADN abierto en {}: {} registros ({} mutantes, {} humanos).",
+                    directory, index.size(), mutantCount, humanCount);
+        } catch (IOException e) {
+            // Libera el bloqueo del log para poder repararlo sin detener el proceso
+            closeQuietly(e);
+            throw failure("No se pudo abrir el almacenamiento de ADN en " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<DnaRecord> findByDnaHash(DnaHash dnaHash) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(lookup(dnaHash)).map(DnaRecordLog.Entry::toRecord);
+        } catch (IOException e) {
+            throw failure("No se pudo leer el log de ADN", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<DnaRecord> findByDnaHashIn(Collection<DnaHash> dnaHashes) {
+        List<DnaRecord> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (DnaHash dnaHash : dnaHashes) {
+                DnaRecordLog.Entry entry = lookup(dnaHash);
+                if (entry != null) {
+                    found.add(entry.toRecord());
+                }
+            }
+            return found;
+        } catch (IOException e) {
+            throw failure("No se pudo leer el log de ADN", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<DnaRecord> saveAllNew(Collection<DnaRecord> records) {
+        lock.writeLock().lock();
+        try {
+            Map<DnaHash, DnaRecord> unique = new LinkedHashMap<>();
+            for (DnaRecord record : records) {
+                if (!unique.containsKey(record.getDnaHash()) && lookup(record.getDnaHash()) == null) {
+                    unique.put(record.getDnaHash(), record);
+                }
+            }
+            if (unique.isEmpty()) {
+                return List.of();
+            }
+
+            List<DnaRecord> inserted = new ArrayList<>(unique.values());
+            long[] offsets = recordLog.append(inserted);
+            // Si el índice falla a mitad, al reabrir se reindexa desde el último checkpoint
+            for (int i = 0; i < inserted.size(); i++) {
+                DnaRecord record = inserted.get(i);
+                record.setId(offsets[i]);
+                index.put(record.getDnaHash().longAt(0), offsets[i]);
+                track(offsets[i], offsets[i] + DnaRecordLog.recordSize(record.getDnaHash()),
+                        record.getCreatedAt(), record.isMutant());
+            }
+            return inserted;
+        } catch (IOException e) {
+            throw failure("No se pudo escribir en el log de ADN", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean saveIfAbsent(DnaRecord record) {
+        return !saveAllNew(List.of(record)).isEmpty();
+    }
+
+    @Override
+    public long countByIsMutant(boolean isMutant) {
+        lock.readLock().lock();
+        try {
+            return isMutant ? mutantCount : humanCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEachHash(Consumer<DnaHash> action) {
+        final long end = logSize();
+        try {
+            // Los registros no cambian una vez escritos: se leen sin el lock
+            recordLog.scan(DnaRecordLog.HEADER_SIZE, end, entry -> action.accept(entry.dnaHash()));
+        } catch (IOException e) {
+            throw failure("No se pudo leer el log de ADN", e);
+        }
+    }
+
+    @Override
+    public Optional<LocalDateTime> findOldestCreatedAt() {
+        lock.readLock().lock();
+        try {
+            return blocks.stream().map(block -> block.oldest).min(LocalDateTime::compareTo);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<RecordTime> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        List<long[]> ranges = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (TimeBlock block : blocks) {
+                if (block.oldest.isBefore(to) && !block.newest.isBefore(from)) {
+                    ranges.add(new long[]{block.start, block.end});
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<RecordTime> times = new ArrayList<>();
+        try {
+            for (long[] range : ranges) {
+                recordLog.scan(range[0], range[1], entry -> {
+                    if (!entry.createdAt().isBefore(from) && entry.createdAt().isBefore(to)) {
+                        times.add(new Time(entry.createdAt(), entry.mutant()));
+                    }
+                });
+            }
+        } catch (IOException e) {
+            throw failure("No se pudo leer el log de ADN", e);
+        }
+        return times;
+    }
+
+    @Scheduled(fixedDelayString = "${mutant.store.checkpoint-interval-ms:10000}",
+            initialDelayString = "${mutant.store.checkpoint-interval-ms:10000}")
+    public void checkpoint() {
+        lock.writeLock().lock();
+        try {
+            if (recordLog == null || recordLog.size() == index.coveredLength()) {
+                return;
+            }
+            // Primero el log: el índice nunca cubre bytes que no estén en disco
+            recordLog.force();
+            index.checkpoint(recordLog.size());
+        } catch (IOException e) {
+            log.warn("No se pudo hacer el checkpoint del almacenamiento de ADN: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (recordLog == null) {
+                return;
+            }
+            recordLog.force();
+            index.checkpoint(recordLog.size());
+            index.close();
+            recordLog.close();
+            recordLog = null;
+        } catch (IOException e) {
+            log.warn("No se pudo cerrar el almacenamiento de ADN: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        long covered = index.coveredLength();
+        if (covered < DnaRecordLog.HEADER_SIZE || covered > recordLog.size()) {
+            // Índice nuevo, o de otro log
+            index.clear();
+            covered = DnaRecordLog.HEADER_SIZE;
+        }
+
+        long validEnd = replay(covered);
+        if (validEnd < recordLog.size() && !recordLog.isTornTail(validEnd)) {
+            throw new IOException("el log de ADN tiene un registro corrupto en la posición " + validEnd
+                    + ", con " + (recordLog.size() - validEnd) + " bytes después. No se trunca para no perder"
+                    + " los registros siguientes: restaurar o reparar el archivo antes de arrancar");
+        }
+        if (validEnd < recordLog.size() || index.countBeyond(validEnd) > 0) {
+            log.warn("El log de ADN tiene {} bytes incompletos al final (caída). Se truncan y se reconstruye el índice.",
+                    recordLog.size() - validEnd);
+            recordLog.truncate(validEnd);
+            index.clear();
+            validEnd = replay(DnaRecordLog.HEADER_SIZE);
+        }
+        index.checkpoint(validEnd);
+    }
+
+    // Recorre todo el log: contadores y mapa de tiempos, e indexa lo que empieza desde indexFrom
+    private long replay(long indexFrom) throws IOException {
+        mutantCount = 0;
+        humanCount = 0;
+        blocks.clear();
+        return recordLog.scan(DnaRecordLog.HEADER_SIZE, recordLog.size(), entry -> {
+            if (entry.offset() >= indexFrom) {
+                DnaRecordLog.Entry existing = lookup(entry.dnaHash());
+                if (existing == null) {
+                    index.put(entry.dnaHash().longAt(0), entry.offset());
+                } else if (existing.offset() != entry.offset()) {
+                    // Copia repetida: cuenta solo la primera
+                    return;
+                }
+            }
+            track(entry.offset(), entry.end(), entry.createdAt(), entry.mutant());
+        });
+    }
+
+    private DnaRecordLog.Entry lookup(DnaHash dnaHash) throws IOException {
+        final long key = dnaHash.longAt(0);
+        for (int slot = index.slotOf(key); !index.isEmpty(slot); slot = index.next(slot)) {
+            if (index.keyAt(slot) == key) {
+                DnaRecordLog.Entry entry = recordLog.read(index.offsetAt(slot));
+                // La clave es un prefijo: se confirma con el hash completo del registro
+                if (entry != null && entry.dnaHash().equals(dnaHash)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void track(long start, long end, LocalDateTime createdAt, boolean isMutant) {
+        if (isMutant) {
+            mutantCount++;
+        } else {
+            humanCount++;
+        }
+        TimeBlock last = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+        if (last == null || last.records == RECORDS_PER_BLOCK) {
+            last = new TimeBlock(start, createdAt);
+            blocks.add(last);
+        }
+        last.add(end, createdAt);
+    }
+
+    private long logSize() {
+        lock.readLock().lock();
+        try {
+            return recordLog.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void closeQuietly(IOException failure) {
+        try {
+            if (index != null) {
+                index.close();
+            }
+            if (recordLog != null) {
+                recordLog.close();
+            }
+        } catch (IOException suppressed) {
+            failure.addSuppressed(suppressed);
+        } finally {
+            index = null;
+            recordLog = null;
+        }
+    }
+
+    private static DataAccessResourceFailureException failure(String message, IOException cause) {
+        return new DataAccessResourceFailureException(message + ": " + cause.getMessage(), cause);
+    }
+
+    private static final class TimeBlock {
+
+        private final long start;
+        private long end;
+        private int records;
+        private LocalDateTime oldest;
+        private LocalDateTime newest;
+
+        private TimeBlock(long start, LocalDateTime createdAt) {
+            this.start = start;
+            this.oldest = createdAt;
+            this.newest = createdAt;
+        }
+
+        private void add(long recordEnd, LocalDateTime createdAt) {
+            end = recordEnd;
+            records++;
+            if (createdAt.isBefore(oldest)) {
+                oldest = createdAt;
+            }
+            if (createdAt.isAfter(newest)) {
+                newest = createdAt;
+            }
+        }
+    }
+
+    private record Time(LocalDateTime createdAt, boolean mutant) implements RecordTime {
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        @Override
+        public boolean isMutant() {
+            return mutant;
+        }
+    }
+}
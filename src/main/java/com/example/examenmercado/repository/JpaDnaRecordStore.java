@@ -0,0 +1,92 @@
+package com.example.examenmercado.repository;
+
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.entity.DnaRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link DnaRecordStore} sobre la tabla {@code dna_records} (JPA). Es la implementación por
+ * defecto; la unicidad la garantiza el índice único de {@code dna_hash}.
+ */
+@Repository
+@ConditionalOnProperty(name = "mutant.store.type", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaDnaRecordStore implements DnaRecordStore {
+
+    private final DnaRecordRepository dnaRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public Optional<DnaRecord> findByDnaHash(DnaHash dnaHash) {
+        return dnaRecordRepository.findByDnaHash(dnaHash);
+    }
+
+    @Override
+    public List<DnaRecord> findByDnaHashIn(Collection<DnaHash> dnaHashes) {
+        return dnaRecordRepository.findByDnaHashIn(dnaHashes);
+    }
+
+    @Override
+    public List<DnaRecord> saveAllNew(Collection<DnaRecord> records) {
+        Map<DnaHash, DnaRecord> unique = new LinkedHashMap<>();
+        for (DnaRecord record : records) {
+            unique.putIfAbsent(record.getDnaHash(), record);
+        }
+        return transactionTemplate.execute(status -> {
+            // Deduplicación contra lotes anteriores y escrituras sincrónicas
+            dnaRecordRepository.findExistingHashes(unique.keySet()).forEach(unique::remove);
+            List<DnaRecord> inserted = new ArrayList<>(unique.values());
+            dnaRecordRepository.saveAll(inserted);
+            return inserted;
+        });
+    }
+
+    @Override
+    public boolean saveIfAbsent(DnaRecord record) {
+        try {
+            dnaRecordRepository.save(record);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public long countByIsMutant(boolean isMutant) {
+        return dnaRecordRepository.countByIsMutant(isMutant);
+    }
+
+    @Override
+    public void forEachHash(Consumer<DnaHash> action) {
+        // El stream de Hibernate necesita una transacción abierta mientras se recorre
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<DnaHash> hashes = dnaRecordRepository.streamAllHashes()) {
+                hashes.forEach(action);
+            }
+        });
+    }
+
+    @Override
+    public Optional<LocalDateTime> findOldestCreatedAt() {
+        return dnaRecordRepository.findOldestCreatedAt();
+    }
+
+    @Override
+    public List<RecordTime> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return dnaRecordRepository.findCreatedBetween(from, to);
+    }
+}
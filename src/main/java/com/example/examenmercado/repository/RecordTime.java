@@ -0,0 +1,11 @@
+package com.example.examenmercado.repository;
+
+import java.time.LocalDateTime;
+
+/** Proyección de {@code dna_records} para reconstruir la serie temporal desde {@code created_at}. */
+public interface RecordTime {
+
+    LocalDateTime getCreatedAt();
+
+    boolean isMutant();
+}
@@ -0,0 +1,105 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.AsyncProperties;
+import com.example.examenmercado.exception.DetectionUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Ejecutores del análisis asíncrono, separados por tipo de trabajo.
+ * <ul>
+ *     <li>Detección (CPU): un hilo de plataforma por procesador y una cola acotada. Con la cola
+ *     llena la tarea se rechaza en el momento en lugar de acumular espera.</li>
+ *     <li>Hash, consultas y escritura (I/O): un hilo virtual por tarea; la concurrencia contra
+ *     la base ya la limita {@link DbConcurrencyLimiter}.</li>
+ * </ul>
+ * Así una matriz gigante ocupa un hilo de detección y no los portadores de los hilos virtuales
+ * que atienden al resto de las peticiones.
+ */
+@Component
+public class AnalysisExecutors implements MeterBinder {
+
+    private final ThreadPoolExecutor detectionPool;
+    private final ExecutorService ioExecutor;
+
+    public AnalysisExecutors(AsyncProperties properties) {
+        int threads = properties.getDetectionThreads() > 0
+                ? properties.getDetectionThreads()
+                : Runtime.getRuntime().availableProcessors();
+        this.detectionPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                Thread.ofPlatform().name("dna-detect-", 0).daemon(true).factory());
+        this.ioExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dna-io-", 0).factory());
+    }
+
+    /**
+     * Ejecuta {@code task} en el pool de detección. La tarea recibe la señal de cancelación, que
+     * pasa a {@code true} en cuanto el futuro devuelto termina por otro lado ({@code cancel} o
+     * plazo vencido); una tarea cancelada mientras esperaba en la cola ni siquiera empieza.
+     *
+     * @return el resultado de la tarea; falla con {@link DetectionUnavailableException} si la
+     * cola está llena
+     */
+    public <T> CompletableFuture<T> detect(Function<BooleanSupplier, T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            detectionPool.execute(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(task.apply(result::isDone));
+                } catch (CancellationException e) {
+                    // El futuro ya terminó: nadie espera este resultado
+                    result.cancel(false);
+                } catch (RuntimeException | Error e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new DetectionUnavailableException(
+                    "La cola de detección está llena. Reintentar más tarde."));
+        }
+        return result;
+    }
+
+    /** Hilos del pool de detección. */
+    public int detectionThreads() {
+        return detectionPool.getMaximumPoolSize();
+    }
+
+    public Executor io() {
+        return ioExecutor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        detectionPool.shutdownNow();
+        ioExecutor.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mutant.detection.queue", detectionPool, pool -> pool.getQueue().size())
+                .description("Detecciones esperando un hilo del pool de CPU")
+                .register(registry);
+        Gauge.builder("mutant.detection.active", detectionPool, ThreadPoolExecutor::getActiveCount)
+                .description("Hilos del pool de CPU ocupados con una detección")
+                .register(registry);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Límite de velocidad por cliente, en celdas de ADN: un token bucket de {@code burst-cells} que
+ * se recarga a {@code cells-per-second}, así una matriz de 5000x5000 gasta 25 millones y una de
+ * 6x6 el costo mínimo. El costo nunca se recorta: uno mayor que la ráfaga solo se admite con la
+ * ráfaga llena y queda como deuda, que el cliente paga esperando antes de la petición siguiente.
+ * Los lotes se cobran elemento por elemento ({@link MutantBatchService}).
+ * <p>
+ * Cada cliente es un solo {@link AtomicLong} con el "tiempo teórico de llegada" del algoritmo
+ * GCRA, equivalente al token bucket: cobrar es avanzarlo por {@code costo / velocidad} con un
+ * compare-and-set, sin locks ni objetos por petición. Los clientes viven en una cache Caffeine
+ * acotada que olvida a los inactivos.
+ */
+@Component
+public class ClientRateLimiter {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final RateLimitProperties properties;
+    private final Cache<String, AtomicLong> clients;
+    private final LongSupplier nanoClock;
+    private final double nanosPerCell;
+    private final long burstNanos;
+
+    @Autowired
+    public ClientRateLimiter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    ClientRateLimiter(RateLimitProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.nanosPerCell = NANOS_PER_SECOND / properties.getCellsPerSecond();
+        this.burstNanos = (long) (properties.getBurstCells() * nanosPerCell);
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getClientIdleTimeout())
+                .build();
+    }
+
+    /**
+     * Cobra {@code cells} al cliente si le alcanza el saldo.
+     *
+     * @return 0 si se admitió; si no, nanosegundos hasta que le alcance
+     */
+    public long tryAcquire(String client, long cells) {
+        final long cost = Math.max(properties.getMinCost(), cells);
+        final long increment = (long) (cost * nanosPerCell);
+        final AtomicLong arrival = clients.get(client, key -> new AtomicLong(nanoClock.getAsLong() - burstNanos));
+
+        while (true) {
+            final long now = nanoClock.getAsLong();
+            final long current = arrival.get();
+            // Un cliente que no gastó su ráfaga no acumula más que ella
+            final long start = Math.max(current, now - burstNanos);
+            final long next = start + increment;
+            // Más que la ráfaga: se espera a tenerla llena y el resto queda como deuda
+            final long wait = increment > burstNanos ? start - (now - burstNanos) : next - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.ConcurrencyProperties;
+import com.example.examenmercado.exception.DatabaseBusyException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limita los accesos simultáneos a la base al tamaño del pool de conexiones. Con hilos virtuales
+ * puede haber miles de requests en vuelo; sin este límite todos esperarían dentro de Hikari
+ * (y vencerían su timeout) en lugar de esperar aquí, sin ocupar un hilo de plataforma.
+ */
+@Component
+public class DbConcurrencyLimiter {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    @Autowired
+    public DbConcurrencyLimiter(ConcurrencyProperties properties, Environment environment) {
+        this(properties.getDbMaxConcurrency() > 0
+                        ? properties.getDbMaxConcurrency()
+                        : environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, DEFAULT_POOL_SIZE),
+                properties.getDbAcquireTimeout());
+    }
+
+    public DbConcurrencyLimiter(int maxConcurrency, Duration acquireTimeout) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrency), true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    public <T> T call(Supplier<T> action) {
+        acquire();
+        try {
+            return action.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable action) {
+        acquire();
+        try {
+            action.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new DatabaseBusyException("La base de datos está saturada. Reintente más tarde.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Espera de acceso a la base interrumpida.");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.examenmercado.service;
+
+import java.util.Arrays;
+
+import static com.example.examenmercado.service.PackedRunScanner.SEQUENCE_LENGTH;
+
+/**
+ * Recuento incremental de secuencias después de editar algunas celdas.
+ * <p>
+ * Una secuencia es una ventana (celda de inicio, dirección) de 4 bases iguales: lo mismo que
+ * cuentan los {@link RunCounter}. Editar una celda solo puede cambiar las ventanas que la
+ * contienen, como mucho 4 por dirección. Con esas ventanas, sin repetir aunque contengan
+ * varias celdas editadas, el total de la matriz editada es
+ * {@code total original - secuencias en las ventanas antes + secuencias en las ventanas después}.
+ * Son como mucho 16 ventanas de 4 celdas por edición, en lugar de recorrer las N² celdas.
+ */
+final class DeltaRunCounter {
+
+    // Horizontal, vertical, diagonal descendente y ascendente, como PackedRunScanner
+    private static final int[] ROW_STEP = {0, 1, 1, -1};
+    private static final int[] COL_STEP = {1, 0, 1, 1};
+    private static final int DIRECTIONS = ROW_STEP.length;
+
+    private DeltaRunCounter() {
+    }
+
+    /** Ventanas que contienen alguna de las celdas, ordenadas y sin repetir, como {@code inicio * 4 + dirección}. */
+    static long[] affectedWindows(int size, int[] rows, int[] cols) {
+        long[] windows = new long[rows.length * DIRECTIONS * SEQUENCE_LENGTH];
+        int count = 0;
+        for (int i = 0; i < rows.length; i++) {
+            for (int direction = 0; direction < DIRECTIONS; direction++) {
+                for (int k = 0; k < SEQUENCE_LENGTH; k++) {
+                    final int startRow = rows[i] - k * ROW_STEP[direction];
+                    final int startCol = cols[i] - k * COL_STEP[direction];
+                    final int endRow = startRow + (SEQUENCE_LENGTH - 1) * ROW_STEP[direction];
+                    final int endCol = startCol + (SEQUENCE_LENGTH - 1) * COL_STEP[direction];
+                    if (startCol >= 0 && endCol < size
+                            && Math.min(startRow, endRow) >= 0 && Math.max(startRow, endRow) < size) {
+                        windows[count++] = ((long) startRow * size + startCol) * DIRECTIONS + direction;
+                    }
+                }
+            }
+        }
+
+        Arrays.sort(windows, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || windows[i] != windows[unique - 1]) {
+                windows[unique++] = windows[i];
+            }
+        }
+        return Arrays.copyOf(windows, unique);
+    }
+
+    /** Cuántas de las ventanas son secuencias de 4 bases iguales en {@code matrix}. */
+    static int countRuns(PackedDnaMatrix matrix, long[] windows) {
+        final int size = matrix.size();
+        int found = 0;
+        for (long window : windows) {
+            final int direction = (int) (window % DIRECTIONS);
+            final long start = window / DIRECTIONS;
+            final int row = (int) (start / size);
+            final int col = (int) (start % size);
+            final int first = matrix.codeAt(row, col);
+            int step = 1;
+            while (step < SEQUENCE_LENGTH
+                    && matrix.codeAt(row + step * ROW_STEP[direction], col + step * COL_STEP[direction]) == first) {
+                step++;
+            }
+            if (step == SEQUENCE_LENGTH) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
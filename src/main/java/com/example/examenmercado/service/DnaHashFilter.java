@@ -0,0 +1,226 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.HashFilterProperties;
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.repository.DnaRecordStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Filtro de Bloom escalable sobre todos los {@code dna_hash} guardados, para no consultar la
+ * base por un ADN que seguro no está (la mayoría de las muestras son nuevas).
+ * <p>
+ * Se carga al iniciar recorriendo en streaming los registros guardados y suma cada hash al
+ * encolarlo para escribir, antes de que quede guardado: nunca da un falso negativo para lo
+ * escrito por esta instancia. Hasta terminar la carga (o si falla) responde "puede estar" y se consulta la base.
+ * Los hashes ya son uniformes, así que los índices salen de dos palabras del propio hash
+ * (doble hashing) sin volver a hashear.
+ * <p>
+ * Crece por tramos: cuando el último llega a su capacidad se agrega otro del doble con la mitad
+ * de tasa de falsos positivos, así la tasa total queda por debajo de {@code false-positive-rate}.
+ * Los bits se escriben con CAS, sin bloqueos; solo agregar un tramo toma un lock.
+ */
+@Component
+@Slf4j
+public class DnaHashFilter implements MeterBinder {
+
+    private static final int GROWTH_FACTOR = 2;
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final HashFilterProperties properties;
+    private final DnaRecordStore dnaRecordStore;
+    private final DbConcurrencyLimiter dbLimiter;
+
+    // Copia al agregar un tramo: las lecturas recorren el arreglo sin sincronizar
+    private volatile Segment[] segments;
+    private final ReentrantLock growLock = new ReentrantLock();
+    private volatile boolean ready;
+    private final LongAdder skippedLookups = new LongAdder();
+
+    public DnaHashFilter(HashFilterProperties properties,
+                         DnaRecordStore dnaRecordStore,
+                         DbConcurrencyLimiter dbLimiter) {
+        this.properties = properties;
+        this.dnaRecordStore = dnaRecordStore;
+        this.dbLimiter = dbLimiter;
+        this.segments = new Segment[]{new Segment(
+                Math.max(1, properties.getExpectedInsertions()),
+                properties.getFalsePositiveRate() * (1 - TIGHTENING_RATIO))};
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!properties.isEnabled()) {
+            log.info("Filtro de hashes deshabilitado: se consulta siempre la base.");
+            return;
+        }
+        try {
+            LongAdder loaded = new LongAdder();
+            dbLimiter.run(() -> dnaRecordStore.forEachHash(dnaHash -> {
+                add(dnaHash);
+                loaded.increment();
+            }));
+            ready = true;
+            log.info("Filtro de hashes cargado con {} registros ({} KB).", loaded.sum(), memoryBytes() / 1024);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo cargar el filtro de hashes ({}). Se consulta siempre la base.", e.getMessage());
+        }
+    }
+
+    public void add(DnaHash dnaHash) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        final long h1 = dnaHash.longAt(0);
+        final long h2 = dnaHash.longAt(1);
+        if (contains(segments, h1, h2)) {
+            return;
+        }
+
+        Segment last = lastSegment();
+        if (last.isFull()) {
+            last = grow(last);
+        }
+        last.put(h1, h2);
+    }
+
+    /**
+     * {@code true} si el hash seguro no está guardado y se puede omitir la consulta a la base.
+     * {@code false} si puede estar (o el filtro no está listo).
+     */
+    public boolean isDefinitelyAbsent(DnaHash dnaHash) {
+        if (!ready || contains(segments, dnaHash.longAt(0), dnaHash.longAt(1))) {
+            return false;
+        }
+        skippedLookups.increment();
+        return true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mutant.hash.filter.entries", this, DnaHashFilter::entries)
+                .description("Hashes agregados al filtro de Bloom (aproximado)")
+                .register(registry);
+        Gauge.builder("mutant.hash.filter.memory", this, DnaHashFilter::memoryBytes)
+                .description("Memoria de los bits del filtro de Bloom")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("mutant.hash.filter.segments", this, DnaHashFilter::segmentCount)
+                .description("Tramos del filtro de Bloom escalable")
+                .register(registry);
+        FunctionCounter.builder("mutant.hash.filter.skipped", skippedLookups, LongAdder::sum)
+                .description("Consultas a la base omitidas porque el hash seguro no estaba guardado")
+                .register(registry);
+    }
+
+    long entries() {
+        return Arrays.stream(segments).mapToLong(segment -> segment.count.sum()).sum();
+    }
+
+    long memoryBytes() {
+        return Arrays.stream(segments).mapToLong(segment -> (long) segment.bits.length() * Long.BYTES).sum();
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    private Segment lastSegment() {
+        Segment[] current = segments;
+        return current[current.length - 1];
+    }
+
+    private Segment grow(Segment full) {
+        growLock.lock();
+        try {
+            Segment last = lastSegment();
+            if (last != full) {
+                // Otro hilo ya agregó el tramo
+                return last;
+            }
+            Segment next = new Segment(full.capacity * GROWTH_FACTOR, full.falsePositiveRate * TIGHTENING_RATIO);
+            Segment[] grown = Arrays.copyOf(segments, segments.length + 1);
+            grown[grown.length - 1] = next;
+            segments = grown;
+            log.info("Filtro de hashes: nuevo tramo para {} hashes.", next.capacity);
+            return next;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private static boolean contains(Segment[] segments, long h1, long h2) {
+        for (Segment segment : segments) {
+            if (segment.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Filtro de Bloom de tamaño fijo: m bits y k funciones para n elementos con tasa p
+    private static final class Segment {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray bits;
+        private final LongAdder count = new LongAdder();
+
+        private Segment(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            // m = -n ln p / (ln 2)^2, k = m/n ln 2
+            long words = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)) / Long.SIZE);
+            this.bits = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE, Math.max(1, words)));
+            this.bitCount = (long) bits.length() * Long.SIZE;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        boolean isFull() {
+            return count.sum() >= capacity;
+        }
+
+        boolean mightContain(long h1, long h2) {
+            long combined = h1;
+            for (int i = 0; i < hashCount; i++) {
+                long index = (combined & Long.MAX_VALUE) % bitCount;
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+                combined += h2;
+            }
+            return true;
+        }
+
+        void put(long h1, long h2) {
+            long combined = h1;
+            for (int i = 0; i < hashCount; i++) {
+                long index = (combined & Long.MAX_VALUE) % bitCount;
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+                combined += h2;
+            }
+            count.increment();
+        }
+    }
+}
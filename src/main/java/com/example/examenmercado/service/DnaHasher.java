@@ -0,0 +1,117 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.HashProperties;
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.exception.DnaHashCalculationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Calcula el {@link DnaHash} de una secuencia sobre su forma empaquetada canónica: N (8 bytes)
+ * seguido de las palabras de 2 bits por base de cada fila, little-endian. Son 4 veces menos bytes
+ * que las filas en texto y no depende de mayúsculas/minúsculas.
+ * <p>
+ * El estado (digest y buffer) se toma de un pool sin bloqueos y se devuelve al terminar: con
+ * hilos virtuales, que no se reutilizan entre requests, un {@code ThreadLocal} crearía un digest
+ * nuevo por llamada. Así la única asignación por llamada es la clave resultante.
+ */
+@Component
+@Slf4j
+public class DnaHasher {
+
+    // Múltiplo de 8: las palabras nunca quedan partidas entre dos vaciados
+    private static final int BUFFER_SIZE = 1024;
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final HashProperties.Algorithm algorithm;
+    // Crece hasta el máximo de llamadas simultáneas observadas
+    private final Queue<HashState> states = new ConcurrentLinkedQueue<>();
+
+    public DnaHasher(HashProperties properties) {
+        this.algorithm = properties.getAlgorithm();
+    }
+
+    public DnaHash hash(PackedDnaMatrix matrix) {
+        HashState hashState = states.poll();
+        if (hashState == null) {
+            hashState = new HashState(algorithm);
+        }
+        try {
+            return hash(matrix, hashState);
+        } finally {
+            states.offer(hashState);
+        }
+    }
+
+    public HashProperties.Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    private static DnaHash hash(PackedDnaMatrix matrix, HashState hashState) {
+        final byte[] buffer = hashState.buffer;
+        final long[] words = matrix.words();
+        // Sin la palabra de relleno final; el relleno de cada fila siempre es cero
+        final int count = matrix.size() * matrix.wordsPerRow();
+
+        LONG_VIEW.set(buffer, 0, (long) matrix.size());
+        int position = Long.BYTES;
+        for (int i = 0; i < count; i++) {
+            LONG_VIEW.set(buffer, position, words[i]);
+            position += Long.BYTES;
+            if (position == BUFFER_SIZE) {
+                hashState.update(buffer, position);
+                position = 0;
+            }
+        }
+        hashState.update(buffer, position);
+
+        return DnaHash.wrap(hashState.digest());
+    }
+
+    // Digest reutilizable más un buffer de bytes; lo usa un solo hilo a la vez
+    private static final class HashState {
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final MessageDigest sha256;
+        private final Murmur3Hash128 murmur;
+
+        private HashState(HashProperties.Algorithm algorithm) {
+            if (algorithm == HashProperties.Algorithm.MURMUR3_128) {
+                this.sha256 = null;
+                this.murmur = new Murmur3Hash128();
+            } else {
+                this.sha256 = newSha256();
+                this.murmur = null;
+            }
+        }
+
+        private void update(byte[] bytes, int length) {
+            if (sha256 != null) {
+                sha256.update(bytes, 0, length);
+            } else {
+                murmur.update(bytes, 0, length);
+            }
+        }
+
+        private byte[] digest() {
+            return sha256 != null ? sha256.digest() : murmur.digest();
+        }
+
+        private static MessageDigest newSha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                log.error("Error al calcular el hash SHA-256", e);
+                throw new DnaHashCalculationException("Error al calcular el hash de ADN.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.DeltaProperties;
+import com.example.examenmercado.entity.DnaHash;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Matrices ya analizadas que pueden servir de base para {@code /mutant/delta}, con su conteo
+ * exacto de secuencias. Cache Caffeine acotada por memoria ({@code cache-maximum-size}, pesando
+ * cada matriz por sus palabras de 2 bits) y por tiempo sin uso. Publica sus estadísticas como
+ * métricas {@code cache.*{cache=dna_matrices}}.
+ */
+@Component
+public class DnaMatrixCache implements MeterBinder {
+
+    private final DeltaProperties properties;
+    private final Cache<DnaHash, CachedMatrix> cache;
+
+    /** Matriz base y su conteo total de secuencias, que se calcula la primera vez que se pide. */
+    static final class CachedMatrix {
+
+        private final PackedDnaMatrix matrix;
+        // -1 hasta que la primera edición lo necesita: /mutant corta al encontrar dos secuencias
+        private volatile long runs;
+
+        private CachedMatrix(PackedDnaMatrix matrix, long runs) {
+            this.matrix = matrix;
+            this.runs = runs;
+        }
+
+        PackedDnaMatrix matrix() {
+            return matrix;
+        }
+
+        long runs(MutantDetector detector) {
+            long known = runs;
+            if (known < 0) {
+                // Dos hilos pueden contar a la vez: el resultado es el mismo
+                known = detector.countRuns(matrix);
+                runs = known;
+            }
+            return known;
+        }
+    }
+
+    public DnaMatrixCache(DeltaProperties properties) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getCacheMaximumSize().toBytes())
+                .weigher((DnaHash dnaHash, CachedMatrix cached) ->
+                        (int) Math.min(Integer.MAX_VALUE, (long) cached.matrix.words().length * Long.BYTES))
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .recordStats()
+                .build();
+    }
+
+    /** Guarda la matriz como base de futuras ediciones, si es de al menos {@code min-size}. */
+    public void remember(DnaHash dnaHash, PackedDnaMatrix matrix) {
+        if (accepts(matrix)) {
+            cache.asMap().putIfAbsent(dnaHash, new CachedMatrix(matrix, -1));
+        }
+    }
+
+    // Resultado de una edición: el conteo ya se conoce
+    void remember(DnaHash dnaHash, PackedDnaMatrix matrix, long runs) {
+        if (accepts(matrix)) {
+            cache.put(dnaHash, new CachedMatrix(matrix, runs));
+        }
+    }
+
+    Optional<CachedMatrix> get(DnaHash dnaHash) {
+        return Optional.ofNullable(cache.getIfPresent(dnaHash));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "dna_matrices");
+    }
+
+    private boolean accepts(PackedDnaMatrix matrix) {
+        return properties.isEnabled() && matrix.size() >= properties.getMinSize();
+    }
+}
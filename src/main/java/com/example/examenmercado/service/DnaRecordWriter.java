@@ -0,0 +1,300 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.WriteBehindProperties;
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.entity.DnaRecord;
+import com.example.examenmercado.exception.DatabaseBusyException;
+import com.example.examenmercado.repository.DnaRecordStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistencia de los registros de ADN nuevos.
+ * <p>
+ * Con la escritura diferida habilitada, los registros se encolan en una cola acotada y un hilo
+ * los vuelca en lotes ({@link DnaRecordStore#saveAllNew}; con JPA, INSERTs por lotes JDBC en una
+ * transacción) cuando se junta {@code batch-size} o vence {@code flush-interval}. Con la cola
+ * llena el productor espera hasta {@code offer-timeout} y, si sigue llena, guarda el registro él
+ * mismo (contrapresión).
+ * <p>
+ * Deduplica por {@code dna_hash}: al encolar (registros pendientes) y al volcar (contra lo ya
+ * guardado). Los contadores de {@link StatsCounter} y la serie de {@link StatsTimeSeries} se
+ * incrementan solo por filas realmente insertadas; el {@link DnaHashFilter} recibe cada hash
+ * antes de encolarlo. Al apagar se vacía la cola antes de cerrar. Todos los accesos a la base
+ * pasan por {@link DbConcurrencyLimiter}.
+ * <p>
+ * Un lote que falla por la base saturada ({@link DatabaseBusyException}) o por un error
+ * transitorio se reintenta entero con espera exponencial ({@code retry-backoff} hasta
+ * {@code max-retry-backoff}); mientras tanto sus registros siguen pendientes y visibles. Solo un
+ * duplicado real se descarta. Al apagar se reintenta hasta el plazo de cierre.
+ */
+@Component
+@Slf4j
+public class DnaRecordWriter {
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+    // Despierta al hilo de volcado al apagar sin interrumpirlo
+    private static final DnaRecord STOP_SIGNAL = new DnaRecord();
+
+    private final DnaRecordStore dnaRecordStore;
+    private final StatsCounter statsCounter;
+    private final StatsTimeSeries statsTimeSeries;
+    private final DnaHashFilter dnaHashFilter;
+    private final WriteBehindProperties properties;
+    private final DbConcurrencyLimiter dbLimiter;
+
+    private final BlockingQueue<DnaRecord> queue;
+    // Registros encolados o en vuelo, visibles para las lecturas antes de llegar a la tabla
+    private final Map<DnaHash, DnaRecord> pending = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    // Hasta cuándo se reintenta un lote una vez pedido el apagado
+    private volatile long stopDeadlineNanos;
+    private Thread flusher;
+
+    public DnaRecordWriter(DnaRecordStore dnaRecordStore,
+                           StatsCounter statsCounter,
+                           StatsTimeSeries statsTimeSeries,
+                           DnaHashFilter dnaHashFilter,
+                           WriteBehindProperties properties,
+                           DbConcurrencyLimiter dbLimiter) {
+        this.dnaRecordStore = dnaRecordStore;
+        this.statsCounter = statsCounter;
+        this.statsTimeSeries = statsTimeSeries;
+        this.dnaHashFilter = dnaHashFilter;
+        this.properties = properties;
+        this.dbLimiter = dbLimiter;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "dna-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public void write(DnaRecord record) {
+        // Antes de que el registro sea visible en la tabla: el filtro nunca lo descarta
+        dnaHashFilter.add(record.getDnaHash());
+
+        if (!properties.isEnabled()) {
+            saveUnlessDuplicate(record);
+            return;
+        }
+
+        // Deduplicación al encolar: el mismo hash ya está pendiente
+        if (pending.putIfAbsent(record.getDnaHash(), record) != null) {
+            return;
+        }
+
+        boolean queued;
+        try {
+            queued = running && queue.offer(record, properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+
+        if (!queued) {
+            log.warn("Cola de escritura llena o detenida. Se guarda el registro de forma sincrónica.");
+            try {
+                saveUnlessDuplicate(record);
+            } finally {
+                pending.remove(record.getDnaHash());
+            }
+        }
+    }
+
+    /** Veredicto de un registro que todavía no llegó a la tabla. */
+    public Optional<Boolean> pendingVerdict(DnaHash dnaHash) {
+        DnaRecord record = pending.get(dnaHash);
+        return record == null ? Optional.empty() : Optional.of(record.isMutant());
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Sin interrupt(): no se corta un INSERT a medias
+        stopDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MS);
+        running = false;
+        if (flusher != null) {
+            queue.offer(STOP_SIGNAL);
+            try {
+                flusher.join(SHUTDOWN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Lo que haya quedado (o si el hilo no terminó a tiempo) se vuelca aquí
+        drainQueue();
+    }
+
+    // Vuelca todo lo encolado en el hilo actual
+    private void drainQueue() {
+        List<DnaRecord> batch = new ArrayList<>(properties.getBatchSize());
+        while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            flushBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void flushLoop() {
+        final int batchSize = properties.getBatchSize();
+        final long intervalNanos = properties.getFlushInterval().toNanos();
+        List<DnaRecord> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                DnaRecord first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null || first == STOP_SIGNAL) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Junta hasta batch-size o hasta que vence el intervalo
+                long deadline = System.nanoTime() + intervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    DnaRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Lo que queda en la cola lo vuelca stop()
+                Thread.currentThread().interrupt();
+            }
+
+            if (!batch.isEmpty()) {
+                flushBatch(batch);
+                batch.clear();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    private void flushBatch(List<DnaRecord> batch) {
+        batch.removeIf(record -> record == STOP_SIGNAL);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Deduplicación dentro del lote
+        Map<DnaHash, DnaRecord> unique = new LinkedHashMap<>();
+        for (DnaRecord record : batch) {
+            unique.putIfAbsent(record.getDnaHash(), record);
+        }
+
+        try {
+            Collection<DnaRecord> remaining = saveBatch(unique.values());
+            long backoffNanos = properties.getRetryBackoff().toNanos();
+            while (!remaining.isEmpty() && (running || System.nanoTime() < stopDeadlineNanos)) {
+                log.warn("No se pudieron guardar {} registros de ADN (base saturada o error transitorio). Se reintenta en {} ms.",
+                        remaining.size(), TimeUnit.NANOSECONDS.toMillis(backoffNanos));
+                if (!pause(backoffNanos)) {
+                    break;
+                }
+                backoffNanos = Math.min(backoffNanos * 2, properties.getMaxRetryBackoff().toNanos());
+                remaining = saveBatch(remaining);
+            }
+            if (!remaining.isEmpty()) {
+                log.error("Se descartan {} registros de ADN sin guardar: la base no respondió antes del cierre.",
+                        remaining.size());
+            }
+        } finally {
+            batch.forEach(record -> pending.remove(record.getDnaHash(), record));
+        }
+    }
+
+    // Devuelve los registros que fallaron por un error transitorio, para reintentarlos
+    private Collection<DnaRecord> saveBatch(Collection<DnaRecord> records) {
+        // Entidades nuevas: un intento fallido pudo dejarles un id asignado
+        records.forEach(record -> record.setId(null));
+        try {
+            // Deduplicación contra lotes anteriores y escrituras sincrónicas
+            List<DnaRecord> inserted = dbLimiter.call(() -> dnaRecordStore.saveAllNew(records));
+            inserted.forEach(this::recordInserted);
+            log.debug("Lote de {} registros de ADN guardado.", inserted.size());
+            return List.of();
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                // De a uno fallaría igual: se reintenta el lote entero más tarde
+                return records;
+            }
+            log.warn("Falló el lote de {} registros ({}). Se reintenta de a uno.", records.size(), e.getMessage());
+        }
+
+        List<DnaRecord> failed = new ArrayList<>();
+        for (DnaRecord record : records) {
+            try {
+                record.setId(null);
+                saveUnlessDuplicate(record);
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    failed.add(record);
+                } else {
+                    log.error("No se pudo guardar el ADN {}", record.getDnaHash(), e);
+                }
+            }
+        }
+        return failed;
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof DatabaseBusyException
+                || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException;
+    }
+
+    private static boolean pause(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Otro hilo o instancia ya insertó el mismo hash: el veredicto es el mismo, no es un error
+    private void saveUnlessDuplicate(DnaRecord record) {
+        if (dbLimiter.call(() -> dnaRecordStore.saveIfAbsent(record))) {
+            recordInserted(record);
+        } else {
+            log.debug("ADN {} ya estaba guardado.", record.getDnaHash());
+        }
+    }
+
+    private void recordInserted(DnaRecord record) {
+        statsCounter.record(record.isMutant());
+        statsTimeSeries.record(record.getCreatedAt(), record.isMutant());
+    }
+}
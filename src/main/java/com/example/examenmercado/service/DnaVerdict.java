@@ -0,0 +1,10 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.entity.DnaHash;
+
+/**
+ * Veredicto de un ADN junto con su hash, que el cliente usa como {@code base_hash} para
+ * editarlo en {@code POST /mutant/delta}.
+ */
+public record DnaVerdict(DnaHash dnaHash, boolean mutant) {
+}
@@ -0,0 +1,61 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.entity.DnaHash;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Coalescencia de análisis simultáneos del mismo ADN (single-flight). El primer hilo que llega
+ * con un hash calcula y guarda el veredicto; los que llegan mientras tanto esperan el mismo
+ * futuro en lugar de repetir la detección y competir por el INSERT.
+ * <p>
+ * El mapa solo contiene los hashes en vuelo y no usa un lock global: {@link ConcurrentHashMap}
+ * bloquea por celda y el registro es un único {@code putIfAbsent}.
+ */
+@Component
+public class InFlightVerdicts {
+
+    private final ConcurrentHashMap<DnaHash, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta {@code analysis} si nadie está analizando {@code dnaHash}; si no, espera y
+     * devuelve el veredicto del hilo que llegó primero (o relanza su excepción).
+     */
+    public boolean resolve(DnaHash dnaHash, BooleanSupplier analysis) {
+        CompletableFuture<Boolean> mine = new CompletableFuture<>();
+        CompletableFuture<Boolean> current = inFlight.putIfAbsent(dnaHash, mine);
+        if (current != null) {
+            return await(current);
+        }
+
+        try {
+            boolean verdict = analysis.getAsBoolean();
+            mine.complete(verdict);
+            return verdict;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(dnaHash, mine);
+        }
+    }
+
+    int size() {
+        return inFlight.size();
+    }
+
+    private static boolean await(CompletableFuture<Boolean> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.RateLimitProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Descarte adaptativo de carga. Estima la espera de una petición nueva como las celdas en curso
+ * (admitidas y sin terminar) divididas por el throughput medido (celdas terminadas por segundo,
+ * promedio exponencial cada {@value #SAMPLE_INTERVAL_MS} ms). Si supera {@code max-queue-delay}
+ * se rechazan primero las matrices grandes, que son las que alargan la cola de las chicas; si
+ * supera el doble, todas.
+ * <p>
+ * Los contadores son {@link LongAdder} y la muestra la toma un solo hilo por intervalo con un
+ * compare-and-set: nada se bloquea en el camino de la petición.
+ */
+@Component
+public class LoadShedder implements MeterBinder {
+
+    private static final long SAMPLE_INTERVAL_MS = 100;
+    private static final long SAMPLE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(SAMPLE_INTERVAL_MS);
+    private static final double SMOOTHING = 0.3;
+
+    private final RateLimitProperties properties;
+    private final LongSupplier nanoClock;
+    private final LongAdder outstandingCells = new LongAdder();
+    private final LongAdder completedCells = new LongAdder();
+    private final AtomicLong sampledAt;
+    private volatile long sampledCompleted;
+    private volatile double throughput;
+
+    @Autowired
+    public LoadShedder(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    LoadShedder(RateLimitProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.sampledAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Admite la petición (y la suma a la carga en curso, hasta {@link #complete}) o la rechaza.
+     *
+     * @return 0 si se admitió; si no, nanosegundos de espera estimada
+     */
+    public long tryAdmit(long cells) {
+        if (properties.isSheddingEnabled()) {
+            final long delay = estimatedDelayNanos();
+            final long limit = properties.getMaxQueueDelay().toNanos();
+            if (delay > limit && (cells >= properties.getSheddingMinCost() || delay > 2 * limit)) {
+                return delay;
+            }
+        }
+        outstandingCells.add(cells);
+        return 0;
+    }
+
+    public void complete(long cells) {
+        outstandingCells.add(-cells);
+        completedCells.add(cells);
+        sample();
+    }
+
+    long estimatedDelayNanos() {
+        sample();
+        final double cellsPerSecond = Math.max(throughput, properties.getMinThroughput());
+        return (long) (Math.max(0, outstandingCells.sum()) / cellsPerSecond * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    double throughput() {
+        return throughput;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("mutant.load.outstanding", outstandingCells, LongAdder::sum)
+                .description("Celdas de ADN admitidas que todavía se están analizando")
+                .baseUnit("cells")
+                .register(registry);
+        Gauge.builder("mutant.load.throughput", this, LoadShedder::throughput)
+                .description("Celdas de ADN analizadas por segundo (promedio exponencial)")
+                .register(registry);
+        Gauge.builder("mutant.load.queue.delay", this, shedder -> shedder.estimatedDelayNanos() / 1e9)
+                .description("Espera estimada de una petición nueva")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private void sample() {
+        final long now = nanoClock.getAsLong();
+        final long last = sampledAt.get();
+        if (now - last < SAMPLE_INTERVAL_NANOS || !sampledAt.compareAndSet(last, now)) {
+            return;
+        }
+        final long completed = completedCells.sum();
+        final double rate = (completed - sampledCompleted) * (double) TimeUnit.SECONDS.toNanos(1) / (now - last);
+        sampledCompleted = completed;
+        throughput = throughput == 0 ? rate : SMOOTHING * rate + (1 - SMOOTHING) * throughput;
+    }
+}
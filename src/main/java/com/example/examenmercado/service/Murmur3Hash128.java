@@ -0,0 +1,128 @@
+package com.example.examenmercado.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * MurmurHash3 x64 de 128 bits (semilla 0) en modo streaming: los bytes se agregan de a uno o
+ * por tramos sin armar el mensaje completo. Reutilizable con {@link #reset()}; no es thread-safe.
+ */
+final class Murmur3Hash128 {
+
+    static final int HASH_BYTES = 16;
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private long h1;
+    private long h2;
+    // Bloque de 16 bytes en curso, acumulado en dos longs little-endian
+    private long k1;
+    private long k2;
+    private int blockLength;
+    private long totalLength;
+
+    void reset() {
+        h1 = 0L;
+        h2 = 0L;
+        k1 = 0L;
+        k2 = 0L;
+        blockLength = 0;
+        totalLength = 0L;
+    }
+
+    void update(byte value) {
+        long unsigned = value & 0xffL;
+        if (blockLength < 8) {
+            k1 |= unsigned << (blockLength << 3);
+        } else {
+            k2 |= unsigned << ((blockLength - 8) << 3);
+        }
+        totalLength++;
+        if (++blockLength == HASH_BYTES) {
+            mixBlock(k1, k2);
+            k1 = 0L;
+            k2 = 0L;
+            blockLength = 0;
+        }
+    }
+
+    /** Agrega {@code length} bytes de {@code bytes}: los bloques completos se leen como dos longs. */
+    void update(byte[] bytes, int offset, int length) {
+        final int end = offset + length;
+        int position = offset;
+        // Completa el bloque que quedó a medias de la llamada anterior
+        while (blockLength != 0 && position < end) {
+            update(bytes[position++]);
+        }
+        for (; end - position >= HASH_BYTES; position += HASH_BYTES) {
+            mixBlock((long) LONG_VIEW.get(bytes, position), (long) LONG_VIEW.get(bytes, position + Long.BYTES));
+            totalLength += HASH_BYTES;
+        }
+        while (position < end) {
+            update(bytes[position++]);
+        }
+    }
+
+    /** Escribe los 16 bytes del hash (h1 y h2 little-endian) y reinicia el estado. */
+    byte[] digest() {
+        if (blockLength > 8) {
+            h2 ^= mixK2(k2);
+        }
+        if (blockLength > 0) {
+            h1 ^= mixK1(k1);
+        }
+
+        h1 ^= totalLength;
+        h2 ^= totalLength;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+
+        byte[] result = new byte[HASH_BYTES];
+        for (int i = 0; i < 8; i++) {
+            result[i] = (byte) (h1 >>> (i << 3));
+            result[i + 8] = (byte) (h2 >>> (i << 3));
+        }
+        reset();
+        return result;
+    }
+
+    private void mixBlock(long k1, long k2) {
+        h1 ^= mixK1(k1);
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        h2 ^= mixK2(k2);
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    private static long mixK1(long k) {
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        return k * C2;
+    }
+
+    private static long mixK2(long k) {
+        k *= C2;
+        k = Long.rotateLeft(k, 33);
+        return k * C1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
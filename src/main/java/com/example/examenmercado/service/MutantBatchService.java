@@ -0,0 +1,478 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.BatchProperties;
+import com.example.examenmercado.config.DnaRequestProperties;
+import com.example.examenmercado.dto.BatchItemResult;
+import com.example.examenmercado.dto.DnaRequest;
+import com.example.examenmercado.dto.PackedDnaBinaryReader;
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.entity.DnaRecord;
+import com.example.examenmercado.exception.DetectionUnavailableException;
+import com.example.examenmercado.exception.InvalidDnaException;
+import com.example.examenmercado.repository.DnaRecordStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Análisis de lotes de ADN para {@code POST /mutant/batch}.
+ * <p>
+ * Lee el cuerpo en streaming (array JSON o NDJSON, un elemento materializado a la vez) y lo
+ * procesa en tramos de hasta {@code chunk-size} elementos y {@code chunk-max-cells} celdas (el tramo
+ * retiene sus matrices hasta detectarlas, así que lo acota el tamaño y no solo la cantidad; un
+ * elemento más grande que el máximo va solo): los hashes del tramo se resuelven contra la cache y
+ * con una sola consulta {@code findByDnaHashIn} (sin los que {@link DnaHashFilter} descarta),
+ * cada hash distinto se detecta una única vez en el pool de CPU que comparte con {@code POST /mutant}
+ * ({@link AnalysisExecutors}, coordinado con {@link InFlightVerdicts}) sin ocupar más de
+ * {@code parallelism} lugares a la vez, y los registros nuevos van a la escritura diferida por
+ * lotes. Cada veredicto se escribe como una línea NDJSON en cuanto está listo; los errores de un
+ * elemento (JSON o validación) se informan en su línea sin cortar el lote.
+ * <p>
+ * En formato binario ({@link PackedDnaBinaryReader}) no hay parseo ni validación por elemento:
+ * un N fuera de rango o un cuerpo cortado se informa en su línea y termina el lote, porque sin
+ * un N válido no se puede ubicar el elemento siguiente.
+ * <p>
+ * Con un cliente (la clave que fijó {@code RateLimitFilter}) cada elemento válido se le cobra en
+ * {@link ClientRateLimiter} al leerlo, N² celdas como un {@code POST /mutant}: un lote de cien
+ * matrices gigantes cuesta cien veces una. Sin saldo se procesa el tramo pendiente y se espera la
+ * recarga hasta {@code rate-limit-max-wait}; si no alcanza, el elemento se informa como error y el
+ * lote termina sin leer el resto.
+ */
+@Service
+@Slf4j
+public class MutantBatchService {
+
+    private static final byte NEW_LINE = '\n';
+    private static final String RATE_LIMIT_MESSAGE = "Se superó el límite de celdas de ADN por segundo del cliente."
+            + " El lote termina en este elemento; reintentar el resto después de %d s.";
+
+    private final MutantDetector mutantDetector;
+    private final DnaRecordStore dnaRecordStore;
+    private final VerdictCache verdictCache;
+    private final DnaHasher dnaHasher;
+    private final DnaRecordWriter dnaRecordWriter;
+    private final DbConcurrencyLimiter dbLimiter;
+    private final AnalysisExecutors analysisExecutors;
+    private final InFlightVerdicts inFlightVerdicts;
+    private final DnaHashFilter dnaHashFilter;
+    private final DnaMatrixCache dnaMatrixCache;
+    private final ClientRateLimiter rateLimiter;
+    private final MutantMetrics mutantMetrics;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final long chunkMaxCells;
+    private final int maxSize;
+    private final long rateLimitMaxWaitNanos;
+    private final int parallelism;
+
+    public MutantBatchService(MutantDetector mutantDetector,
+                              DnaRecordStore dnaRecordStore,
+                              VerdictCache verdictCache,
+                              DnaHasher dnaHasher,
+                              DnaRecordWriter dnaRecordWriter,
+                              DbConcurrencyLimiter dbLimiter,
+                              AnalysisExecutors analysisExecutors,
+                              InFlightVerdicts inFlightVerdicts,
+                              DnaHashFilter dnaHashFilter,
+                              DnaMatrixCache dnaMatrixCache,
+                              ClientRateLimiter rateLimiter,
+                              MutantMetrics mutantMetrics,
+                              Validator validator,
+                              ObjectMapper objectMapper,
+                              BatchProperties properties,
+                              DnaRequestProperties requestProperties) {
+        this.mutantDetector = mutantDetector;
+        this.dnaRecordStore = dnaRecordStore;
+        this.verdictCache = verdictCache;
+        this.dnaHasher = dnaHasher;
+        this.dnaRecordWriter = dnaRecordWriter;
+        this.dbLimiter = dbLimiter;
+        this.analysisExecutors = analysisExecutors;
+        this.inFlightVerdicts = inFlightVerdicts;
+        this.dnaHashFilter = dnaHashFilter;
+        this.dnaMatrixCache = dnaMatrixCache;
+        this.rateLimiter = rateLimiter;
+        this.mutantMetrics = mutantMetrics;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = Math.max(1, properties.getChunkSize());
+        this.chunkMaxCells = properties.getChunkMaxCells();
+        this.maxSize = requestProperties.getMaxSize();
+        this.rateLimitMaxWaitNanos = properties.getRateLimitMaxWait().toNanos();
+        this.parallelism = properties.getParallelism() > 0
+                ? properties.getParallelism()
+                : analysisExecutors.detectionThreads();
+    }
+
+    /**
+     * Analiza un lote JSON y escribe un veredicto NDJSON por elemento.
+     *
+     * @param client clave del cliente a la que se cobra cada elemento; {@code null} no cobra
+     */
+    public void analyzeBatch(InputStream input, OutputStream output, String client) throws IOException {
+        ResultWriter results = new ResultWriter(output);
+
+        try (MappingIterator<DnaRequest> items = objectMapper.readerFor(DnaRequest.class).readValues(input)) {
+            Chunk chunk = new Chunk();
+            int index = 0;
+
+            while (true) {
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    DnaRequest request = items.nextValue();
+                    String error = validate(request);
+                    if (error != null) {
+                        mutantMetrics.validationRejected();
+                        results.write(BatchItemResult.error(index, error));
+                    } else {
+                        final long wait = charge(client, request.getDna(), chunk, results);
+                        if (wait > 0) {
+                            results.write(BatchItemResult.error(index, rateLimitMessage(wait)));
+                            break;
+                        }
+                        add(chunk, new BatchItem(index, request.getDna()), results);
+                    }
+                } catch (JsonMappingException e) {
+                    // Elemento con forma incorrecta o ADN inválido: el iterador se resincroniza en el siguiente
+                    results.write(BatchItemResult.error(index, mappingError(e)));
+                } catch (JsonProcessingException e) {
+                    // JSON mal formado: no se puede seguir leyendo
+                    results.write(BatchItemResult.error(index, "JSON mal formado: " + e.getOriginalMessage()));
+                    break;
+                }
+                index++;
+            }
+
+            flush(chunk, results);
+        }
+
+        results.finish();
+    }
+
+    /** Igual que {@link #analyzeBatch}, con el cuerpo en formato {@value PackedDnaBinaryReader#MEDIA_TYPE}. */
+    public void analyzePackedBatch(InputStream input, OutputStream output, String client) throws IOException {
+        ResultWriter results = new ResultWriter(output);
+        PackedDnaBinaryReader reader = new PackedDnaBinaryReader(Channels.newChannel(input), maxSize);
+        Chunk chunk = new Chunk();
+        int index = 0;
+
+        while (true) {
+            PackedDnaMatrix dna;
+            try {
+                dna = reader.next();
+            } catch (InvalidDnaException e) {
+                mutantMetrics.validationRejected();
+                results.write(BatchItemResult.error(index, "La petición contiene errores de validación: dna: " + e.getMessage()));
+                break;
+            }
+            if (dna == null) {
+                break;
+            }
+            final long wait = charge(client, dna, chunk, results);
+            if (wait > 0) {
+                results.write(BatchItemResult.error(index, rateLimitMessage(wait)));
+                break;
+            }
+            add(chunk, new BatchItem(index++, dna), results);
+        }
+
+        flush(chunk, results);
+        results.finish();
+    }
+
+    private void add(Chunk chunk, BatchItem item, ResultWriter results) throws IOException {
+        // Un elemento que haría pasar el tramo del máximo de celdas empieza uno nuevo
+        if (chunk.cells + cells(item.dna()) > chunkMaxCells) {
+            flush(chunk, results);
+        }
+        chunk.add(item);
+        if (chunk.items.size() >= chunkSize || chunk.cells >= chunkMaxCells) {
+            flush(chunk, results);
+        }
+    }
+
+    private void flush(Chunk chunk, ResultWriter results) throws IOException {
+        if (!chunk.items.isEmpty()) {
+            processChunk(chunk.items, results);
+            chunk.clear();
+        }
+    }
+
+    /**
+     * Cobra el elemento al cliente. Sin saldo, antes de esperar procesa el tramo pendiente (sus
+     * veredictos no esperan la recarga) y después espera hasta {@code rate-limit-max-wait}.
+     *
+     * @return 0 si se cobró; si el saldo no alcanzó dentro de la espera máxima, nanosegundos
+     * hasta que alcance
+     */
+    private long charge(String client, PackedDnaMatrix dna, Chunk chunk, ResultWriter results)
+            throws IOException {
+        if (client == null) {
+            return 0;
+        }
+        final long cells = cells(dna);
+        long wait = rateLimiter.tryAcquire(client, cells);
+        if (wait == 0) {
+            return 0;
+        }
+        flush(chunk, results);
+        final long deadline = System.nanoTime() + rateLimitMaxWaitNanos;
+        while ((wait = rateLimiter.tryAcquire(client, cells)) > 0) {
+            if (System.nanoTime() + wait - deadline > 0) {
+                mutantMetrics.throttled(MutantMetrics.ThrottleReason.RATE_LIMIT);
+                return wait;
+            }
+            LockSupport.parkNanos(wait);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Lote interrumpido mientras esperaba el límite del cliente.");
+            }
+        }
+        return 0;
+    }
+
+    private static long cells(PackedDnaMatrix dna) {
+        return (long) dna.size() * dna.size();
+    }
+
+    // Segundos enteros redondeados hacia arriba, como el Retry-After de RateLimitFilter
+    private static String rateLimitMessage(long waitNanos) {
+        final long second = TimeUnit.SECONDS.toNanos(1);
+        return String.format(RATE_LIMIT_MESSAGE, Math.max(1, (waitNanos + second - 1) / second));
+    }
+
+    private String validate(DnaRequest request) {
+        if (request == null) {
+            return "El elemento no puede ser null.";
+        }
+        Set<ConstraintViolation<DnaRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        ConstraintViolation<DnaRequest> violation = violations.iterator().next();
+        return "La petición contiene errores de validación: "
+                + violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    private String mappingError(JsonMappingException e) {
+        // El ADN se valida al parsear (PackedDnaDeserializer): mismo texto que la validación del DTO
+        if (e.getCause() instanceof InvalidDnaException invalidDna) {
+            mutantMetrics.validationRejected();
+            return "La petición contiene errores de validación: dna: " + invalidDna.getMessage();
+        }
+        return "Elemento inválido: " + e.getOriginalMessage();
+    }
+
+    private void processChunk(List<BatchItem> chunk, ResultWriter results) throws IOException {
+        // 1. Hash y cache en memoria; los hashes repetidos del tramo se agrupan. Como en POST /mutant,
+        // la matriz queda como base de /mutant/delta con el dna_hash de su línea
+        Map<DnaHash, List<BatchItem>> misses = new LinkedHashMap<>();
+        for (BatchItem item : chunk) {
+            mutantMetrics.dnaSize(item.dna().size());
+            DnaHash dnaHash = dnaHasher.hash(item.dna());
+            dnaMatrixCache.remember(dnaHash, item.dna());
+            Optional<Boolean> known = verdictCache.get(dnaHash);
+            if (known.isEmpty()) {
+                known = dnaRecordWriter.pendingVerdict(dnaHash);
+            }
+            if (known.isPresent()) {
+                mutantMetrics.verdict(known.get());
+                results.write(BatchItemResult.verdict(item.index(), dnaHash.toString(), known.get()));
+            } else {
+                misses.computeIfAbsent(dnaHash, key -> new ArrayList<>()).add(item);
+            }
+        }
+        if (misses.isEmpty()) {
+            return;
+        }
+
+        // 2. Una sola consulta para todo el tramo, sin los hashes que el filtro descarta
+        List<DnaHash> candidates = misses.keySet().stream()
+                .filter(dnaHash -> !dnaHashFilter.isDefinitelyAbsent(dnaHash))
+                .toList();
+        List<DnaRecord> existing = candidates.isEmpty()
+                ? List.of()
+                : dbLimiter.call(() -> dnaRecordStore.findByDnaHashIn(candidates));
+        for (DnaRecord record : existing) {
+            verdictCache.put(record.getDnaHash(), record.isMutant());
+            List<BatchItem> items = misses.remove(record.getDnaHash());
+            if (items != null) {
+                writeVerdicts(results, record.getDnaHash(), items, record.isMutant());
+            }
+        }
+
+        // 3. Detección en el pool de CPU compartido, una vez por hash distinto y con a lo sumo
+        // parallelism a la vez: el lote no llena la cola que también usa POST /mutant. La espera
+        // de InFlightVerdicts corre en un hilo virtual, no en el pool. Cada resultado se escribe al
+        // terminar
+        List<CompletableFuture<Void>> detections = new ArrayList<>(misses.size());
+        Semaphore slots = new Semaphore(parallelism);
+        for (Map.Entry<DnaHash, List<BatchItem>> miss : misses.entrySet()) {
+            DnaHash dnaHash = miss.getKey();
+            List<BatchItem> items = miss.getValue();
+            acquire(slots);
+            detections.add(CompletableFuture
+                    .supplyAsync(() -> inFlightVerdicts.resolve(dnaHash, () -> analyze(dnaHash, items.get(0))),
+                            analysisExecutors.io())
+                    .whenComplete((isMutant, failure) -> slots.release())
+                    .thenAccept(isMutant -> writeVerdicts(results, dnaHash, items, isMutant))
+                    .exceptionally(ex -> {
+                        writeDetectionError(results, dnaHash, items, ex);
+                        return null;
+                    }));
+        }
+
+        CompletableFuture.allOf(detections.toArray(CompletableFuture[]::new)).join();
+        results.throwIfFailed();
+    }
+
+    private static void acquire(Semaphore slots) throws InterruptedIOException {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Lote interrumpido mientras esperaba un hilo de detección.");
+        }
+    }
+
+    // Con la cola de detección llena solo fallan esos elementos: el lote sigue con el resto
+    private void writeDetectionError(ResultWriter results, DnaHash dnaHash, List<BatchItem> items, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        String message;
+        if (cause instanceof DetectionUnavailableException) {
+            log.warn("ADN {} del lote sin detectar: {}", dnaHash, cause.getMessage());
+            message = cause.getMessage();
+        } else {
+            log.error("Error al analizar el ADN {} del lote", dnaHash, cause);
+            message = "Error interno al procesar el ADN.";
+        }
+        items.forEach(item -> results.write(BatchItemResult.error(item.index(), message)));
+    }
+
+    // Compartido con POST /mutant: un ADN que llega a la vez por ambos caminos se analiza una vez
+    private boolean analyze(DnaHash dnaHash, BatchItem item) {
+        boolean isMutant;
+        try {
+            isMutant = analysisExecutors.detect(cancelled -> mutantDetector.isMutant(item.dna(), cancelled)).join();
+        } catch (CompletionException e) {
+            // Quienes esperan el mismo ADN en InFlightVerdicts reciben la causa, como en POST /mutant
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        verdictCache.put(dnaHash, isMutant);
+        dnaRecordWriter.write(newRecord(dnaHash, isMutant));
+        return isMutant;
+    }
+
+    private void writeVerdicts(ResultWriter results, DnaHash dnaHash, List<BatchItem> items, boolean isMutant) {
+        String hex = dnaHash.toString();
+        for (BatchItem item : items) {
+            mutantMetrics.verdict(isMutant);
+            results.write(BatchItemResult.verdict(item.index(), hex, isMutant));
+        }
+    }
+
+    private static DnaRecord newRecord(DnaHash dnaHash, boolean isMutant) {
+        DnaRecord record = new DnaRecord();
+        record.setDnaHash(dnaHash);
+        record.setMutant(isMutant);
+        record.setCreatedAt(LocalDateTime.now());
+        return record;
+    }
+
+    private record BatchItem(int index, PackedDnaMatrix dna) {
+    }
+
+    /** Elementos leídos y todavía sin procesar, con la suma de sus celdas. */
+    private static final class Chunk {
+
+        private final List<BatchItem> items = new ArrayList<>();
+        private long cells;
+
+        void add(BatchItem item) {
+            items.add(item);
+            cells += cells(item.dna());
+        }
+
+        void clear() {
+            items.clear();
+            cells = 0;
+        }
+    }
+
+    /**
+     * Escritura NDJSON compartida por los hilos de detección. Si el cliente se desconecta, el
+     * primer error se guarda y las escrituras siguientes se descartan.
+     */
+    private final class ResultWriter {
+
+        private final OutputStream output;
+        private final ReentrantLock lock = new ReentrantLock();
+        private IOException failure;
+
+        private ResultWriter(OutputStream output) {
+            this.output = output;
+        }
+
+        void write(BatchItemResult result) {
+            lock.lock();
+            try {
+                if (failure != null) {
+                    return;
+                }
+                output.write(objectMapper.writeValueAsBytes(result));
+                output.write(NEW_LINE);
+                output.flush();
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void throwIfFailed() throws IOException {
+            lock.lock();
+            try {
+                if (failure != null) {
+                    throw failure;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void finish() throws IOException {
+            throwIfFailed();
+            output.flush();
+        }
+    }
+}
@@ -1,96 +1,237 @@
 package com.example.examenmercado.service;
 
+import com.example.examenmercado.config.DetectorProperties;
+import com.example.examenmercado.exception.InvalidDnaException;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 
 @Component
 @Slf4j
 public class MutantDetector {
 
-    private static final int SEQUENCE_LENGTH = 4;
-    private static final int MUTANT_SEQUENCES_THRESHOLD = 2;
-    private static final Set<Character> VALID_BASES = Set.of('A', 'T', 'C', 'G');
+    private static final int SEQUENCE_LENGTH = PackedRunScanner.SEQUENCE_LENGTH;
+    static final int MUTANT_SEQUENCES_THRESHOLD = 2;
+    static final BooleanSupplier NOT_CANCELLED = () -> false;
+    // Tamaños del autochequeo: cubren matrices sin parte vectorizable y colas de fila de todo largo
+    private static final int[] SELF_CHECK_SIZES = {4, 33, 130, 257, 300, 520};
+    private static final int SELF_CHECK_BAND_ROWS = 7;
+
+    private final RunCounter runCounter;
+    private final int parallelThreshold;
+    private final ParallelRunScanner parallelScanner;
+    private final int runLengthThreshold;
+
+    public MutantDetector() {
+        this(new DetectorProperties());
+    }
+
+    @Autowired
+    public MutantDetector(DetectorProperties properties) {
+        this.runCounter = selectRunCounter(properties);
+        this.parallelThreshold = properties.getParallelThreshold();
+        this.runLengthThreshold = selectRunLengthThreshold(properties);
+        this.parallelScanner = properties.isParallelEnabled()
+                ? new ParallelRunScanner(runCounter, properties.getParallelism(), properties.getParallelBandRows(),
+                        runLengthThreshold)
+                : null;
+    }
 
     public boolean isMutant(String[] dna) {
         if (dna == null || dna.length < SEQUENCE_LENGTH) {
             return false;
         }
 
-        final int N = dna.length;
-        char[][] matrix = new char[N][];
-        int foundSequences = 0;
+        final PackedDnaMatrix matrix;
+        try {
+            // Validación y codificación a 2 bits en una sola pasada
+            matrix = PackedDnaMatrix.encode(dna);
+        } catch (InvalidDnaException e) {
+            log.warn(e.getMessage());
+            return false;
+        }
 
-        for (int i = 0; i < N; i++) {
-            String row = dna[i];
-            if (row == null || row.length() != N) {
-                log.warn("El ADN es inválido: no es una matriz NxN o contiene filas nulas/invalidas.");
-                return false;
-            }
+        return isMutant(matrix);
+    }
 
-            matrix[i] = row.toUpperCase().toCharArray();
-            for (char base : matrix[i]) {
-                if (!VALID_BASES.contains(base)) {
-                    log.warn("El ADN es inválido: contiene carácter no permitido: {}", base);
-                    return false;
-                }
+    public boolean isMutant(PackedDnaMatrix matrix) {
+        return isMutant(matrix, NOT_CANCELLED);
+    }
+
+    /**
+     * Igual que {@link #isMutant(PackedDnaMatrix)}, pero consulta {@code cancelled} antes de
+     * cada fila (o banda, en paralelo) y abandona el recorrido en cuanto devuelve {@code true}.
+     *
+     * @throws CancellationException si se canceló antes de llegar al veredicto
+     */
+    public boolean isMutant(PackedDnaMatrix matrix, BooleanSupplier cancelled) {
+        if (matrix == null || matrix.size() < SEQUENCE_LENGTH) {
+            return false;
+        }
+
+        // Matrices grandes: recorrido por bandas en paralelo
+        if (parallelScanner != null && matrix.size() >= parallelThreshold) {
+            return parallelScanner.hasAtLeast(matrix, MUTANT_SEQUENCES_THRESHOLD, cancelled);
+        }
+
+        // Desde el cruce medido: una sola pasada por tramos, 4 comparaciones por base en vez de 12
+        if (matrix.size() >= runLengthThreshold) {
+            return RunLengthScanner.countRuns(matrix, 0, matrix.size(), MUTANT_SEQUENCES_THRESHOLD, cancelled)
+                    >= MUTANT_SEQUENCES_THRESHOLD;
+        }
+
+        int foundSequences = 0;
+        for (int row = 0; row < matrix.size(); row++) {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("Detección cancelada en la fila " + row);
+            }
+            // Revisa las cuatro direcciones de muchas columnas a la vez
+            foundSequences += runCounter.countRowRuns(
+                    matrix, row, MUTANT_SEQUENCES_THRESHOLD - foundSequences);
+            if (foundSequences >= MUTANT_SEQUENCES_THRESHOLD) {
+                return true;
             }
         }
 
-        for (int row = 0; row < N; row++) {
-            for (int col = 0; col < N; col++) {
+        return false;
+    }
 
-                // Horizontal
-                if (col <= N - SEQUENCE_LENGTH) {
-                    if (checkSequence(matrix, row, col, 0, 1)) {
-                        foundSequences++;
-                        if (foundSequences >= MUTANT_SEQUENCES_THRESHOLD) {
-                            return true;
-                        }
-                    }
-                }
+    /**
+     * Total de secuencias de la matriz, sin corte temprano: recorre todas las filas. Lo usa el
+     * re-análisis por ediciones, que parte de un conteo exacto.
+     */
+    public long countRuns(PackedDnaMatrix matrix) {
+        if (matrix == null || matrix.size() < SEQUENCE_LENGTH) {
+            return 0;
+        }
+        if (matrix.size() >= runLengthThreshold) {
+            return RunLengthScanner.countRuns(matrix, Long.MAX_VALUE);
+        }
+        long found = 0;
+        for (int row = 0; row < matrix.size(); row++) {
+            found += runCounter.countRowRuns(matrix, row, Integer.MAX_VALUE);
+        }
+        return found;
+    }
 
-                // Vertical
-                if (row <= N - SEQUENCE_LENGTH) {
-                    if (checkSequence(matrix, row, col, 1, 0)) {
-                        foundSequences++;
-                        if (foundSequences >= MUTANT_SEQUENCES_THRESHOLD) {
-                            return true;
-                        }
-                    }
-                }
+    /**
+     * Análisis completo, opt-in: recorre la matriz una sola vez, fila por fila, y entrega cada
+     * secuencia a {@code listener} (dirección, celda de inicio y base). {@link #isMutant} sigue
+     * siendo el camino por defecto: corta en cuanto encuentra la segunda.
+     *
+     * @return total de secuencias
+     */
+    public long findRuns(PackedDnaMatrix matrix, RunListener listener) {
+        if (matrix == null || matrix.size() < SEQUENCE_LENGTH) {
+            return 0;
+        }
+        long found = 0;
+        for (int row = 0; row < matrix.size(); row++) {
+            found += PackedRunScanner.findRowRuns(matrix, row, listener);
+        }
+        return found;
+    }
 
-                // Diagonal Descendente
-                if (row <= N - SEQUENCE_LENGTH && col <= N - SEQUENCE_LENGTH) {
-                    if (checkSequence(matrix, row, col, 1, 1)) {
-                        foundSequences++;
-                        if (foundSequences >= MUTANT_SEQUENCES_THRESHOLD) {
-                            return true;
-                        }
-                    }
-                }
+    @PreDestroy
+    public void shutdown() {
+        if (parallelScanner != null) {
+            parallelScanner.shutdown();
+        }
+    }
 
-                // Diagonal Ascendente
-                if (row >= SEQUENCE_LENGTH - 1 && col <= N - SEQUENCE_LENGTH) {
-                    if (checkSequence(matrix, row, col, -1, 1)) { // deltaX = -1 (subir)
-                        foundSequences++;
-                        if (foundSequences >= MUTANT_SEQUENCES_THRESHOLD) {
-                            return true;
-                        }
-                    }
+    private static RunCounter selectRunCounter(DetectorProperties properties) {
+        if (!properties.isVectorEnabled()) {
+            return PackedRunScanner.INSTANCE;
+        }
+
+        RunCounter vectorCounter;
+        try {
+            vectorCounter = VectorRunScanner.createIfSupported();
+        } catch (LinkageError e) {
+            vectorCounter = null;
+        }
+
+        if (vectorCounter == null) {
+            log.info("Vector API no disponible (falta --add-modules jdk.incubator.vector). Se usa el motor escalar.");
+            return PackedRunScanner.INSTANCE;
+        }
+
+        if (!enginesAgree(PackedRunScanner.INSTANCE, vectorCounter)) {
+            log.error("El motor vectorial no coincide con el escalar en el autochequeo. Se usa el motor escalar.");
+            return PackedRunScanner.INSTANCE;
+        }
+
+        log.info("Motor vectorial habilitado ({} palabras de 32 bases por instrucción).", VectorRunScanner.lanes());
+        return vectorCounter;
+    }
+
+    private static int selectRunLengthThreshold(DetectorProperties properties) {
+        if (!properties.isRunLengthEnabled()) {
+            return Integer.MAX_VALUE;
+        }
+        if (!runLengthAgrees()) {
+            log.error("El recorrido por tramos no coincide con el motor por filas en el autochequeo. Se usa el motor por filas.");
+            return Integer.MAX_VALUE;
+        }
+        return properties.getRunLengthThreshold();
+    }
+
+    // Autochequeo de arranque: ambos motores deben contar exactamente lo mismo, fila por fila
+    static boolean enginesAgree(RunCounter expected, RunCounter actual) {
+        for (PackedDnaMatrix matrix : selfCheckMatrices()) {
+            for (int row = 0; row < matrix.size(); row++) {
+                if (expected.countRowRuns(matrix, row, Integer.MAX_VALUE)
+                        != actual.countRowRuns(matrix, row, Integer.MAX_VALUE)) {
+                    return false;
                 }
             }
         }
-
-        return false;
+        return true;
     }
 
-    private boolean checkSequence(char[][] matrix, int startX, int startY, int deltaX, int deltaY) {
-        final char base = matrix[startX][startY];
+    // Autochequeo del recorrido por tramos: mismo total que el motor escalar, entero y por bandas
+    static boolean runLengthAgrees() {
+        for (PackedDnaMatrix matrix : selfCheckMatrices()) {
+            final int n = matrix.size();
+            final long expected = PackedRunScanner.INSTANCE.countRuns(matrix, 0, n, Integer.MAX_VALUE);
+            if (RunLengthScanner.countRuns(matrix, Long.MAX_VALUE) != expected) {
+                return false;
+            }
+            // Bandas de 7 filas: secuencias que cruzan uno y dos bordes, como en el motor paralelo
+            long banded = 0;
+            for (int from = 0; from < n; from += SELF_CHECK_BAND_ROWS) {
+                banded += RunLengthScanner.countRuns(matrix, from, Math.min(n, from + SELF_CHECK_BAND_ROWS), Long.MAX_VALUE);
+            }
+            if (banded != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        return matrix[startX + deltaX][startY + deltaY] == base &&
-                matrix[startX + 2 * deltaX][startY + 2 * deltaY] == base &&
-                matrix[startX + 3 * deltaX][startY + 3 * deltaY] == base;
+    private static List<PackedDnaMatrix> selfCheckMatrices() {
+        List<PackedDnaMatrix> matrices = new ArrayList<>();
+        Random random = new Random(SELF_CHECK_SIZES.length);
+        for (int n : SELF_CHECK_SIZES) {
+            for (int alphabet = 1; alphabet <= 4; alphabet++) {
+                String[] dna = new String[n];
+                for (int row = 0; row < n; row++) {
+                    StringBuilder line = new StringBuilder(n);
+                    for (int col = 0; col < n; col++) {
+                        line.append("ACGT".charAt(random.nextInt(alphabet)));
+                    }
+                    dna[row] = line.toString();
+                }
+                matrices.add(PackedDnaMatrix.encode(dna));
+            }
+        }
+        return matrices;
     }
 }
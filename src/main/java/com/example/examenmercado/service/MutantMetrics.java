@@ -0,0 +1,166 @@
+package com.example.examenmercado.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Métricas de Micrometer del camino caliente de {@code POST /mutant} y {@code GET /stats},
+ * expuestas en {@code /actuator/prometheus}. Todos los medidores se registran al crear el bean,
+ * así registrar una medición no busca ni crea medidores.
+ * <ul>
+ *     <li>{@code mutant.analyze.stage{stage}}: tiempo por etapa (validación, hash, consulta,
+ *     detección, escritura), con histograma.</li>
+ *     <li>{@code mutant.lookup{result}}: de dónde salió el veredicto (cache en memoria,
+ *     escritura pendiente, base) o si hubo que analizar.</li>
+ *     <li>{@code mutant.request.rejections{reason}}: peticiones rechazadas, por motivo; las
+ *     de la validación completa del DTO tienen {@code reason=validation} y el resto son del
+ *     rechazo temprano, que solo lee el prefijo del cuerpo y no llega al binding.</li>
+ *     <li>{@code mutant.request.throttled{reason}}: respuestas 429 por el límite del cliente
+ *     ({@code rate_limit}) o por el descarte de carga ({@code overload}).</li>
+ *     <li>{@code mutant.analyze.deadline.exceeded}: análisis asíncronos cortados por el plazo.</li>
+ *     <li>{@code mutant.verdicts{result}}, {@code mutant.dna.size},
+ *     {@code mutant.validation.rejections} (el total de rechazos) y {@code mutant.stats}.</li>
+ * </ul>
+ */
+@Component
+public class MutantMetrics {
+
+    public enum Stage {
+        VALIDATION, HASH, LOOKUP, DETECTION, PERSIST
+    }
+
+    public enum LookupResult {
+        MEMORY, PENDING, DATABASE, MISS
+    }
+
+    public enum ThrottleReason {
+        RATE_LIMIT, OVERLOAD
+    }
+
+    public enum RejectionReason {
+        VALIDATION, BODY_TOO_LARGE, EMPTY_BODY, NOT_JSON_OBJECT, EMPTY_DNA, INVALID_SIZE, SIZE_TOO_LARGE, LENGTH_MISMATCH
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<LookupResult, Counter> lookupCounters = new EnumMap<>(LookupResult.class);
+    private final Map<RejectionReason, Counter> rejectionCounters = new EnumMap<>(RejectionReason.class);
+    private final Map<ThrottleReason, Counter> throttleCounters = new EnumMap<>(ThrottleReason.class);
+    private final Counter mutantVerdicts;
+    private final Counter humanVerdicts;
+    private final Counter validationRejections;
+    private final Counter deadlineExceeded;
+    private final DistributionSummary dnaSize;
+    private final Timer statsTimer;
+
+    public MutantMetrics(MeterRegistry registry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("mutant.analyze.stage")
+                    .description("Tiempo de cada etapa del análisis de ADN")
+                    .tag("stage", tagValue(stage))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (LookupResult result : LookupResult.values()) {
+            lookupCounters.put(result, Counter.builder("mutant.lookup")
+                    .description("Origen del veredicto de cada ADN recibido")
+                    .tag("result", tagValue(result))
+                    .register(registry));
+        }
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejectionCounters.put(reason, Counter.builder("mutant.request.rejections")
+                    .description("Peticiones de ADN rechazadas, por motivo")
+                    .tag("reason", tagValue(reason))
+                    .register(registry));
+        }
+        for (ThrottleReason reason : ThrottleReason.values()) {
+            throttleCounters.put(reason, Counter.builder("mutant.request.throttled")
+                    .description("Peticiones respondidas con 429, por límite del cliente o por sobrecarga")
+                    .tag("reason", tagValue(reason))
+                    .register(registry));
+        }
+        this.mutantVerdicts = verdictCounter(registry, "mutant");
+        this.humanVerdicts = verdictCounter(registry, "human");
+        this.validationRejections = Counter.builder("mutant.validation.rejections")
+                .description("Peticiones de ADN rechazadas por validación")
+                .register(registry);
+        this.deadlineExceeded = Counter.builder("mutant.analyze.deadline.exceeded")
+                .description("Análisis asíncronos que no terminaron dentro del plazo")
+                .register(registry);
+        this.dnaSize = DistributionSummary.builder("mutant.dna.size")
+                .description("Tamaño N de las matrices de ADN recibidas")
+                .baseUnit("rows")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(4.0)
+                .maximumExpectedValue(10_000.0)
+                .register(registry);
+        this.statsTimer = Timer.builder("mutant.stats")
+                .description("Tiempo de cálculo de GET /stats")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public <T> T time(Stage stage, Supplier<T> action) {
+        return stageTimers.get(stage).record(action);
+    }
+
+    public void time(Stage stage, Runnable action) {
+        stageTimers.get(stage).record(action);
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> T timeStats(Supplier<T> action) {
+        return statsTimer.record(action);
+    }
+
+    public void lookup(LookupResult result) {
+        lookupCounters.get(result).increment();
+    }
+
+    public void verdict(boolean isMutant) {
+        (isMutant ? mutantVerdicts : humanVerdicts).increment();
+    }
+
+    public void dnaSize(int size) {
+        dnaSize.record(size);
+    }
+
+    public void validationRejected() {
+        rejected(RejectionReason.VALIDATION);
+    }
+
+    public void rejected(RejectionReason reason) {
+        validationRejections.increment();
+        rejectionCounters.get(reason).increment();
+    }
+
+    public void throttled(ThrottleReason reason) {
+        throttleCounters.get(reason).increment();
+    }
+
+    public void deadlineExceeded() {
+        deadlineExceeded.increment();
+    }
+
+    private static Counter verdictCounter(MeterRegistry registry, String result) {
+        return Counter.builder("mutant.verdicts")
+                .description("Veredictos de ADN analizados")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
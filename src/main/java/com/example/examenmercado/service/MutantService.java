@@ -1,18 +1,35 @@
 package com.example.examenmercado.service;
 
+import com.example.examenmercado.config.AsyncProperties;
+import com.example.examenmercado.config.DeltaProperties;
+import com.example.examenmercado.config.DetectorProperties;
+import com.example.examenmercado.dto.DnaDeltaRequest;
+import com.example.examenmercado.dto.DnaDeltaResponse;
+import com.example.examenmercado.dto.DnaRunsResponse;
+import com.example.examenmercado.entity.DnaHash;
 import com.example.examenmercado.entity.DnaRecord;
-import com.example.examenmercado.exception.DnaHashCalculationException;
-import com.example.examenmercado.repository.DnaRecordRepository;
+import com.example.examenmercado.exception.DetectionUnavailableException;
+import com.example.examenmercado.exception.InvalidDnaException;
+import com.example.examenmercado.exception.UnknownDnaException;
+import com.example.examenmercado.repository.DnaRecordStore;
+import com.example.examenmercado.service.MutantMetrics.LookupResult;
+import com.example.examenmercado.service.MutantMetrics.Stage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -20,48 +37,243 @@ import java.util.Optional;
 public class MutantService {
 
     private final MutantDetector mutantDetector;
-    private final DnaRecordRepository dnaRecordRepository;
+    private final DnaRecordStore dnaRecordStore;
+    private final VerdictCache verdictCache;
+    private final DnaHasher dnaHasher;
+    private final DnaRecordWriter dnaRecordWriter;
+    private final DbConcurrencyLimiter dbLimiter;
+    private final DnaHashFilter dnaHashFilter;
+    private final InFlightVerdicts inFlightVerdicts;
+    private final MutantMetrics mutantMetrics;
+    private final DnaMatrixCache dnaMatrixCache;
+    private final DeltaProperties deltaProperties;
+    private final DetectorProperties detectorProperties;
+    private final AnalysisExecutors analysisExecutors;
+    private final AsyncProperties asyncProperties;
 
-    @Transactional
+    // Sin @Transactional: la conexión se toma solo durante la consulta y no durante la detección
+    /**
+     * @throws com.example.examenmercado.exception.InvalidDnaException si la matriz no es NxN o
+     *                                                                 tiene bases inválidas
+     */
     public boolean analyzeDna(String[] dna) {
-        String dnaHash = calculateDnaHash(dna);
+        return analyzeDna(PackedDnaMatrix.encode(dna));
+    }
+
+    /** Analiza una matriz ya validada y codificada (por ejemplo por {@code PackedDnaDeserializer}). */
+    public boolean analyzeDna(PackedDnaMatrix dna) {
+        return verdictOf(dna).mutant();
+    }
+
+    private DnaVerdict verdictOf(PackedDnaMatrix dna) {
+        mutantMetrics.dnaSize(dna.size());
+        DnaHash dnaHash = mutantMetrics.time(Stage.HASH, () -> dnaHasher.hash(dna));
+        // Base para futuras ediciones en /mutant/delta (solo matrices grandes)
+        dnaMatrixCache.remember(dnaHash, dna);
+
+        boolean isMutant = resolveVerdict(dnaHash,
+                () -> mutantMetrics.time(Stage.DETECTION, () -> mutantDetector.isMutant(dna)));
+
+        mutantMetrics.verdict(isMutant);
+        return new DnaVerdict(dnaHash, isMutant);
+    }
+
+    /**
+     * Versión asíncrona de {@link #analyzeDna(PackedDnaMatrix)} para {@code POST /mutant}. El hash
+     * y la búsqueda del veredicto corren en un hilo virtual. Un ADN que está en la cache en
+     * memoria, pendiente de escritura o en análisis por otra petición no ocupa el pool de CPU
+     * ({@link AnalysisExecutors}). Si no, la detección arranca antes de consultar la base y corre
+     * en paralelo con la consulta: la mayoría de las muestras son nuevas. Si la base tiene el
+     * veredicto, o vence el plazo, la detección se cancela y deja de recorrer filas.
+     *
+     * @return el veredicto con el hash del ADN (la base para {@link #analyzeDelta}), o un futuro
+     * fallido con {@link DetectionUnavailableException} si la cola de detección está llena o
+     * venció el plazo
+     */
+    public CompletableFuture<DnaVerdict> analyzeDnaAsync(PackedDnaMatrix dna) {
+        if (!asyncProperties.isEnabled()) {
+            return CompletableFuture.completedFuture(verdictOf(dna));
+        }
+
+        mutantMetrics.dnaSize(dna.size());
+        AtomicReference<CompletableFuture<Boolean>> detection = new AtomicReference<>();
+
+        CompletableFuture<DnaVerdict> verdict = CompletableFuture.supplyAsync(() -> {
+            DnaHash dnaHash = mutantMetrics.time(Stage.HASH, () -> dnaHasher.hash(dna));
+            dnaMatrixCache.remember(dnaHash, dna);
+            boolean isMutant = resolveVerdict(dnaHash, () -> {
+                CompletableFuture<Boolean> started = analysisExecutors.detect(cancelled ->
+                        mutantMetrics.time(Stage.DETECTION, () -> mutantDetector.isMutant(dna, cancelled)));
+                detection.set(started);
+                return () -> awaitDetection(started);
+            });
+            mutantMetrics.verdict(isMutant);
+            return new DnaVerdict(dnaHash, isMutant);
+        }, analysisExecutors.io());
+
+        final Duration deadline = asyncProperties.getDeadline();
+        return verdict.orTimeout(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                .whenComplete((result, failure) -> {
+                    CompletableFuture<Boolean> started = detection.get();
+                    if (started != null) {
+                        started.cancel(false);
+                    }
+                })
+                .exceptionally(failure -> {
+                    throw asyncFailure(failure, deadline);
+                });
+    }
+
+    /**
+     * Todas las secuencias del ADN con su dirección, celda de inicio y base, en una sola pasada
+     * ({@link MutantDetector#findRuns}). Es una consulta: el veredicto no se guarda ni cuenta en
+     * las estadísticas.
+     */
+    public DnaRunsResponse findRuns(PackedDnaMatrix dna) {
+        mutantMetrics.dnaSize(dna.size());
+        RunListCollector collector = new RunListCollector(detectorProperties.getMaxReportedRuns());
+        long runCount = mutantDetector.findRuns(dna, collector);
+        return new DnaRunsResponse(runCount >= MutantDetector.MUTANT_SEQUENCES_THRESHOLD,
+                runCount, collector.isTruncated(), collector.toRunLists());
+    }
+
+    /**
+     * Analiza el ADN que resulta de editar algunas celdas de uno ya enviado, sin recorrer la
+     * matriz completa: solo se recuentan las ventanas de 4 celdas que tocan las ediciones
+     * ({@link DeltaRunCounter}). El resultado queda guardado como base de la próxima edición.
+     *
+     * @throws UnknownDnaException si la matriz base no está en memoria
+     * @throws InvalidDnaException si hay demasiadas ediciones o una celda está fuera de la matriz
+     */
+    public DnaDeltaResponse analyzeDelta(DnaHash baseHash, List<DnaDeltaRequest.CellEdit> edits) {
+        if (edits.size() > deltaProperties.getMaxEdits()) {
+            throw new InvalidDnaException("Se permiten como mucho " + deltaProperties.getMaxEdits()
+                    + " ediciones por petición; se recibieron " + edits.size() + ".", -1, -1);
+        }
+        DnaMatrixCache.CachedMatrix base = dnaMatrixCache.get(baseHash)
+                .orElseThrow(() -> new UnknownDnaException(baseHash));
+
+        final int[] rows = new int[edits.size()];
+        final int[] cols = new int[edits.size()];
+        final int[] codes = new int[edits.size()];
+        for (int i = 0; i < edits.size(); i++) {
+            DnaDeltaRequest.CellEdit edit = edits.get(i);
+            rows[i] = edit.getRow();
+            cols[i] = edit.getCol();
+            codes[i] = PackedDnaMatrix.codeOf(edit.getBase().charAt(0));
+        }
+        PackedDnaMatrix edited = base.matrix().withEdits(rows, cols, codes);
+        mutantMetrics.dnaSize(edited.size());
+        DnaHash dnaHash = mutantMetrics.time(Stage.HASH, () -> dnaHasher.hash(edited));
+
+        long runs = mutantMetrics.time(Stage.DETECTION, () -> {
+            long[] windows = DeltaRunCounter.affectedWindows(edited.size(), rows, cols);
+            return base.runs(mutantDetector)
+                    - DeltaRunCounter.countRuns(base.matrix(), windows)
+                    + DeltaRunCounter.countRuns(edited, windows);
+        });
+        dnaMatrixCache.remember(dnaHash, edited, runs);
+
+        final boolean detected = runs >= MutantDetector.MUTANT_SEQUENCES_THRESHOLD;
+        boolean isMutant = resolveVerdict(dnaHash, () -> detected);
+
+        mutantMetrics.verdict(isMutant);
+        return new DnaDeltaResponse(dnaHash.toString(), isMutant, runs);
+    }
+
+    private static boolean awaitDetection(CompletableFuture<Boolean> detection) {
+        try {
+            return detection.join();
+        } catch (CancellationException e) {
+            // Venció el plazo: quienes esperan el mismo ADN en InFlightVerdicts reciben un 503
+            throw new DetectionUnavailableException("La detección se canceló antes de terminar.");
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private RuntimeException asyncFailure(Throwable failure, Duration deadline) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (cause instanceof TimeoutException) {
+            log.warn("Análisis de ADN cortado al vencer el plazo de {} ms", deadline.toMillis());
+            mutantMetrics.deadlineExceeded();
+            return new DetectionUnavailableException(
+                    "El análisis no terminó dentro del plazo de " + deadline.toMillis() + " ms.");
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+    }
+
+    private boolean resolveVerdict(DnaHash dnaHash, BooleanSupplier detection) {
+        return resolveVerdict(dnaHash, () -> detection);
+    }
+
+    // startDetection se llama solo si el veredicto no se conoce ni lo calcula otro request, antes
+    // de consultar la base; devuelve cómo obtener el resultado de la detección
+    private boolean resolveVerdict(DnaHash dnaHash, Supplier<BooleanSupplier> startDetection) {
+        Optional<Boolean> knownVerdict = knownVerdict(dnaHash);
+        // Los requests simultáneos con el mismo ADN esperan el veredicto del primero
+        return knownVerdict.isPresent()
+                ? knownVerdict.get()
+                : inFlightVerdicts.resolve(dnaHash, () -> lookupOrAnalyze(dnaHash, startDetection));
+    }
+
+    private Optional<Boolean> knownVerdict(DnaHash dnaHash) {
+        // Los hashes frecuentes se responden desde memoria sin ir a la base
+        Optional<Boolean> cachedVerdict = verdictCache.get(dnaHash);
+        if (cachedVerdict.isPresent()) {
+            log.debug("ADN {} encontrado en la cache en memoria. Resultado: {}", dnaHash, cachedVerdict.get());
+            mutantMetrics.lookup(LookupResult.MEMORY);
+            return cachedVerdict;
+        }
+
+        // Registro nuevo que todavía espera en la cola de escritura
+        Optional<Boolean> pendingVerdict = dnaRecordWriter.pendingVerdict(dnaHash);
+        if (pendingVerdict.isPresent()) {
+            mutantMetrics.lookup(LookupResult.PENDING);
+        }
+        return pendingVerdict;
+    }
+
+    private boolean lookupOrAnalyze(DnaHash dnaHash, Supplier<BooleanSupplier> startDetection) {
+        // Un análisis anterior pudo terminar entre la primera consulta y el registro en vuelo
+        Optional<Boolean> knownVerdict = knownVerdict(dnaHash);
+        if (knownVerdict.isPresent()) {
+            return knownVerdict.get();
+        }
 
-        Optional<DnaRecord> existingRecord = dnaRecordRepository.findByDnaHash(dnaHash);
+        // En /mutant asíncrono la detección ya corre mientras se consulta la base
+        BooleanSupplier detection = startDetection.get();
+
+        // La mayoría de las muestras son nuevas: si el filtro descarta el hash no se consulta la base
+        Optional<DnaRecord> existingRecord = dnaHashFilter.isDefinitelyAbsent(dnaHash)
+                ? Optional.empty()
+                : mutantMetrics.time(Stage.LOOKUP,
+                        () -> dbLimiter.call(() -> dnaRecordStore.findByDnaHash(dnaHash)));
 
         if (existingRecord.isPresent()) {
             log.info("ADN {} encontrado en caché. Resultado: {}", dnaHash, existingRecord.get().isMutant());
+            mutantMetrics.lookup(LookupResult.DATABASE);
+            verdictCache.put(dnaHash, existingRecord.get().isMutant());
             return existingRecord.get().isMutant();
         }
 
-        boolean isMutantResult = mutantDetector.isMutant(dna);
+        mutantMetrics.lookup(LookupResult.MISS);
+        boolean isMutantResult = detection.getAsBoolean();
 
         DnaRecord newRecord = new DnaRecord();
         newRecord.setDnaHash(dnaHash);
         newRecord.setMutant(isMutantResult);
         newRecord.setCreatedAt(LocalDateTime.now());
-        dnaRecordRepository.save(newRecord);
+        verdictCache.put(dnaHash, isMutantResult);
+        mutantMetrics.time(Stage.PERSIST, () -> dnaRecordWriter.write(newRecord));
 
         log.info("Nuevo ADN analizado y guardado. Hash: {}, Mutante: {}", dnaHash, isMutantResult);
 
         return isMutantResult;
     }
-
-    private String calculateDnaHash(String[] dna) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            String dnaString = String.join("", dna);
-            byte[] hashBytes = digest.digest(dnaString.getBytes(StandardCharsets.UTF_8));
-
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            log.error("Error al calcular el hash SHA-256", e);
-            throw new DnaHashCalculationException("Error al calcular el hash de ADN.", e);
-        }
-    }
 }
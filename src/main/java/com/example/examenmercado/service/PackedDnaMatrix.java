@@ -0,0 +1,290 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.exception.InvalidDnaException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Matriz de ADN NxN empaquetada a 2 bits por base (A=00, C=01, G=10, T=11) en palabras
+ * {@code long} de 32 bases. Cada fila ocupa {@link #wordsPerRow()} palabras contiguas y la
+ * base de la columna {@code c} vive en los bits {@code 2*(c % 32)} de la palabra {@code c / 32}.
+ * <p>
+ * La codificación y la validación se hacen en una sola pasada sobre la entrada y la única
+ * asignación es el arreglo de palabras.
+ */
+public final class PackedDnaMatrix {
+
+    public static final int BASES_PER_WORD = 32;
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final int size;
+    private final int wordsPerRow;
+    // Una palabra extra al final para que shiftedWord() nunca se salga del arreglo
+    private final long[] words;
+
+    private PackedDnaMatrix(int size) {
+        this.size = size;
+        this.wordsPerRow = (size + BASES_PER_WORD - 1) / BASES_PER_WORD;
+        this.words = new long[size * wordsPerRow + 1];
+    }
+
+    /**
+     * Valida y codifica la secuencia en una sola pasada. Acepta minúsculas, igual que el
+     * detector original que aplicaba {@code toUpperCase()}.
+     *
+     * @throws InvalidDnaException si la matriz no es NxN o contiene una base inválida
+     */
+    public static PackedDnaMatrix encode(String[] dna) {
+        if (dna == null || dna.length == 0) {
+            throw new InvalidDnaException("El ADN es inválido: la matriz está vacía.", -1, -1);
+        }
+
+        Builder builder = new Builder(dna.length);
+        for (String line : dna) {
+            if (line == null) {
+                throw invalidRow(builder.rows);
+            }
+            builder.appendRow(line);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Decodifica el formato binario denso: las N*N bases fila por fila, 4 por byte, la primera
+     * en los 2 bits bajos. Toda combinación de bits es una base válida, así que no hay nada que
+     * validar; {@code bases} puede ser más largo que {@link #packedLength(int)}.
+     */
+    public static PackedDnaMatrix fromPacked(int size, byte[] bases) {
+        if (bases.length < packedLength(size)) {
+            throw invalidRow(-1);
+        }
+        PackedDnaMatrix matrix = new PackedDnaMatrix(size);
+        int index = 0;
+        for (int row = 0; row < size; row++) {
+            long rowStart = (long) row * size;
+            for (int col = 0; col < size; col += BASES_PER_WORD) {
+                // Las bases de la fila siguiente que caen en la última palabra se descartan
+                long word = packedBasesAt(bases, rowStart + col);
+                int cells = size - col;
+                matrix.words[index++] = cells >= BASES_PER_WORD ? word : word & ((1L << (cells << 1)) - 1);
+            }
+        }
+        return matrix;
+    }
+
+    /** Bytes que ocupan las N*N bases en el formato binario denso. */
+    public static int packedLength(int size) {
+        return (int) (((long) size * size + 3) / 4);
+    }
+
+    /** Inversa de {@link #fromPacked(int, byte[])}. */
+    public byte[] toPacked() {
+        byte[] bases = new byte[packedLength(size)];
+        long position = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++, position++) {
+                long code = (word(row, col / BASES_PER_WORD) >>> ((col & (BASES_PER_WORD - 1)) << 1)) & 0b11;
+                bases[(int) (position >>> 2)] |= (byte) (code << ((position & 3) << 1));
+            }
+        }
+        return bases;
+    }
+
+    // Las 32 bases que empiezan en la posición baseIndex del formato denso
+    private static long packedBasesAt(byte[] bases, long baseIndex) {
+        final int byteIndex = (int) (baseIndex >>> 2);
+        final int bits = (int) (baseIndex & 3) << 1;
+        if (byteIndex + Long.BYTES < bases.length) {
+            long low = (long) LONG_VIEW.get(bases, byteIndex);
+            return bits == 0 ? low : (low >>> bits) | ((bases[byteIndex + Long.BYTES] & 0xFFL) << (Long.SIZE - bits));
+        }
+        // Final del arreglo: byte a byte
+        long value = 0L;
+        for (int i = 0; i <= Long.BYTES && byteIndex + i < bases.length; i++) {
+            int shift = (i << 3) - bits;
+            if (shift >= Long.SIZE) {
+                break;
+            }
+            long b = bases[byteIndex + i] & 0xFFL;
+            value |= shift >= 0 ? b << shift : b >>> -shift;
+        }
+        return value;
+    }
+
+    /**
+     * Codificación fila por fila, para quien recibe las filas de a una (por ejemplo el parser
+     * JSON) y no quiere materializar un {@code String} por fila. Cada fila se valida al
+     * agregarla, así el primer error corta la lectura.
+     */
+    public static final class Builder {
+
+        private final PackedDnaMatrix matrix;
+        private int rows;
+
+        public Builder(int size) {
+            if (size <= 0) {
+                throw new InvalidDnaException("El ADN es inválido: la matriz está vacía.", -1, -1);
+            }
+            this.matrix = new PackedDnaMatrix(size);
+        }
+
+        /** Agrega la fila {@code chars[offset, offset + length)}. */
+        public Builder appendRow(char[] chars, int offset, int length) {
+            final int row = checkRow(length);
+            int index = matrix.rowOffset(row);
+            long word = 0L;
+            for (int col = 0; col < length; col++) {
+                char base = chars[offset + col];
+                int code = codeOf(base);
+                if (code < 0) {
+                    throw invalidBase(row, col, base);
+                }
+                word |= (long) code << ((col & (BASES_PER_WORD - 1)) << 1);
+                if ((col & (BASES_PER_WORD - 1)) == BASES_PER_WORD - 1) {
+                    matrix.words[index++] = word;
+                    word = 0L;
+                }
+            }
+            if ((length & (BASES_PER_WORD - 1)) != 0) {
+                matrix.words[index] = word;
+            }
+            return this;
+        }
+
+        public Builder appendRow(String line) {
+            final int row = checkRow(line.length());
+            final int n = line.length();
+            int index = matrix.rowOffset(row);
+            long word = 0L;
+            for (int col = 0; col < n; col++) {
+                char base = line.charAt(col);
+                int code = codeOf(base);
+                if (code < 0) {
+                    throw invalidBase(row, col, base);
+                }
+                word |= (long) code << ((col & (BASES_PER_WORD - 1)) << 1);
+                if ((col & (BASES_PER_WORD - 1)) == BASES_PER_WORD - 1) {
+                    matrix.words[index++] = word;
+                    word = 0L;
+                }
+            }
+            if ((n & (BASES_PER_WORD - 1)) != 0) {
+                matrix.words[index] = word;
+            }
+            return this;
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        /** @throws InvalidDnaException si faltan filas */
+        public PackedDnaMatrix build() {
+            if (rows != matrix.size) {
+                throw invalidRow(rows);
+            }
+            return matrix;
+        }
+
+        // Devuelve el índice de la fila que se va a escribir
+        private int checkRow(int length) {
+            if (rows >= matrix.size || length != matrix.size) {
+                throw invalidRow(rows);
+            }
+            return rows++;
+        }
+    }
+
+    private static InvalidDnaException invalidRow(int row) {
+        return new InvalidDnaException(
+                "El ADN es inválido: no es una matriz NxN o contiene filas nulas/invalidas.", row, -1);
+    }
+
+    private static InvalidDnaException invalidBase(int row, int col, char base) {
+        return new InvalidDnaException(
+                "El ADN es inválido: contiene carácter no permitido: " + base, row, col);
+    }
+
+    /** Código de 2 bits de la base, o -1 si no es A, T, C, G (mayúscula o minúscula). */
+    public static int codeOf(char base) {
+        return switch (base) {
+            case 'A', 'a' -> 0;
+            case 'C', 'c' -> 1;
+            case 'G', 'g' -> 2;
+            case 'T', 't' -> 3;
+            default -> -1;
+        };
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int wordsPerRow() {
+        return wordsPerRow;
+    }
+
+    public char baseAt(int row, int col) {
+        return BASES[codeAt(row, col)];
+    }
+
+    static char baseOf(int code) {
+        return BASES[code];
+    }
+
+    int codeAt(int row, int col) {
+        long word = words[row * wordsPerRow + col / BASES_PER_WORD];
+        return (int) (word >>> ((col & (BASES_PER_WORD - 1)) << 1)) & 0b11;
+    }
+
+    /**
+     * Copia de la matriz con la celda {@code (rows[i], cols[i])} cambiada a la base de código
+     * {@code codes[i]}. La original no cambia.
+     *
+     * @throws InvalidDnaException si una celda cae fuera de la matriz
+     */
+    PackedDnaMatrix withEdits(int[] rows, int[] cols, int[] codes) {
+        PackedDnaMatrix edited = new PackedDnaMatrix(size);
+        System.arraycopy(words, 0, edited.words, 0, words.length);
+        for (int i = 0; i < rows.length; i++) {
+            final int row = rows[i];
+            final int col = cols[i];
+            if (row < 0 || row >= size || col < 0 || col >= size) {
+                throw new InvalidDnaException(
+                        "El ADN es inválido: la celda (" + row + ", " + col + ") está fuera de la matriz.", row, col);
+            }
+            final int index = row * wordsPerRow + col / BASES_PER_WORD;
+            final int shift = (col & (BASES_PER_WORD - 1)) << 1;
+            edited.words[index] = (edited.words[index] & ~(0b11L << shift)) | ((long) codes[i] << shift);
+        }
+        return edited;
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    int rowOffset(int row) {
+        return row * wordsPerRow;
+    }
+
+    long word(int row, int wordIndex) {
+        return words[row * wordsPerRow + wordIndex];
+    }
+
+    /**
+     * Las 32 bases que empiezan en la columna {@code wordIndex * 32 + shift} de la fila.
+     * Las posiciones que caen fuera de la fila contienen basura y deben enmascararse.
+     */
+    long shiftedWord(int row, int wordIndex, int shift) {
+        int index = row * wordsPerRow + wordIndex;
+        if (shift == 0) {
+            return words[index];
+        }
+        int bits = shift << 1;
+        return (words[index] >>> bits) | (words[index + 1] << (Long.SIZE - bits));
+    }
+}
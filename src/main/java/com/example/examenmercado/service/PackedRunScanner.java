@@ -0,0 +1,149 @@
+package com.example.examenmercado.service;
+
+/**
+ * Búsqueda de secuencias de 4 bases iguales sobre una {@link PackedDnaMatrix}, procesando
+ * 32 columnas por operación con aritmética de bits.
+ * <p>
+ * Para cada palabra se comparan la fila de partida con sus vecinas (desplazadas 1, 2 y 3
+ * columnas según la dirección) y se obtiene una máscara con un bit por cada columna donde
+ * empieza una secuencia. Cuenta las mismas posiciones de inicio que el recorrido celda a celda:
+ * "AAAAA" son dos secuencias horizontales.
+ */
+final class PackedRunScanner implements RunCounter {
+
+    static final int SEQUENCE_LENGTH = 4;
+    // Bit bajo de cada par de bits: un bit por base
+    static final long LOW_BITS = 0x5555555555555555L;
+
+    static final PackedRunScanner INSTANCE = new PackedRunScanner();
+
+    // Para contar basta la cantidad de bits de cada máscara
+    private static final MaskSink COUNT = (base, firstCol, horizontal, vertical, down, up) ->
+            Long.bitCount(horizontal) + Long.bitCount(vertical) + Long.bitCount(down) + Long.bitCount(up);
+
+    private PackedRunScanner() {
+    }
+
+    /** Un bit (en la posición par) por cada base igual entre {@code a} y {@code b}. */
+    static long equalBases(long a, long b) {
+        long same = ~(a ^ b);
+        return same & (same >>> 1) & LOW_BITS;
+    }
+
+    static long runs(long first, long second, long third, long fourth) {
+        return equalBases(first, second) & equalBases(first, third) & equalBases(first, fourth);
+    }
+
+    /** Máscara con las primeras {@code cells} bases de una palabra. */
+    static long cellMask(int cells) {
+        if (cells >= PackedDnaMatrix.BASES_PER_WORD) {
+            return LOW_BITS;
+        }
+        if (cells <= 0) {
+            return 0L;
+        }
+        return LOW_BITS & ((1L << (cells << 1)) - 1);
+    }
+
+    @Override
+    public int countRowRuns(PackedDnaMatrix matrix, int row, int limit) {
+        return countRowRuns(matrix, row, 0, limit);
+    }
+
+    /**
+     * Cuenta las secuencias (en las cuatro direcciones) que empiezan en la fila {@code row}
+     * a partir de la palabra {@code fromWord}, deteniéndose en cuanto se alcanza {@code limit}.
+     */
+    static int countRowRuns(PackedDnaMatrix matrix, int row, int fromWord, int limit) {
+        return scanRow(matrix, row, fromWord, limit, COUNT);
+    }
+
+    /**
+     * Entrega a {@code listener} cada secuencia que empieza en la fila {@code row}. Usa las
+     * mismas máscaras que {@link #countRowRuns}: la posición sale del bit encendido y la base
+     * de la palabra de partida, sin otra pasada ni memoria extra.
+     *
+     * @return cantidad de secuencias de la fila
+     */
+    static int findRowRuns(PackedDnaMatrix matrix, int row, RunListener listener) {
+        return scanRow(matrix, row, 0, Integer.MAX_VALUE, (base, firstCol, horizontal, vertical, down, up) ->
+                report(horizontal, base, row, firstCol, RunDirection.HORIZONTAL, listener)
+                        + report(vertical, base, row, firstCol, RunDirection.VERTICAL, listener)
+                        + report(down, base, row, firstCol, RunDirection.DIAGONAL_DOWN, listener)
+                        + report(up, base, row, firstCol, RunDirection.DIAGONAL_UP, listener));
+    }
+
+    /**
+     * Recibe, para una palabra, la máscara de inicios de cada dirección (cero si la dirección no
+     * cabe en la fila); devuelve cuántas secuencias suma. Una sola llamada por palabra, para que
+     * el costo de no poder inlinear el destino quede repartido entre las cuatro direcciones.
+     */
+    @FunctionalInterface
+    private interface MaskSink {
+        int accept(long base, int firstCol, long horizontal, long vertical, long down, long up);
+    }
+
+    // Las máscaras de las cuatro direcciones, palabra por palabra, para contar o para listar
+    private static int scanRow(PackedDnaMatrix matrix, int row, int fromWord, int limit, MaskSink sink) {
+        final int n = matrix.size();
+        final boolean downward = row <= n - SEQUENCE_LENGTH;
+        final boolean upward = row >= SEQUENCE_LENGTH - 1;
+        int found = 0;
+
+        for (int w = fromWord; w < matrix.wordsPerRow(); w++) {
+            final int firstCol = w * PackedDnaMatrix.BASES_PER_WORD;
+            final long startMask = cellMask(n - SEQUENCE_LENGTH + 1 - firstCol);
+            final long base = matrix.word(row, w);
+
+            // Horizontal
+            final long horizontal = runs(base,
+                    matrix.shiftedWord(row, w, 1),
+                    matrix.shiftedWord(row, w, 2),
+                    matrix.shiftedWord(row, w, 3)) & startMask;
+
+            long vertical = 0;
+            long down = 0;
+            if (downward) {
+                // Vertical
+                vertical = runs(base,
+                        matrix.word(row + 1, w),
+                        matrix.word(row + 2, w),
+                        matrix.word(row + 3, w)) & cellMask(n - firstCol);
+
+                // Diagonal Descendente
+                down = runs(base,
+                        matrix.shiftedWord(row + 1, w, 1),
+                        matrix.shiftedWord(row + 2, w, 2),
+                        matrix.shiftedWord(row + 3, w, 3)) & startMask;
+            }
+
+            long up = 0;
+            if (upward) {
+                // Diagonal Ascendente
+                up = runs(base,
+                        matrix.shiftedWord(row - 1, w, 1),
+                        matrix.shiftedWord(row - 2, w, 2),
+                        matrix.shiftedWord(row - 3, w, 3)) & startMask;
+            }
+
+            found += sink.accept(base, firstCol, horizontal, vertical, down, up);
+            if (found >= limit) {
+                return found;
+            }
+        }
+
+        return found;
+    }
+
+    private static int report(long mask, long base, int row, int firstCol,
+                              RunDirection direction, RunListener listener) {
+        final int count = Long.bitCount(mask);
+        // Las secuencias son raras: casi siempre la máscara es cero y no se entra al ciclo
+        while (mask != 0) {
+            final int bit = Long.numberOfTrailingZeros(mask);
+            listener.onRun(direction, row, firstCol + (bit >>> 1), PackedDnaMatrix.baseOf((int) (base >>> bit) & 0b11));
+            mask &= mask - 1;
+        }
+        return count;
+    }
+}
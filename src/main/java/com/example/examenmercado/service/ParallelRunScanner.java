@@ -0,0 +1,134 @@
+package com.example.examenmercado.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Recorrido paralelo de una {@link PackedDnaMatrix} sobre un {@link ForkJoinPool}.
+ * <p>
+ * La matriz se divide en bandas de filas. Cada banda cuenta las secuencias cuya fila de inicio
+ * le pertenece, pero lee hasta 3 filas por encima y por debajo (el halo) para que las
+ * secuencias verticales y diagonales que cruzan el borde de la banda no se pierdan ni se
+ * cuenten dos veces. Como la matriz es inmutable, el halo se lee directamente de ella sin copias.
+ * Desde {@code runLengthThreshold} cada banda es una pasada de {@link RunLengthScanner}, que
+ * arma los pares de filas del halo una sola vez; por debajo, el motor por filas.
+ * <p>
+ * El contador es compartido: en cuanto alcanza el umbral se activa la bandera de cancelación
+ * y todas las tareas dejan de recorrer filas y de dividirse. La misma bandera corta el recorrido
+ * cuando lo cancela quien lo pidió (por ejemplo al vencer el plazo de la petición).
+ */
+final class ParallelRunScanner {
+
+    private final RunCounter runCounter;
+    private final ForkJoinPool pool;
+    private final int bandRows;
+    private final int runLengthThreshold;
+
+    ParallelRunScanner(RunCounter runCounter, int parallelism, int bandRows, int runLengthThreshold) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.runCounter = runCounter;
+        this.pool = new ForkJoinPool(threads);
+        this.bandRows = Math.max(1, bandRows);
+        this.runLengthThreshold = runLengthThreshold;
+    }
+
+    /**
+     * Indica si la matriz tiene al menos {@code threshold} secuencias.
+     *
+     * @throws CancellationException si {@code cancelled} devolvió {@code true} antes del veredicto
+     */
+    boolean hasAtLeast(PackedDnaMatrix matrix, int threshold, BooleanSupplier cancelled) {
+        ScanState state = new ScanState(threshold, cancelled);
+        pool.invoke(new BandTask(matrix, 0, matrix.size(), state));
+        if (state.found.get() >= threshold) {
+            return true;
+        }
+        if (state.aborted) {
+            throw new CancellationException("Detección paralela cancelada");
+        }
+        return false;
+    }
+
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static final class ScanState {
+        private final int threshold;
+        private final AtomicInteger found = new AtomicInteger();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final BooleanSupplier external;
+        private volatile boolean aborted;
+
+        private ScanState(int threshold, BooleanSupplier external) {
+            this.threshold = threshold;
+            this.external = external;
+        }
+
+        private boolean stopped() {
+            if (cancelled.get()) {
+                return true;
+            }
+            if (external.getAsBoolean()) {
+                aborted = true;
+                cancelled.set(true);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final class BandTask extends RecursiveAction {
+
+        private final PackedDnaMatrix matrix;
+        private final int fromRow;
+        private final int toRow;
+        private final ScanState state;
+
+        private BandTask(PackedDnaMatrix matrix, int fromRow, int toRow, ScanState state) {
+            this.matrix = matrix;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.state = state;
+        }
+
+        @Override
+        protected void compute() {
+            if (state.stopped()) {
+                return;
+            }
+
+            if (toRow - fromRow > bandRows) {
+                int middle = (fromRow + toRow) >>> 1;
+                invokeAll(new BandTask(matrix, fromRow, middle, state),
+                        new BandTask(matrix, middle, toRow, state));
+                return;
+            }
+
+            if (matrix.size() >= runLengthThreshold) {
+                // La banda entera de una vez: el umbral se mira entre bandas, la cancelación externa entre filas
+                try {
+                    count(RunLengthScanner.countRuns(matrix, fromRow, toRow, state.threshold, state.external));
+                } catch (CancellationException e) {
+                    state.stopped();
+                }
+                return;
+            }
+
+            for (int row = fromRow; row < toRow && !state.stopped(); row++) {
+                count(runCounter.countRowRuns(matrix, row, state.threshold));
+            }
+        }
+
+        private void count(long found) {
+            // Se acota al umbral: alcanza para el veredicto y no desborda el contador
+            if (found > 0 && state.found.addAndGet((int) Math.min(found, state.threshold)) >= state.threshold) {
+                state.cancelled.set(true);
+            }
+        }
+    }
+}
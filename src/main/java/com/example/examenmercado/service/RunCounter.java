@@ -0,0 +1,23 @@
+package com.example.examenmercado.service;
+
+/**
+ * Motor que cuenta secuencias de 4 bases iguales sobre una {@link PackedDnaMatrix}.
+ * Todas las implementaciones deben devolver exactamente los mismos conteos.
+ */
+interface RunCounter {
+
+    /**
+     * Cuenta las secuencias (horizontales, verticales y diagonales) que empiezan en la fila
+     * {@code row}. Puede detenerse antes de terminar la fila una vez alcanzado {@code limit}.
+     */
+    int countRowRuns(PackedDnaMatrix matrix, int row, int limit);
+
+    /** Cuenta secuencias con fila de inicio en {@code [fromRow, toRow)} hasta alcanzar {@code limit}. */
+    default int countRuns(PackedDnaMatrix matrix, int fromRow, int toRow, int limit) {
+        int found = 0;
+        for (int row = fromRow; row < toRow && found < limit; row++) {
+            found += countRowRuns(matrix, row, limit - found);
+        }
+        return found;
+    }
+}
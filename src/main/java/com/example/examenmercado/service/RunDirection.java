@@ -0,0 +1,15 @@
+package com.example.examenmercado.service;
+
+/**
+ * Dirección de una secuencia de 4 bases iguales, desde su celda de inicio (la de menor columna;
+ * en vertical, la de menor fila).
+ */
+public enum RunDirection {
+
+    HORIZONTAL,
+    VERTICAL,
+    // Fila y columna crecen
+    DIAGONAL_DOWN,
+    // La fila decrece mientras la columna crece
+    DIAGONAL_UP
+}
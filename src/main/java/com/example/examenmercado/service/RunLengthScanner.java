@@ -0,0 +1,139 @@
+package com.example.examenmercado.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+import static com.example.examenmercado.service.PackedRunScanner.SEQUENCE_LENGTH;
+import static com.example.examenmercado.service.PackedRunScanner.cellMask;
+import static com.example.examenmercado.service.PackedRunScanner.equalBases;
+
+/**
+ * Recorrido de una {@link PackedDnaMatrix} de arriba hacia abajo en una sola pasada, a partir
+ * de la codificación por tramos (run-length) de cada fila y de cada par de filas vecinas.
+ * <p>
+ * La codificación de una fila es una máscara con un bit por columna {@code c} donde la base es
+ * igual a la de {@code c + 1}: un tramo de largo L son L-1 bits seguidos, y una secuencia
+ * empieza donde hay 3 bits seguidos. Columnas y diagonales se codifican igual sobre el par de
+ * filas {@code (r - 1, r)}: misma columna, columna siguiente hacia abajo y columna siguiente
+ * hacia arriba. Se guardan solo los tres últimos pares, así que la memoria extra son
+ * {@code 10 * wordsPerRow} palabras sin importar N.
+ * <p>
+ * Cada base se compara 4 veces en lugar de las 12 de {@link PackedRunScanner}, que vuelve a
+ * comparar las 3 filas siguientes desde cada fila de inicio. A cambio la pasada es secuencial:
+ * empezar en una fila cualquiera cuesta 3 filas de halo, y una secuencia vertical o diagonal se
+ * cuenta recién al llegar a su última fila. Cuenta exactamente las mismas posiciones de inicio.
+ * <p>
+ * Cada palabra de la matriz se lee de memoria una sola vez (la fila de arriba sigue en L1) y las
+ * máscaras de una fila de 10.000 bases ocupan 25 KB. Recorrer por franjas de columnas para
+ * achicarlas resultó más lento en todas las pruebas hasta N = 32.000: el acceso deja de ser
+ * secuencial y se pierde el prefetch. Los bloques son entonces bandas de filas completas
+ * ({@link #countRuns(PackedDnaMatrix, int, int, long)}).
+ */
+final class RunLengthScanner {
+
+    // Pares de filas que hay que recordar para cerrar una secuencia de 4 filas
+    private static final int PAIRS = SEQUENCE_LENGTH - 1;
+
+    private RunLengthScanner() {
+    }
+
+    /** Cuenta las secuencias de la matriz, deteniéndose en la primera fila que alcanza {@code limit}. */
+    static long countRuns(PackedDnaMatrix matrix, long limit) {
+        return countRuns(matrix, 0, matrix.size(), limit, MutantDetector.NOT_CANCELLED);
+    }
+
+    static long countRuns(PackedDnaMatrix matrix, int fromRow, int toRow, long limit) {
+        return countRuns(matrix, fromRow, toRow, limit, MutantDetector.NOT_CANCELLED);
+    }
+
+    /**
+     * Cuenta las secuencias con fila de inicio en {@code [fromRow, toRow)}: una banda de filas
+     * que se puede recorrer por separado. Para eso lee hasta 3 filas por encima (las diagonales
+     * ascendentes que empiezan en la banda terminan ahí) y 3 por debajo (donde terminan las
+     * verticales y descendentes), y arma con ellas los pares de filas que cruzan el borde.
+     *
+     * @throws CancellationException si {@code cancelled} devuelve {@code true} antes de una fila
+     */
+    static long countRuns(PackedDnaMatrix matrix, int fromRow, int toRow, long limit, BooleanSupplier cancelled) {
+        final int n = matrix.size();
+        final int words = matrix.wordsPerRow();
+        final long[] packed = matrix.words();
+        // Una palabra de más en cada máscara: la lectura desplazada de la última es cero
+        final long[] horizontal = new long[words + 1];
+        final long[][] vertical = new long[PAIRS][words + 1];
+        final long[][] down = new long[PAIRS][words + 1];
+        final long[][] up = new long[PAIRS][words + 1];
+        long found = 0;
+
+        final int firstRow = Math.max(0, fromRow - PAIRS);
+        final int lastRow = Math.min(n, toRow + PAIRS);
+        for (int row = firstRow; row < lastRow; row++) {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("Detección cancelada en la fila " + row);
+            }
+            final int current = row % PAIRS;
+            final int offset = matrix.rowOffset(row);
+            if (row == firstRow) {
+                for (int w = 0; w < words; w++) {
+                    horizontal[w] = equalBases(packed[offset + w], shifted(packed, offset + w, 1));
+                }
+            } else {
+                final int aboveOffset = offset - words;
+                final long[] v = vertical[current];
+                final long[] d = down[current];
+                final long[] u = up[current];
+                for (int w = 0; w < words; w++) {
+                    final long base = packed[offset + w];
+                    final long next = shifted(packed, offset + w, 1);
+                    final long above = packed[aboveOffset + w];
+                    horizontal[w] = equalBases(base, next);
+                    v[w] = equalBases(above, base);
+                    d[w] = equalBases(above, next);
+                    u[w] = equalBases(base, shifted(packed, aboveOffset + w, 1));
+                }
+            }
+
+            // Horizontales y ascendentes empiezan en esta fila; verticales y descendentes, 3 filas antes
+            final boolean starting = row >= fromRow && row < toRow;
+            final boolean closingUp = starting && row >= firstRow + PAIRS;
+            final boolean closingDown = row - PAIRS >= fromRow && row - PAIRS < toRow;
+            // Pares (r - 3, r - 2) y (r - 2, r - 1); el par (r - 1, r) es current
+            final int oldest = (row + 1) % PAIRS;
+            final int middle = (row + 2) % PAIRS;
+            for (int w = 0; w < words; w++) {
+                final int firstCol = w * PackedDnaMatrix.BASES_PER_WORD;
+                final long startMask = cellMask(n - SEQUENCE_LENGTH + 1 - firstCol);
+
+                long mask;
+                if (starting) {
+                    mask = horizontal[w] & shifted(horizontal, w, 1) & shifted(horizontal, w, 2);
+                    found += Long.bitCount(mask & startMask);
+                }
+
+                if (closingDown) {
+                    mask = vertical[oldest][w] & vertical[middle][w] & vertical[current][w];
+                    found += Long.bitCount(mask & cellMask(n - firstCol));
+                    mask = down[oldest][w] & shifted(down[middle], w, 1) & shifted(down[current], w, 2);
+                    found += Long.bitCount(mask & startMask);
+                }
+
+                if (closingUp) {
+                    mask = up[current][w] & shifted(up[middle], w, 1) & shifted(up[oldest], w, 2);
+                    found += Long.bitCount(mask & startMask);
+                }
+            }
+
+            if (found >= limit) {
+                return found;
+            }
+        }
+
+        return found;
+    }
+
+    // Las 32 posiciones a partir de la columna w * 32 + columns, completando con la palabra siguiente
+    private static long shifted(long[] words, int w, int columns) {
+        final int bits = columns << 1;
+        return (words[w] >>> bits) | (words[w + 1] << (Long.SIZE - bits));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.dto.DnaRunsResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Junta las secuencias del análisis completo en listas columnares por dirección (arrays de
+ * enteros, sin un objeto por secuencia), hasta {@code maxRuns}; después solo las cuenta.
+ * No es seguro para hilos: una instancia por análisis.
+ */
+final class RunListCollector implements RunListener {
+
+    private final int maxRuns;
+    private final Column[] columns = new Column[RunDirection.values().length];
+    private int collected;
+    private boolean truncated;
+
+    private static final class Column {
+        private int[] rows = new int[16];
+        private int[] cols = new int[16];
+        private final StringBuilder bases = new StringBuilder();
+        private int size;
+
+        void add(int row, int col, char base) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+                cols = Arrays.copyOf(cols, size * 2);
+            }
+            rows[size] = row;
+            cols[size] = col;
+            bases.append(base);
+            size++;
+        }
+    }
+
+    RunListCollector(int maxRuns) {
+        this.maxRuns = maxRuns;
+    }
+
+    @Override
+    public void onRun(RunDirection direction, int row, int col, char base) {
+        if (collected >= maxRuns) {
+            truncated = true;
+            return;
+        }
+        Column column = columns[direction.ordinal()];
+        if (column == null) {
+            column = new Column();
+            columns[direction.ordinal()] = column;
+        }
+        column.add(row, col, base);
+        collected++;
+    }
+
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    List<DnaRunsResponse.RunList> toRunLists() {
+        List<DnaRunsResponse.RunList> runLists = new ArrayList<>();
+        for (RunDirection direction : RunDirection.values()) {
+            Column column = columns[direction.ordinal()];
+            if (column != null) {
+                runLists.add(new DnaRunsResponse.RunList(direction,
+                        Arrays.copyOf(column.rows, column.size),
+                        Arrays.copyOf(column.cols, column.size),
+                        column.bases.toString()));
+            }
+        }
+        return runLists;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.examenmercado.service;
+
+/**
+ * Recibe cada secuencia del análisis completo ({@link MutantDetector#findRuns}) a medida que
+ * se encuentra, sin acumularlas en el detector.
+ */
+@FunctionalInterface
+public interface RunListener {
+
+    void onRun(RunDirection direction, int row, int col, char base);
+}
@@ -0,0 +1,89 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.StatsProperties;
+import com.example.examenmercado.entity.DnaStatsSummary;
+import com.example.examenmercado.repository.DnaRecordStore;
+import com.example.examenmercado.repository.DnaStatsSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de ADN mutante/humano mantenidos en memoria para que {@code /stats} no consulte
+ * {@code dna_records}. Se incrementan en cada inserción nueva ({@link LongAdder}, sin contención
+ * entre hilos), se reconstruyen al iniciar y se vuelcan periódicamente a la fila de resumen
+ * {@code dna_stats_summary}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatsCounter {
+
+    private final DnaRecordStore dnaRecordStore;
+    private final DnaStatsSummaryRepository dnaStatsSummaryRepository;
+    private final StatsProperties statsProperties;
+
+    private final LongAdder mutantCount = new LongAdder();
+    private final LongAdder humanCount = new LongAdder();
+
+    @PostConstruct
+    public void rebuild() {
+        Optional<DnaStatsSummary> summary = statsProperties.isRebuildOnStartup()
+                ? Optional.empty()
+                : dnaStatsSummaryRepository.findById(DnaStatsSummary.SUMMARY_ID);
+
+        long mutants;
+        long humans;
+        if (summary.isPresent()) {
+            mutants = summary.get().getCountMutantDna();
+            humans = summary.get().getCountHumanDna();
+        } else {
+            // Único COUNT sobre la tabla: se hace una vez al iniciar
+            mutants = dnaRecordStore.countByIsMutant(true);
+            humans = dnaRecordStore.countByIsMutant(false);
+        }
+
+        mutantCount.reset();
+        mutantCount.add(mutants);
+        humanCount.reset();
+        humanCount.add(humans);
+        log.info("Contadores de estadísticas inicializados. Mutantes: {}, Humanos: {}", mutants, humans);
+
+        flush();
+    }
+
+    public void record(boolean isMutant) {
+        (isMutant ? mutantCount : humanCount).increment();
+    }
+
+    public long getMutantCount() {
+        return mutantCount.sum();
+    }
+
+    public long getHumanCount() {
+        return humanCount.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${mutant.stats.flush-interval-ms:10000}",
+            initialDelayString = "${mutant.stats.flush-interval-ms:10000}")
+    public void flush() {
+        dnaStatsSummaryRepository.save(new DnaStatsSummary(
+                DnaStatsSummary.SUMMARY_ID, getMutantCount(), getHumanCount(), LocalDateTime.now()));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo volcar el resumen de estadísticas al apagar: {}", e.getMessage());
+        }
+    }
+}
@@ -1,19 +1,74 @@
 package com.example.examenmercado.service;
 
+import com.example.examenmercado.config.StatsProperties;
 import com.example.examenmercado.dto.StatsResponse;
-import com.example.examenmercado.repository.DnaRecordRepository;
+import com.example.examenmercado.dto.StatsTimeSeriesPoint;
+import com.example.examenmercado.dto.StatsTimeSeriesResponse;
+import com.example.examenmercado.entity.StatsGranularity;
+import com.example.examenmercado.exception.InvalidStatsQueryException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
 @Service
 @RequiredArgsConstructor
 public class StatsService {
 
-    private final DnaRecordRepository dnaRecordRepository;
+    // Contadores en memoria: O(1), sin consultar dna_records
+    private final StatsCounter statsCounter;
+    private final MutantMetrics mutantMetrics;
+    // Tramos mantenidos al insertar: sin GROUP BY sobre dna_records
+    private final StatsTimeSeries statsTimeSeries;
+    private final StatsProperties statsProperties;
 
     public StatsResponse getStats() {
-        long countMutantDna = dnaRecordRepository.countByIsMutant(true);
-        long countHumanDna = dnaRecordRepository.countByIsMutant(false);
+        return mutantMetrics.timeStats(this::buildStats);
+    }
+
+    /**
+     * Serie de conteos por tramo. Sin {@code to} el rango termina ahora; sin {@code from} abarca
+     * los últimos tramos por defecto de la resolución. {@code from} se lleva al inicio de su tramo.
+     *
+     * @throws InvalidStatsQueryException si la resolución no existe, el rango está vacío o pide
+     *                                    más tramos que {@code mutant.stats.timeseries-max-points}
+     */
+    public StatsTimeSeriesResponse getTimeSeries(String granularityName, LocalDateTime from, LocalDateTime to) {
+        StatsGranularity granularity = StatsGranularity.parse(granularityName);
+        if (granularity == null) {
+            throw new InvalidStatsQueryException("Granularidad inválida: usar minute, hour o day.");
+        }
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null
+                ? granularity.bucketStart(from)
+                : granularity.plus(granularity.bucketStart(end), 1 - granularity.getDefaultPoints());
+        if (!start.isBefore(end)) {
+            throw new InvalidStatsQueryException("El inicio del rango debe ser anterior al fin.");
+        }
+
+        // El último tramo se incluye completo aunque el rango termine a mitad de él
+        LocalDateTime lastStart = granularity.bucketStart(end);
+        LocalDateTime endExclusive = lastStart.isEqual(end) ? end : granularity.plus(lastStart, 1);
+        long points = granularity.bucketsBetween(start, endExclusive);
+        if (points > statsProperties.getTimeseriesMaxPoints()) {
+            throw new InvalidStatsQueryException(String.format(
+                    "El rango pide %d tramos; el máximo es %d.", points, statsProperties.getTimeseriesMaxPoints()));
+        }
+
+        List<StatsTimeSeriesPoint> series = statsTimeSeries.query(granularity, start, endExclusive).stream()
+                .map(bucket -> new StatsTimeSeriesPoint(bucket.start(), bucket.mutants(), bucket.humans(),
+                        calculateRatio(bucket.mutants(), bucket.humans())))
+                .toList();
+
+        return new StatsTimeSeriesResponse(granularity.name().toLowerCase(Locale.ROOT), start, endExclusive, series);
+    }
+
+    private StatsResponse buildStats() {
+        long countMutantDna = statsCounter.getMutantCount();
+        long countHumanDna = statsCounter.getHumanCount();
 
         double ratio = calculateRatio(countMutantDna, countHumanDna);
 
@@ -27,4 +82,4 @@ public class StatsService {
 
         return (double) countMutant / countHuman;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,217 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.StatsProperties;
+import com.example.examenmercado.entity.DnaStatsBucket;
+import com.example.examenmercado.entity.DnaStatsBucketId;
+import com.example.examenmercado.entity.StatsGranularity;
+import com.example.examenmercado.repository.DnaRecordStore;
+import com.example.examenmercado.repository.DnaStatsBucketRepository;
+import com.example.examenmercado.repository.RecordTime;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serie temporal de ADN mutante/humano por minuto, hora y día para {@code /stats/timeseries},
+ * mantenida de forma incremental: cada inserción nueva suma en memoria en su tramo de cada
+ * resolución, y las sumas se vuelcan periódicamente a la tabla de tramos {@code dna_stats_buckets}
+ * (junto con el volcado de {@link StatsCounter}). Las consultas leen esa tabla por clave
+ * primaria más lo que todavía no se volcó; nunca agrupan sobre {@code dna_records}.
+ * <p>
+ * Al iniciar con {@code rebuild-on-startup} la tabla se reconstruye desde {@code dna_records}
+ * en ventanas de una hora sobre el índice de {@code created_at}. Los tramos por minuto y por
+ * hora se borran al vencer su retención.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatsTimeSeries {
+
+    private static final StatsGranularity[] GRANULARITIES = StatsGranularity.values();
+    private static final Duration BACKFILL_WINDOW = Duration.ofHours(1);
+
+    private final DnaStatsBucketRepository bucketRepository;
+    private final DnaRecordStore dnaRecordStore;
+    private final TransactionTemplate transactionTemplate;
+    private final DbConcurrencyLimiter dbLimiter;
+    private final StatsProperties properties;
+
+    // Sumas todavía no volcadas, {mutantes, humanos} por tramo. compute() por clave hace que
+    // sumar y retirar un tramo para volcarlo no se pisen
+    private final Map<DnaStatsBucketId, long[]> pending = new ConcurrentHashMap<>();
+
+    /** Conteos de un tramo de la serie. */
+    public record Bucket(LocalDateTime start, long mutants, long humans) {
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        if (!properties.isRebuildOnStartup()) {
+            return;
+        }
+        dbLimiter.run(() -> transactionTemplate.executeWithoutResult(status -> bucketRepository.deleteAllInBatch()));
+
+        Optional<LocalDateTime> oldest = dbLimiter.call(dnaRecordStore::findOldestCreatedAt);
+        if (oldest.isEmpty()) {
+            return;
+        }
+
+        final LocalDateTime now = LocalDateTime.now();
+        long records = 0;
+        for (LocalDateTime from = StatsGranularity.HOUR.bucketStart(oldest.get()); !from.isAfter(now);
+             from = from.plus(BACKFILL_WINDOW)) {
+            final LocalDateTime windowStart = from;
+            List<RecordTime> window = dbLimiter.call(
+                    () -> dnaRecordStore.findCreatedBetween(windowStart, windowStart.plus(BACKFILL_WINDOW)));
+            for (RecordTime record : window) {
+                for (StatsGranularity granularity : GRANULARITIES) {
+                    // Sin escribir tramos que ya vencieron por retención
+                    LocalDateTime cutoff = retentionCutoff(granularity, now);
+                    if (cutoff == null || !record.getCreatedAt().isBefore(cutoff)) {
+                        add(granularity, record.getCreatedAt(), record.isMutant());
+                    }
+                }
+            }
+            records += window.size();
+            // Una ventana a la vez en memoria
+            flushPending(false);
+        }
+        log.info("Serie temporal de estadísticas reconstruida desde {} registros.", records);
+    }
+
+    /** Suma un registro recién insertado en su tramo de cada resolución. */
+    public void record(LocalDateTime createdAt, boolean isMutant) {
+        for (StatsGranularity granularity : GRANULARITIES) {
+            add(granularity, createdAt, isMutant);
+        }
+    }
+
+    /**
+     * Conteos por tramo en {@code [from, to)}, uno por tramo aunque esté vacío. {@code from} debe
+     * ser el inicio de un tramo. Lo que se está volcando en ese momento puede faltar en una
+     * consulta, pero nunca se cuenta dos veces.
+     */
+    public List<Bucket> query(StatsGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        final int points = (int) granularity.bucketsBetween(from, to);
+        final long[] mutants = new long[points];
+        final long[] humans = new long[points];
+
+        // Primero la tabla y después lo pendiente: un tramo volcado entre ambas lecturas falta, no se duplica
+        for (DnaStatsBucket bucket : dbLimiter.call(() -> bucketRepository.findRange(granularity, from, to))) {
+            int index = (int) granularity.bucketsBetween(from, bucket.getId().getBucketStart());
+            mutants[index] += bucket.getCountMutantDna();
+            humans[index] += bucket.getCountHumanDna();
+        }
+        pending.forEach((id, counts) -> {
+            if (id.getGranularity() == granularity
+                    && !id.getBucketStart().isBefore(from) && id.getBucketStart().isBefore(to)) {
+                int index = (int) granularity.bucketsBetween(from, id.getBucketStart());
+                mutants[index] += counts[0];
+                humans[index] += counts[1];
+            }
+        });
+
+        List<Bucket> buckets = new ArrayList<>(points);
+        for (int i = 0; i < points; i++) {
+            buckets.add(new Bucket(granularity.plus(from, i), mutants[i], humans[i]));
+        }
+        return buckets;
+    }
+
+    @Scheduled(fixedDelayString = "${mutant.stats.flush-interval-ms:10000}",
+            initialDelayString = "${mutant.stats.flush-interval-ms:10000}")
+    public void flush() {
+        flushPending(true);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo volcar la serie temporal de estadísticas al apagar: {}", e.getMessage());
+        }
+    }
+
+    private void flushPending(boolean purgeExpired) {
+        Map<DnaStatsBucketId, long[]> deltas = new HashMap<>();
+        for (DnaStatsBucketId id : pending.keySet()) {
+            long[] delta = pending.remove(id);
+            if (delta != null) {
+                deltas.put(id, delta);
+            }
+        }
+        if (deltas.isEmpty() && !purgeExpired) {
+            return;
+        }
+
+        final LocalDateTime now = LocalDateTime.now();
+        try {
+            dbLimiter.run(() -> transactionTemplate.executeWithoutResult(status -> {
+                merge(deltas);
+                if (purgeExpired) {
+                    for (StatsGranularity granularity : GRANULARITIES) {
+                        LocalDateTime cutoff = retentionCutoff(granularity, now);
+                        if (cutoff != null) {
+                            bucketRepository.deleteOlderThan(granularity, cutoff);
+                        }
+                    }
+                }
+            }));
+        } catch (RuntimeException e) {
+            // Las sumas vuelven a pendientes y se reintentan en el próximo volcado
+            log.warn("No se pudo volcar la serie temporal de estadísticas ({} tramos): {}", deltas.size(), e.getMessage());
+            deltas.forEach((id, delta) -> add(id, delta[0], delta[1]));
+        }
+    }
+
+    private void merge(Map<DnaStatsBucketId, long[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<DnaStatsBucketId, DnaStatsBucket> buckets = new HashMap<>();
+        bucketRepository.findAllById(deltas.keySet()).forEach(bucket -> buckets.put(bucket.getId(), bucket));
+
+        deltas.forEach((id, delta) -> {
+            DnaStatsBucket bucket = buckets.computeIfAbsent(id, key -> new DnaStatsBucket(key, 0, 0));
+            bucket.setCountMutantDna(bucket.getCountMutantDna() + delta[0]);
+            bucket.setCountHumanDna(bucket.getCountHumanDna() + delta[1]);
+        });
+        bucketRepository.saveAll(buckets.values());
+    }
+
+    private void add(StatsGranularity granularity, LocalDateTime createdAt, boolean isMutant) {
+        add(new DnaStatsBucketId(granularity, granularity.bucketStart(createdAt)), isMutant ? 1 : 0, isMutant ? 0 : 1);
+    }
+
+    private void add(DnaStatsBucketId id, long mutants, long humans) {
+        pending.compute(id, (key, counts) -> {
+            long[] sums = counts == null ? new long[2] : counts;
+            sums[0] += mutants;
+            sums[1] += humans;
+            return sums;
+        });
+    }
+
+    // Los tramos que empiezan antes vencieron; null si la resolución no vence
+    private LocalDateTime retentionCutoff(StatsGranularity granularity, LocalDateTime now) {
+        return switch (granularity) {
+            case MINUTE -> now.minus(properties.getMinuteRetention());
+            case HOUR -> now.minus(properties.getHourRetention());
+            case DAY -> null;
+        };
+    }
+}
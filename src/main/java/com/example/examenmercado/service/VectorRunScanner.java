@@ -0,0 +1,121 @@
+package com.example.examenmercado.service;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static com.example.examenmercado.service.PackedRunScanner.LOW_BITS;
+import static com.example.examenmercado.service.PackedRunScanner.SEQUENCE_LENGTH;
+
+/**
+ * Versión vectorizada (JDK Vector API) de {@link PackedRunScanner}: procesa
+ * {@code SPECIES.length()} palabras de 32 bases por instrucción, es decir 128 columnas con
+ * AVX2 o 256 con AVX-512.
+ * <p>
+ * Solo vectoriza las palabras donde todas las columnas son un inicio válido, así no necesita
+ * máscaras de borde; el resto de la fila lo termina el motor escalar. Como las secuencias son
+ * raras, el conteo de bits por carril solo se hace cuando alguna máscara no es cero.
+ * <p>
+ * Requiere {@code --add-modules jdk.incubator.vector}; usar {@link #createIfSupported()} para
+ * no cargar esta clase cuando el módulo no está disponible.
+ */
+final class VectorRunScanner implements RunCounter {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    private VectorRunScanner() {
+    }
+
+    /** Devuelve el motor vectorial, o {@code null} si el módulo no está en el module path. */
+    static RunCounter createIfSupported() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        return new VectorRunScanner();
+    }
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public int countRowRuns(PackedDnaMatrix matrix, int row, int limit) {
+        final int n = matrix.size();
+        final int stride = matrix.wordsPerRow();
+        final long[] words = matrix.words();
+        final int lanes = SPECIES.length();
+        // Palabras cuyas 32 columnas son todas inicio válido en cualquier dirección
+        final int fullWords = (n - SEQUENCE_LENGTH + 1) / PackedDnaMatrix.BASES_PER_WORD;
+        final boolean downward = row <= n - SEQUENCE_LENGTH;
+        final boolean upward = row >= SEQUENCE_LENGTH - 1;
+        int found = 0;
+
+        int w = 0;
+        for (; w + lanes <= fullWords; w += lanes) {
+            final int offset = matrix.rowOffset(row) + w;
+            final LongVector base = LongVector.fromArray(SPECIES, words, offset);
+
+            // Horizontal
+            found += countBits(runs(base,
+                    shifted(words, offset, 1),
+                    shifted(words, offset, 2),
+                    shifted(words, offset, 3)));
+
+            if (downward) {
+                // Vertical
+                found += countBits(runs(base,
+                        LongVector.fromArray(SPECIES, words, offset + stride),
+                        LongVector.fromArray(SPECIES, words, offset + 2 * stride),
+                        LongVector.fromArray(SPECIES, words, offset + 3 * stride)));
+
+                // Diagonal Descendente
+                found += countBits(runs(base,
+                        shifted(words, offset + stride, 1),
+                        shifted(words, offset + 2 * stride, 2),
+                        shifted(words, offset + 3 * stride, 3)));
+            }
+
+            if (upward) {
+                // Diagonal Ascendente
+                found += countBits(runs(base,
+                        shifted(words, offset - stride, 1),
+                        shifted(words, offset - 2 * stride, 2),
+                        shifted(words, offset - 3 * stride, 3)));
+            }
+
+            if (found >= limit) {
+                return found;
+            }
+        }
+
+        // Cola de la fila (y matrices pequeñas): motor escalar
+        return found + PackedRunScanner.countRowRuns(matrix, row, w, limit - found);
+    }
+
+    private static LongVector shifted(long[] words, int offset, int shift) {
+        int bits = shift << 1;
+        return LongVector.fromArray(SPECIES, words, offset).lanewise(VectorOperators.LSHR, bits)
+                .or(LongVector.fromArray(SPECIES, words, offset + 1).lanewise(VectorOperators.LSHL, Long.SIZE - bits));
+    }
+
+    private static LongVector equalBases(LongVector a, LongVector b) {
+        LongVector same = a.lanewise(VectorOperators.XOR, b).lanewise(VectorOperators.NOT);
+        return same.and(same.lanewise(VectorOperators.LSHR, 1)).and(LOW_BITS);
+    }
+
+    private static LongVector runs(LongVector first, LongVector second, LongVector third, LongVector fourth) {
+        return equalBases(first, second).and(equalBases(first, third)).and(equalBases(first, fourth));
+    }
+
+    private static int countBits(LongVector mask) {
+        if (!mask.compare(VectorOperators.NE, 0L).anyTrue()) {
+            return 0;
+        }
+        int count = 0;
+        for (int lane = 0; lane < SPECIES.length(); lane++) {
+            count += Long.bitCount(mask.lane(lane));
+        }
+        return count;
+    }
+}
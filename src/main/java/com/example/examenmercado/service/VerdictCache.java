@@ -0,0 +1,59 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.VerdictCacheProperties;
+import com.example.examenmercado.entity.DnaHash;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Cache acotada en memoria (Caffeine, W-TinyLFU) con el veredicto de cada hash de ADN ya
+ * analizado. Se consulta antes que {@code DnaRecordStore.findByDnaHash} y se completa
+ * tanto al leer de la base como al guardar un registro nuevo. Publica sus estadísticas como
+ * métricas {@code cache.*{cache=verdicts}}.
+ */
+@Component
+public class VerdictCache implements MeterBinder {
+
+    // Instancias compartidas: una consulta a la cache no asigna objetos
+    private static final Optional<Boolean> MUTANT = Optional.of(Boolean.TRUE);
+    private static final Optional<Boolean> HUMAN = Optional.of(Boolean.FALSE);
+
+    private final Cache<DnaHash, Boolean> cache;
+
+    public VerdictCache(VerdictCacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Boolean> get(DnaHash dnaHash) {
+        Boolean isMutant = cache.getIfPresent(dnaHash);
+        if (isMutant == null) {
+            return Optional.empty();
+        }
+        return isMutant ? MUTANT : HUMAN;
+    }
+
+    public void put(DnaHash dnaHash, boolean isMutant) {
+        cache.put(dnaHash, isMutant);
+    }
+
+    /** Contadores de aciertos, fallos y desalojos. */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "verdicts");
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.examenmercado.validation;
+
+import com.example.examenmercado.dto.DnaRequest;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * {@link ValidDnaSequence} sobre el {@link DnaRequest} completo. La forma (NxN) y las bases ya
+ * las valida {@code PackedDnaDeserializer} al leer el JSON; aquí queda el tamaño mínimo, para
+ * requests armados en código. El error se informa sobre la propiedad {@code dna} con el mismo
+ * mensaje de siempre.
+ */
+public class DnaRequestValidator implements ConstraintValidator<ValidDnaSequence, DnaRequest> {
+
+    @Override
+    public boolean isValid(DnaRequest request, ConstraintValidatorContext context) {
+        if (request == null) {
+            return true;
+        }
+
+        if (request.getDna() != null && request.getDna().size() >= ValidDnaSequenceValidator.MIN_SIZE) {
+            return true;
+        }
+
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(context.getDefaultConstraintMessageTemplate())
+                .addPropertyNode("dna")
+                .addConstraintViolation();
+        return false;
+    }
+}
@@ -8,12 +8,14 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
-@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Target({ElementType.TYPE, ElementType.FIELD, ElementType.PARAMETER})
 @Retention(RetentionPolicy.RUNTIME)
-@Constraint(validatedBy = ValidDnaSequenceValidator.class)
+@Constraint(validatedBy = {ValidDnaSequenceValidator.class, DnaRequestValidator.class})
 public @interface ValidDnaSequence {
+    String DEFAULT_MESSAGE = "La secuencia de ADN es inválida: debe ser una matriz NxN con al menos 4x4 y contener solo caracteres A, T, C, G.";
+
     // Mensaje por defecto si la validación falla
-    String message() default "La secuencia de ADN es inválida: debe ser una matriz NxN con al menos 4x4 y contener solo caracteres A, T, C, G.";
+    String message() default DEFAULT_MESSAGE;
 
     Class<?>[] groups() default {};
     Class<? extends Payload>[] payload() default {};
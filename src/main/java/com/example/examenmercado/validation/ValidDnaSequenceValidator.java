@@ -1,15 +1,20 @@
 package com.example.examenmercado.validation;
 
+import com.example.examenmercado.service.PackedDnaMatrix;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-
-import java.util.regex.Pattern;
-
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ValidDnaSequence} sobre un {@code String[]}: una sola pasada por fila, sin regex ni
+ * {@code toUpperCase()}. Acepta lo mismo que antes (A, T, C, G en mayúsculas o minúsculas).
+ * El cuerpo de {@code POST /mutant} no pasa por aquí: lo valida y codifica
+ * {@code PackedDnaDeserializer} mientras se parsea.
+ */
+@Slf4j
 public class ValidDnaSequenceValidator implements ConstraintValidator<ValidDnaSequence, String[]> {
 
-    // Patrón Regex para asegurar que solo contiene A, T, C, G (mayúsculas)
-    private static final Pattern VALID_BASE_PATTERN = Pattern.compile("^[ATCG]+$");
-    private static final int MIN_SIZE = 4;
+    static final int MIN_SIZE = 4;
 
     @Override
     public boolean isValid(String[] dna, ConstraintValidatorContext context) {
@@ -19,19 +24,20 @@ public class ValidDnaSequenceValidator implements ConstraintValidator<ValidDnaSe
 
         final int N = dna.length;
 
-        if (N < MIN_SIZE) { // Vuelve a chequear el tamaño mínimo
-            return false;
-        }
-
-        for (String row : dna) {
+        for (int row = 0; row < N; row++) {
+            String line = dna[row];
             // 1. Verificar fila nula o longitud incorrecta (no NxN)
-            if (row == null || row.length() != N) {
+            if (line == null || line.length() != N) {
+                log.debug("ADN inválido: la fila {} no tiene {} bases.", row, N);
                 return false;
             }
 
             // 2. Verificar caracteres válidos (A, T, C, G)
-            if (!VALID_BASE_PATTERN.matcher(row.toUpperCase()).matches()) {
-                return false;
+            for (int col = 0; col < N; col++) {
+                if (PackedDnaMatrix.codeOf(line.charAt(col)) < 0) {
+                    log.debug("ADN inválido: carácter no permitido en fila {}, columna {}.", row, col);
+                    return false;
+                }
             }
         }
 
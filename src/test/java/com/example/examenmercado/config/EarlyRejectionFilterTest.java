@@ -0,0 +1,149 @@
+package com.example.examenmercado.config;
+
+import com.example.examenmercado.service.MutantMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EarlyRejectionFilterTest {
+
+    private static final String VALID_JSON = "{\"dna\": [\"ATGC\",\"CAGT\",\"TTAT\",\"AGAA\"]}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EarlyRejectionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        DnaRequestProperties properties = new DnaRequestProperties();
+        properties.setMaxSize(100);
+        properties.setMaxBodySize(DataSize.ofKilobytes(64));
+        filter = new EarlyRejectionFilter();
+        filter.setProperties(properties);
+        filter.setMutantMetrics(new MutantMetrics(meterRegistry));
+    }
+
+    @Test
+    @DisplayName("RECHAZO TEMPRANO: Un cuerpo válido llega completo al parser, también los bytes ya revisados")
+    void testValidJsonPassesWithBody() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = filter(json(VALID_JSON), chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(VALID_JSON, new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(0.0, meterRegistry.get("mutant.validation.rejections").counter().count());
+    }
+
+    @Test
+    @DisplayName("RECHAZO TEMPRANO: N fuera de rango según la primera fila, sin leer el resto")
+    void testJsonSizeOutOfRange() throws Exception {
+        MockHttpServletResponse tooLarge = filter(json("{\"dna\":[\"" + "A".repeat(101) + "\""), new MockFilterChain());
+        MockHttpServletResponse tooSmall = filter(json("{\"dna\":[\"ATG\",\"CAG\",\"TTA\"]}"), new MockFilterChain());
+
+        assertEquals(400, tooLarge.getStatus());
+        assertTrue(tooLarge.getContentAsString(StandardCharsets.UTF_8).contains("N no puede superar 100"));
+        assertEquals(400, tooSmall.getStatus());
+        assertEquals(1.0, rejections("size_too_large"));
+        assertEquals(1.0, rejections("invalid_size"));
+    }
+
+    @Test
+    @DisplayName("RECHAZO TEMPRANO: Content-Length que no alcanza para N x N bases")
+    void testJsonTooShortForSize() throws Exception {
+        // Primera fila de 20 bases y nada más: harían falta al menos 20 filas
+        MockHttpServletResponse response = filter(json("{\"dna\":[\"" + "A".repeat(20) + "\"]}"), new MockFilterChain());
+
+        assertEquals(400, response.getStatus());
+        assertEquals(1.0, rejections("length_mismatch"));
+    }
+
+    @Test
+    @DisplayName("RECHAZO TEMPRANO: Cuerpo vacío, demasiado grande, array vacío o que no es un objeto")
+    void testStructuralRejections() throws Exception {
+        MockHttpServletRequest oversized = json(VALID_JSON);
+        oversized.setContent(new byte[64 * 1024 + 1]);
+
+        assertEquals(400, filter(json(""), new MockFilterChain()).getStatus());
+        assertEquals(413, filter(oversized, new MockFilterChain()).getStatus());
+        assertEquals(400, filter(json("{\"dna\": []}"), new MockFilterChain()).getStatus());
+        assertEquals(400, filter(json("[\"ATGC\"]"), new MockFilterChain()).getStatus());
+        assertEquals(1.0, rejections("empty_body"));
+        assertEquals(1.0, rejections("body_too_large"));
+        assertEquals(1.0, rejections("empty_dna"));
+        assertEquals(1.0, rejections("not_json_object"));
+        assertEquals(4.0, meterRegistry.get("mutant.validation.rejections").counter().count());
+    }
+
+    @Test
+    @DisplayName("RECHAZO TEMPRANO: Un JSON con otra forma se deja pasar a la validación completa")
+    void testUnexpectedShapePasses() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = filter(json("{\"other\": 1, \"dna\": []}"), chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("RECHAZO TEMPRANO: En binario el largo debe coincidir exacto con el encabezado N")
+    void testBinaryLength() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse valid = filter(binary(4, 4), chain);
+        MockHttpServletResponse truncated = filter(binary(6, 5), new MockFilterChain());
+
+        assertEquals(200, valid.getStatus());
+        assertEquals(8, chain.getRequest().getInputStream().readAllBytes().length);
+        assertEquals(400, truncated.getStatus());
+        assertEquals(1.0, rejections("length_mismatch"));
+    }
+
+    @Test
+    @DisplayName("RECHAZO TEMPRANO: Solo filtra POST /mutant y /mutant/runs")
+    void testOtherPathsPass() throws Exception {
+        MockHttpServletRequest batch = json("");
+        batch.setRequestURI("/mutant/batch");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(batch, chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request, MockFilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.get("mutant.request.rejections").tag("reason", reason).counter().count();
+    }
+
+    private static MockHttpServletRequest json(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/mutant");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest binary(int size, int baseBytes) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/mutant");
+        request.setContentType("application/x-dna-packed");
+        request.setContent(ByteBuffer.allocate(Integer.BYTES + baseBytes).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(size).array());
+        return request;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.examenmercado.config;
+
+import com.example.examenmercado.service.ClientRateLimiter;
+import com.example.examenmercado.service.LoadShedder;
+import com.example.examenmercado.service.MutantMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        // Recarga despreciable: la ráfaga de cada cliente alcanza para una matriz de 100x100
+        properties.setCellsPerSecond(1);
+        properties.setBurstCells(10_000);
+        properties.setMinCost(1);
+        properties.setMaxQueueDelay(Duration.ofMillis(1));
+        properties.setSheddingMinCost(1);
+        properties.setMinThroughput(1);
+        // Los tests distinguen clientes por header
+        properties.setTrustedProxy(true);
+        filter = new RateLimitFilter();
+        filter.setLimits(properties, new ClientRateLimiter(properties), new LoadShedder(properties));
+        filter.setMutantMetrics(new MutantMetrics(meterRegistry));
+    }
+
+    @Test
+    @DisplayName("LÍMITE: Un cliente que agotó su saldo recibe 429 con Retry-After; otro cliente no")
+    void testRateLimitPerClient() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse first = filter(request("a", 100), chain);
+        MockHttpServletResponse second = filter(request("a", 100), new MockFilterChain());
+        MockHttpServletResponse other = filter(request("b", 100), new MockFilterChain());
+
+        assertEquals(200, first.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(429, second.getStatus());
+        // 10000 celdas a una por segundo
+        assertEquals("10000", second.getHeader("Retry-After"));
+        assertTrue(second.getContentAsString(StandardCharsets.UTF_8).contains("límite de celdas"));
+        assertEquals(200, other.getStatus());
+        assertEquals(1.0, throttled("rate_limit"));
+    }
+
+    @Test
+    @DisplayName("LÍMITE: Mientras una matriz se analiza la carga supera la espera máxima y se descarta")
+    void testLoadShedding() throws Exception {
+        AtomicReference<MockHttpServletResponse> concurrent = new AtomicReference<>();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                try {
+                    concurrent.set(filter(request("b", 10), new MockFilterChain()));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        MockHttpServletResponse first = filter(request("a", 100), chain);
+        MockHttpServletResponse after = filter(request("c", 10), new MockFilterChain());
+
+        assertEquals(200, first.getStatus());
+        assertEquals(429, concurrent.get().getStatus());
+        assertTrue(concurrent.get().getContentAsString(StandardCharsets.UTF_8).contains("saturado"));
+        assertEquals(200, after.getStatus());
+        assertEquals(1.0, throttled("overload"));
+    }
+
+    @Test
+    @DisplayName("LÍMITE: Una respuesta asíncrona sigue contando como carga hasta que termina")
+    void testAsyncResponseKeepsLoadUntilComplete() throws Exception {
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                req.startAsync();
+            }
+        });
+        MockHttpServletRequest asyncRequest = request("a", 100);
+        asyncRequest.setAsyncSupported(true);
+
+        filter(asyncRequest, chain);
+        MockHttpServletResponse whileRunning = filter(request("b", 10), new MockFilterChain());
+        asyncRequest.getAsyncContext().complete();
+        MockHttpServletResponse afterComplete = filter(request("c", 10), new MockFilterChain());
+
+        assertEquals(429, whileRunning.getStatus());
+        assertEquals(200, afterComplete.getStatus());
+        assertEquals(1.0, throttled("overload"));
+    }
+
+    @Test
+    @DisplayName("LÍMITE: Un lote solo paga el mínimo en el filtro y deja la clave del cliente para cobrar cada elemento")
+    void testBatchChargedPerItemDownstream() throws Exception {
+        MockHttpServletRequest batch = new MockHttpServletRequest("POST", "/mutant/batch");
+        batch.addHeader("X-Client-Id", "a");
+        batch.addHeader("Transfer-Encoding", "chunked");
+        batch.setContentType("application/x-ndjson");
+
+        MockHttpServletResponse first = filter(batch, new MockFilterChain());
+        // Del saldo de 10000 celdas solo se fue el costo mínimo
+        MockHttpServletResponse next = filter(request("a", 98), new MockFilterChain());
+
+        assertEquals(-1, batch.getContentLengthLong());
+        assertEquals(200, first.getStatus());
+        assertEquals("a", batch.getAttribute(RateLimitFilter.CLIENT_ATTRIBUTE));
+        assertEquals(200, next.getStatus());
+    }
+
+    @Test
+    @DisplayName("LÍMITE: Sin proxy de confianza el header no cambia la clave: cambiarlo no evade el límite")
+    void testClientHeaderIgnoredWithoutTrustedProxy() throws Exception {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setCellsPerSecond(1);
+        properties.setBurstCells(10_000);
+        properties.setMinCost(1);
+        properties.setSheddingEnabled(false);
+        RateLimitFilter untrusted = new RateLimitFilter();
+        untrusted.setLimits(properties, new ClientRateLimiter(properties), new LoadShedder(properties));
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        untrusted.doFilter(request("a", 100), first, new MockFilterChain());
+        MockHttpServletResponse renamed = new MockHttpServletResponse();
+        untrusted.doFilter(request("otro", 100), renamed, new MockFilterChain());
+
+        assertEquals(200, first.getStatus());
+        // Misma IP de origen (MockHttpServletRequest usa 127.0.0.1)
+        assertEquals(429, renamed.getStatus());
+    }
+
+    @Test
+    @DisplayName("LÍMITE: Corre antes del rechazo temprano: a un cliente limitado no se le lee el cuerpo")
+    void testThrottledRequestBodyNotRead() throws Exception {
+        filter(request("a", 100), new MockFilterChain());
+        MockHttpServletRequest throttled = request("a", 100);
+
+        MockHttpServletResponse response = filter(throttled, new MockFilterChain());
+
+        assertTrue(RateLimitFilter.ORDER < EarlyRejectionFilter.ORDER);
+        assertEquals(429, response.getStatus());
+        assertEquals(2_500, throttled.getInputStream().readAllBytes().length);
+    }
+
+    @Test
+    @DisplayName("LÍMITE: Una matriz chunked cobra la más grande admitida, no la ráfaga de un lote")
+    void testChunkedMatrixChargesMaxSize() throws Exception {
+        DnaRequestProperties requestProperties = new DnaRequestProperties();
+        requestProperties.setMaxSize(50);
+        filter.setRequestProperties(requestProperties);
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/mutant");
+        chunked.addHeader("X-Client-Id", "a");
+        chunked.setContentType("application/json");
+
+        MockHttpServletResponse first = filter(chunked, new MockFilterChain());
+        // Quedan 10000 - 50² = 7500 celdas
+        MockHttpServletResponse fits = filter(request("a", 50), new MockFilterChain());
+        MockHttpServletResponse next = filter(request("a", 80), new MockFilterChain());
+
+        assertEquals(200, first.getStatus());
+        assertEquals(200, fits.getStatus());
+        assertEquals(429, next.getStatus());
+    }
+
+    @Test
+    @DisplayName("LÍMITE: Sin propiedades, o en otras rutas, el filtro no interviene")
+    void testNotFiltered() throws Exception {
+        RateLimitFilter unconfigured = new RateLimitFilter();
+        MockHttpServletRequest stats = new MockHttpServletRequest("GET", "/stats");
+
+        assertTrue(unconfigured.shouldNotFilter(request("a", 100)));
+        assertTrue(filter.shouldNotFilter(stats));
+        assertFalse(filter.shouldNotFilter(request("a", 100)));
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request, MockFilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private double throttled(String reason) {
+        return meterRegistry.get("mutant.request.throttled").tag("reason", reason).counter().count();
+    }
+
+    // Cuerpo binario de size x size bases: el Content-Length cobra size² celdas
+    private static MockHttpServletRequest request(String client, int size) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/mutant");
+        request.addHeader("X-Client-Id", client);
+        request.setContentType(PackedDnaHttpMessageConverter.DNA_PACKED.toString());
+        request.setContent(new byte[size * size / 4]);
+        return request;
+    }
+}
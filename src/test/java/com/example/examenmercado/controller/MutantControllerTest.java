@@ -1,23 +1,55 @@
 package com.example.examenmercado.controller;
 
+import com.example.examenmercado.dto.DnaDeltaResponse;
+import com.example.examenmercado.dto.DnaRunsResponse;
+import com.example.examenmercado.dto.PackedDnaBinaryReader;
 import com.example.examenmercado.dto.StatsResponse;
+import com.example.examenmercado.dto.StatsTimeSeriesPoint;
+import com.example.examenmercado.dto.StatsTimeSeriesResponse;
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.exception.DetectionUnavailableException;
+import com.example.examenmercado.exception.InvalidStatsQueryException;
+import com.example.examenmercado.exception.UnknownDnaException;
+import com.example.examenmercado.service.DnaVerdict;
+import com.example.examenmercado.service.MutantBatchService;
+import com.example.examenmercado.service.MutantMetrics;
 import com.example.examenmercado.service.MutantService;
+import com.example.examenmercado.service.PackedDnaMatrix;
+import com.example.examenmercado.service.RunDirection;
 import com.example.examenmercado.service.StatsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 // Solo carga la capa Web (Controller) y simula el ambiente HTTP
@@ -34,9 +66,16 @@ class MutantControllerTest {
     @MockBean
     private MutantService mutantService;
 
+    @MockBean
+    private MutantBatchService mutantBatchService;
+
     @MockBean
     private StatsService statsService;
 
+    // Dependencia de GlobalExceptionHandler y del validador
+    @MockBean
+    private MutantMetrics mutantMetrics;
+
     private final String MUTANT_URL = "/mutant";
     private final String STATS_URL = "/stats";
 
@@ -52,31 +91,67 @@ class MutantControllerTest {
             }
             """;
 
+    private static final String BASE_HASH = "00112233445566778899aabbccddeeff";
+
+    private final String DELTA_JSON = """
+            {
+                "base_hash": "%s",
+                "edits": [{"row": 2, "col": 2, "base": "T"}]
+            }
+            """.formatted(BASE_HASH);
+
 
     @Test
     @DisplayName("INTEGRACIÓN: POST /mutant debe retornar 200 OK cuando es mutante")
     void testCheckMutant_Returns200Ok_WhenIsMutant() throws Exception {
         // ARRANGE: Simular que el servicio devuelve TRUE (Mutante)
-        when(mutantService.analyzeDna(any(String[].class))).thenReturn(true);
+        when(mutantService.analyzeDnaAsync(any(PackedDnaMatrix.class))).thenReturn(CompletableFuture.completedFuture(verdict(true)));
 
-        // ACT & ASSERT: Simular POST y esperar 200
-        mockMvc.perform(post(MUTANT_URL)
+        // ACT & ASSERT: Simular POST y esperar 200 al terminar la respuesta asíncrona
+        MvcResult result = mockMvc.perform(post(MUTANT_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(MUTANT_DNA_JSON))
-                .andExpect(status().isOk());
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(MutantController.DNA_HASH_HEADER, BASE_HASH));
     }
 
     @Test
     @DisplayName("INTEGRACIÓN: POST /mutant debe retornar 403 Forbidden cuando es humano")
     void testCheckMutant_Returns403Forbidden_WhenIsHuman() throws Exception {
         // ARRANGE: Simular que el servicio devuelve FALSE (Humano)
-        when(mutantService.analyzeDna(any(String[].class))).thenReturn(false);
+        when(mutantService.analyzeDnaAsync(any(PackedDnaMatrix.class))).thenReturn(CompletableFuture.completedFuture(verdict(false)));
 
         // ACT & ASSERT: Simular POST y esperar 403
-        mockMvc.perform(post(MUTANT_URL)
+        MvcResult result = mockMvc.perform(post(MUTANT_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(MUTANT_DNA_JSON))
-                .andExpect(status().isForbidden());
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isForbidden())
+                .andExpect(header().string(MutantController.DNA_HASH_HEADER, BASE_HASH));
+    }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: POST /mutant debe retornar 503 si la detección no está disponible")
+    void testCheckMutant_Returns503_WhenDetectionUnavailable() throws Exception {
+        when(mutantService.analyzeDnaAsync(any(PackedDnaMatrix.class))).thenReturn(CompletableFuture.failedFuture(
+                new DetectionUnavailableException("El análisis no terminó dentro del plazo de 10000 ms.")));
+
+        MvcResult result = mockMvc.perform(post(MUTANT_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(MUTANT_DNA_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("El análisis no terminó dentro del plazo de 10000 ms."));
     }
 
     @Test
@@ -90,12 +165,100 @@ class MutantControllerTest {
                         .content(INVALID_DNA_CHAR_JSON))
                 .andExpect(status().isBadRequest())
                 // Opcional: Verificar que el cuerpo del error contiene el mensaje de validación
-                .andExpect(jsonPath("$.message").exists());
+                .andExpect(jsonPath("$.message").value("La petición contiene errores de validación: dna: "
+                        + "La secuencia de ADN es inválida: debe ser una matriz NxN con al menos 4x4 y contener solo caracteres A, T, C, G."));
 
         // VERIFY: El servicio no debe ser llamado
-        verify(mutantService, org.mockito.Mockito.never()).analyzeDna(any());
+        verify(mutantService, org.mockito.Mockito.never()).analyzeDna(any(PackedDnaMatrix.class));
+        verify(mutantService, org.mockito.Mockito.never()).analyzeDna(any(String[].class));
+        verify(mutantService, org.mockito.Mockito.never()).analyzeDnaAsync(any(PackedDnaMatrix.class));
+    }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: POST /mutant debe pasar al servicio la matriz codificada al parsear")
+    void testCheckMutant_PassesEncodedMatrix() throws Exception {
+        ArgumentCaptor<PackedDnaMatrix> captor = ArgumentCaptor.forClass(PackedDnaMatrix.class);
+        when(mutantService.analyzeDnaAsync(captor.capture())).thenReturn(CompletableFuture.completedFuture(verdict(true)));
+
+        MvcResult result = mockMvc.perform(post(MUTANT_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(MUTANT_DNA_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        assertEquals(6, captor.getValue().size());
+        assertEquals('C', captor.getValue().baseAt(4, 0));
+    }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: POST /mutant debe retornar 400 con el mensaje de validación para un array vacío")
+    void testCheckMutant_Returns400_ForEmptyArray() throws Exception {
+        mockMvc.perform(post(MUTANT_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"dna\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("La petición contiene errores de validación: dna: El array de ADN no puede estar vacío."));
     }
 
+    @Test
+    @DisplayName("INTEGRACIÓN: POST /mutant acepta el formato binario empaquetado")
+    void testCheckMutant_AcceptsPackedBinary() throws Exception {
+        PackedDnaMatrix dna = PackedDnaMatrix.encode(new String[]{"ATGCGA", "CAGTGC", "TTATGT", "AGAAGG", "CCCCTA", "TCACTG"});
+        ArgumentCaptor<PackedDnaMatrix> captor = ArgumentCaptor.forClass(PackedDnaMatrix.class);
+        when(mutantService.analyzeDnaAsync(captor.capture())).thenReturn(CompletableFuture.completedFuture(verdict(false)));
+
+        MvcResult result = mockMvc.perform(post(MUTANT_URL)
+                        .contentType(PackedDnaBinaryReader.MEDIA_TYPE)
+                        .content(packed(dna.size(), dna.toPacked())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isForbidden());
+
+        assertEquals(6, captor.getValue().size());
+        assertEquals('C', captor.getValue().baseAt(4, 0));
+        assertEquals('G', captor.getValue().baseAt(5, 5));
+    }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: POST /mutant binario cortado debe retornar 400 con el mensaje de validación")
+    void testCheckMutant_Returns400_ForTruncatedBinary() throws Exception {
+        mockMvc.perform(post(MUTANT_URL)
+                        .contentType(PackedDnaBinaryReader.MEDIA_TYPE)
+                        .content(packed(6, new byte[5])))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("La petición contiene errores de validación: dna: "
+                        + "La secuencia de ADN es inválida: debe ser una matriz NxN con al menos 4x4 y contener solo caracteres A, T, C, G."));
+
+        verify(mutantService, org.mockito.Mockito.never()).analyzeDna(any(PackedDnaMatrix.class));
+        verify(mutantService, org.mockito.Mockito.never()).analyzeDnaAsync(any(PackedDnaMatrix.class));
+    }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: POST /mutant/batch debe responder NDJSON en streaming")
+    void testCheckMutantBatch_StreamsNdjson() throws Exception {
+        String ndjsonLine = "{\"index\":0,\"dna_hash\":\"ab\",\"mutant\":true}\n";
+        doAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(1);
+            output.write(ndjsonLine.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(mutantBatchService).analyzeBatch(any(), any(), any());
+
+        MvcResult result = mockMvc.perform(post("/mutant/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"dna\": [\"AAAA\",\"CCCC\",\"TCAG\",\"GGTC\"]}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(ndjsonLine));
+    }
 
     @Test
     @DisplayName("INTEGRACIÓN: GET /stats debe retornar 200 OK con el JSON de estadísticas")
@@ -124,4 +287,143 @@ class MutantControllerTest {
                 .andExpect(jsonPath("$.count_human_dna").value(0))
                 .andExpect(jsonPath("$.ratio").value(0.0));
     }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: GET /stats/timeseries debe retornar los puntos en snake_case")
+    void testGetStatsTimeSeries_Returns200Ok() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        when(statsService.getTimeSeries("hour", start, null)).thenReturn(new StatsTimeSeriesResponse("hour",
+                start, start.plusHours(1), List.of(new StatsTimeSeriesPoint(start, 4, 10, 0.4))));
+
+        mockMvc.perform(get(STATS_URL + "/timeseries")
+                        .param("granularity", "hour")
+                        .param("from", "2024-05-01T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("hour"))
+                .andExpect(jsonPath("$.points[0].bucket_start").value("2024-05-01T10:00:00"))
+                .andExpect(jsonPath("$.points[0].count_mutant_dna").value(4))
+                .andExpect(jsonPath("$.points[0].ratio").value(0.4));
+    }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: GET /stats/timeseries debe retornar 400 para una consulta inválida")
+    void testGetStatsTimeSeries_Returns400_ForInvalidQuery() throws Exception {
+        when(statsService.getTimeSeries("week", null, null))
+                .thenThrow(new InvalidStatsQueryException("Granularidad inválida: usar minute, hour o day."));
+
+        mockMvc.perform(get(STATS_URL + "/timeseries").param("granularity", "week"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Granularidad inválida: usar minute, hour o day."));
+    }
+
+    private static DnaVerdict verdict(boolean mutant) {
+        return new DnaVerdict(DnaHash.fromHex(BASE_HASH), mutant);
+    }
+
+    private static byte[] packed(int size, byte[] bases) {
+        return ByteBuffer.allocate(Integer.BYTES + bases.length).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(size)
+                .put(bases)
+                .array();
+    }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: POST /mutant/delta debe retornar 200 OK con el hash y el conteo cuando es mutante")
+    void testCheckMutantDelta_Returns200Ok_WhenIsMutant() throws Exception {
+        when(mutantService.analyzeDelta(eq(DnaHash.fromHex(BASE_HASH)), anyList()))
+                .thenReturn(new DnaDeltaResponse("ffeeddccbbaa99887766554433221100", true, 3));
+
+        mockMvc.perform(post("/mutant/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(DELTA_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dna_hash").value("ffeeddccbbaa99887766554433221100"))
+                .andExpect(jsonPath("$.mutant").value(true))
+                .andExpect(jsonPath("$.run_count").value(3));
+    }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: El header X-Dna-Hash de POST /mutant es el base_hash de POST /mutant/delta")
+    void testCheckMutant_HashChainsIntoDelta() throws Exception {
+        when(mutantService.analyzeDnaAsync(any(PackedDnaMatrix.class))).thenReturn(CompletableFuture.completedFuture(verdict(false)));
+        when(mutantService.analyzeDelta(eq(DnaHash.fromHex(BASE_HASH)), anyList()))
+                .thenReturn(new DnaDeltaResponse("ffeeddccbbaa99887766554433221100", true, 3));
+
+        MvcResult result = mockMvc.perform(post(MUTANT_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(MUTANT_DNA_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String dnaHash = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isForbidden())
+                .andReturn().getResponse().getHeader(MutantController.DNA_HASH_HEADER);
+
+        mockMvc.perform(post("/mutant/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "base_hash": "%s",
+                                    "edits": [{"row": 2, "col": 2, "base": "T"}]
+                                }
+                                """.formatted(dnaHash)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dna_hash").value("ffeeddccbbaa99887766554433221100"));
+
+        verify(mutantService).analyzeDelta(eq(DnaHash.fromHex(dnaHash)), anyList());
+    }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: POST /mutant/delta debe retornar 403 Forbidden cuando es humano")
+    void testCheckMutantDelta_Returns403Forbidden_WhenIsHuman() throws Exception {
+        when(mutantService.analyzeDelta(any(DnaHash.class), anyList()))
+                .thenReturn(new DnaDeltaResponse("ffeeddccbbaa99887766554433221100", false, 1));
+
+        mockMvc.perform(post("/mutant/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(DELTA_JSON))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.mutant").value(false));
+    }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: POST /mutant/delta debe retornar 404 si la base no está en memoria")
+    void testCheckMutantDelta_Returns404_WhenBaseIsUnknown() throws Exception {
+        when(mutantService.analyzeDelta(any(DnaHash.class), anyList()))
+                .thenThrow(new UnknownDnaException(DnaHash.fromHex(BASE_HASH)));
+
+        mockMvc.perform(post("/mutant/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(DELTA_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.path").value("/mutant/delta"));
+    }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: POST /mutant/delta debe retornar 400 para una edición inválida sin llamar al servicio")
+    void testCheckMutantDelta_Returns400_ForInvalidEdit() throws Exception {
+        mockMvc.perform(post("/mutant/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(DELTA_JSON.replace("\"T\"", "\"X\"")))
+                .andExpect(status().isBadRequest());
+
+        verify(mutantService, org.mockito.Mockito.never()).analyzeDelta(any(DnaHash.class), anyList());
+    }
+
+    @Test
+    @DisplayName("INTEGRACIÓN: POST /mutant/runs debe retornar las secuencias en listas compactas por dirección")
+    void testFindRuns_ReturnsRunLists() throws Exception {
+        when(mutantService.findRuns(any(PackedDnaMatrix.class))).thenReturn(new DnaRunsResponse(true, 2, false, List.of(
+                new DnaRunsResponse.RunList(RunDirection.HORIZONTAL, new int[]{4}, new int[]{0}, "C"),
+                new DnaRunsResponse.RunList(RunDirection.VERTICAL, new int[]{0}, new int[]{4}, "G"))));
+
+        mockMvc.perform(post("/mutant/runs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(MUTANT_DNA_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mutant").value(true))
+                .andExpect(jsonPath("$.run_count").value(2))
+                .andExpect(jsonPath("$.runs[0].direction").value("HORIZONTAL"))
+                .andExpect(jsonPath("$.runs[0].rows[0]").value(4))
+                .andExpect(jsonPath("$.runs[1].bases").value("G"));
+    }
 }
@@ -0,0 +1,83 @@
+package com.example.examenmercado.dto;
+
+import com.example.examenmercado.config.DnaRequestProperties;
+import com.example.examenmercado.exception.InvalidDnaException;
+import com.example.examenmercado.service.PackedDnaMatrix;
+import com.example.examenmercado.validation.ValidDnaSequence;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedDnaDeserializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("JSON: Codifica el array directo a la matriz empaquetada (acepta minúsculas)")
+    void testDeserialize_ValidMatrix() throws Exception {
+        DnaRequest request = objectMapper.readValue(
+                "{\"dna\":[\"ATGCGA\",\"CAGTGC\",\"TTATGT\",\"AGAAGG\",\"CCCCTA\",\"tcactg\"]}", DnaRequest.class);
+
+        PackedDnaMatrix dna = request.getDna();
+        assertEquals(6, dna.size());
+        assertEquals('G', dna.baseAt(0, 2));
+        assertEquals('T', dna.baseAt(5, 0));
+    }
+
+    @Test
+    @DisplayName("JSON: Una base inválida corta la lectura con su fila y columna")
+    void testDeserialize_InvalidBase() {
+        InvalidDnaException ex = invalidDna("{\"dna\":[\"ATGC\",\"CAGT\",\"TTXT\",\"AGAA\"]}");
+
+        assertEquals(ValidDnaSequence.DEFAULT_MESSAGE, ex.getMessage());
+        assertEquals(2, ex.getRow());
+        assertEquals(2, ex.getColumn());
+    }
+
+    @Test
+    @DisplayName("JSON: Rechaza filas faltantes, sobrantes, de otro largo, null y N menor a 4")
+    void testDeserialize_InvalidShapes() {
+        assertEquals(3, invalidDna("{\"dna\":[\"ATGC\",\"CAGT\",\"TTAT\"]}").getRow());
+        assertEquals(4, invalidDna("{\"dna\":[\"ATGC\",\"CAGT\",\"TTAT\",\"AGAA\",\"CCCC\"]}").getRow());
+        assertEquals(1, invalidDna("{\"dna\":[\"ATGC\",\"CAG\",\"TTAT\",\"AGAA\"]}").getRow());
+        assertEquals(1, invalidDna("{\"dna\":[\"ATGC\",null,\"TTAT\",\"AGAA\"]}").getRow());
+        assertEquals(0, invalidDna("{\"dna\":[\"ATG\",\"CAG\",\"TTA\"]}").getRow());
+    }
+
+    @Test
+    @DisplayName("JSON: Array vacío y N por encima del máximo tienen su propio mensaje")
+    void testDeserialize_EmptyAndTooLarge() {
+        assertEquals(PackedDnaDeserializer.EMPTY_MESSAGE, invalidDna("{\"dna\":[]}").getMessage());
+
+        DnaRequestProperties properties = new DnaRequestProperties();
+        properties.setMaxSize(5);
+        PackedDnaDeserializer deserializer = new PackedDnaDeserializer();
+        deserializer.setProperties(properties);
+        ObjectMapper limited = new ObjectMapper()
+                .registerModule(new SimpleModule().addDeserializer(PackedDnaMatrix.class, deserializer));
+
+        JsonMappingException ex = assertThrows(JsonMappingException.class,
+                () -> limited.readValue("[\"ATGCGA\",\"CAGTGC\",\"TTATGT\",\"AGAAGG\",\"CCCCTA\",\"TCACTG\"]",
+                        PackedDnaMatrix.class));
+        assertEquals(String.format(PackedDnaDeserializer.TOO_LARGE_MESSAGE, 5), ex.getCause().getMessage());
+    }
+
+    @Test
+    @DisplayName("JSON: Un string en lugar del array es un error de forma, no de ADN")
+    void testDeserialize_NotAnArray() throws Exception {
+        assertThrows(MismatchedInputException.class,
+                () -> objectMapper.readValue("{\"dna\":\"ATGC\"}", DnaRequest.class));
+        assertNull(objectMapper.readValue("{\"dna\":null}", DnaRequest.class).getDna());
+    }
+
+    private InvalidDnaException invalidDna(String json) {
+        JsonMappingException ex = assertThrows(JsonMappingException.class,
+                () -> objectMapper.readValue(json, DnaRequest.class));
+        return assertInstanceOf(InvalidDnaException.class, ex.getCause());
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.examenmercado.repository;
+
+import com.example.examenmercado.config.StoreProperties;
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.entity.DnaRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileDnaRecordStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    @TempDir
+    Path directory;
+
+    private StoreProperties properties;
+    private FileDnaRecordStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StoreProperties();
+        properties.setType("file");
+        properties.setDirectory(directory.toString());
+        // Pocas posiciones: los tests también ejercitan el crecimiento del índice
+        properties.setInitialIndexCapacity(16);
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("ARCHIVO: Guarda, encuentra y no duplica registros")
+    void testSaveAndFind() {
+        List<DnaRecord> inserted = store.saveAllNew(List.of(record(1, true), record(2, false), record(1, true)));
+
+        assertEquals(2, inserted.size());
+        assertFalse(store.saveIfAbsent(record(2, false)));
+        assertTrue(store.saveIfAbsent(record(3, false)));
+
+        DnaRecord found = store.findByDnaHash(hash(1)).orElseThrow();
+        assertTrue(found.isMutant());
+        assertEquals(START.plusSeconds(1), found.getCreatedAt());
+        assertTrue(store.findByDnaHash(hash(99)).isEmpty());
+        assertEquals(2, store.findByDnaHashIn(List.of(hash(2), hash(3), hash(99))).size());
+        assertEquals(1, store.countByIsMutant(true));
+        assertEquals(2, store.countByIsMutant(false));
+    }
+
+    @Test
+    @DisplayName("ARCHIVO: Los registros sobreviven al reinicio, con el índice crecido varias veces")
+    void testReopen() {
+        List<DnaRecord> records = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            records.add(record(i, i % 10 == 0));
+        }
+        store.saveAllNew(records);
+        store.close();
+
+        store = open();
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i % 10 == 0, store.findByDnaHash(hash(i)).orElseThrow().isMutant());
+        }
+        assertEquals(100, store.countByIsMutant(true));
+        assertEquals(900, store.countByIsMutant(false));
+        List<DnaHash> hashes = new ArrayList<>();
+        store.forEachHash(hashes::add);
+        assertEquals(1_000, hashes.size());
+    }
+
+    @Test
+    @DisplayName("ARCHIVO: Tras una caída se descarta el registro a medio escribir y se reconstruye el índice")
+    void testRecoverTornTail() throws IOException {
+        store.saveAllNew(List.of(record(1, true), record(2, false)));
+        store.close();
+        Path logFile = directory.resolve("dna-records.log");
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            // El último registro queda cortado a la mitad
+            channel.truncate(channel.size() - 10);
+        }
+
+        store = open();
+
+        assertTrue(store.findByDnaHash(hash(1)).isPresent());
+        assertTrue(store.findByDnaHash(hash(2)).isEmpty());
+        assertEquals(0, store.countByIsMutant(false));
+        // Se puede volver a escribir sobre el log truncado
+        assertTrue(store.saveIfAbsent(record(2, false)));
+        assertTrue(store.findByDnaHash(hash(2)).isPresent());
+    }
+
+    @Test
+    @DisplayName("ARCHIVO: Un registro corrupto en medio del log hace fallar el arranque sin truncar lo que sigue")
+    void testCorruptRecordInTheMiddleFailsStartup() throws IOException {
+        List<DnaRecord> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            records.add(record(i, i % 2 == 0));
+        }
+        store.saveAllNew(records);
+        store.close();
+        Path logFile = directory.resolve("dna-records.log");
+        long size = Files.size(logFile);
+        // Un byte del hash del segundo registro: falla su CRC y quedan tres registros válidos después
+        long corrupted = DnaRecordLog.HEADER_SIZE + DnaRecordLog.recordSize(hash(0)) + DnaRecordLog.RECORD_HEADER_SIZE;
+        ByteBuffer original = ByteBuffer.allocate(1);
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.read(original, corrupted);
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) ~original.get(0)}), corrupted);
+        }
+
+        DataAccessResourceFailureException failure = assertThrows(DataAccessResourceFailureException.class, this::open);
+
+        assertTrue(failure.getMessage().contains("registro corrupto"));
+        assertEquals(size, Files.size(logFile));
+        // Reparado el byte, el log se abre con todos sus registros (el fallo liberó el bloqueo)
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.write(original.flip(), corrupted);
+        }
+        store = open();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(store.findByDnaHash(hash(i)).isPresent());
+        }
+    }
+
+    @Test
+    @DisplayName("ARCHIVO: Un índice perdido se reconstruye desde el log")
+    void testRebuildMissingIndex() throws IOException {
+        store.saveAllNew(List.of(record(1, true), record(2, false)));
+        store.close();
+        try (FileChannel channel = FileChannel.open(directory.resolve("dna-records.idx"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES), 0);
+        }
+
+        store = open();
+
+        assertTrue(store.findByDnaHash(hash(1)).isPresent());
+        assertTrue(store.findByDnaHash(hash(2)).isPresent());
+    }
+
+    @Test
+    @DisplayName("ARCHIVO: Consultas por rango de created_at para reconstruir la serie temporal")
+    void testCreatedBetween() {
+        List<DnaRecord> records = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            records.add(record(i, false));
+        }
+        store.saveAllNew(records);
+
+        assertEquals(START.plusSeconds(0), store.findOldestCreatedAt().orElseThrow());
+        List<RecordTime> window = store.findCreatedBetween(START.plusSeconds(5_000), START.plusSeconds(5_100));
+        assertEquals(100, window.size());
+        assertTrue(window.stream().noneMatch(RecordTime::isMutant));
+    }
+
+    private FileDnaRecordStore open() {
+        FileDnaRecordStore opened = new FileDnaRecordStore(properties);
+        opened.open();
+        return opened;
+    }
+
+    private static DnaRecord record(int value, boolean isMutant) {
+        DnaRecord record = new DnaRecord();
+        record.setDnaHash(hash(value));
+        record.setMutant(isMutant);
+        record.setCreatedAt(START.plusSeconds(value));
+        return record;
+    }
+
+    private static DnaHash hash(int value) {
+        try {
+            return DnaHash.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(ByteBuffer.allocate(Integer.BYTES).putInt(value).array()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
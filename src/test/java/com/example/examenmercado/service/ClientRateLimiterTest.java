@@ -0,0 +1,101 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private ClientRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        // 1000 celdas por segundo, ráfaga de 2000
+        properties.setCellsPerSecond(1_000);
+        properties.setBurstCells(2_000);
+        properties.setMinCost(10);
+        limiter = new ClientRateLimiter(properties, clock::get);
+    }
+
+    @Test
+    @DisplayName("LÍMITE: Admite la ráfaga, rechaza lo que la supera e informa cuánto esperar")
+    void testBurstThenWait() {
+        assertEquals(0, limiter.tryAcquire("a", 1_500));
+        assertEquals(0, limiter.tryAcquire("a", 500));
+
+        long wait = limiter.tryAcquire("a", 400);
+
+        // 400 celdas a 1000 por segundo
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(400), wait);
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("a", 400));
+    }
+
+    @Test
+    @DisplayName("LÍMITE: El costo es por celdas y cada cliente tiene su propio saldo")
+    void testWeightedPerClient() {
+        // Una matriz de 40x40 gasta casi toda la ráfaga
+        assertEquals(0, limiter.tryAcquire("grande", 40 * 40));
+        assertTrue(limiter.tryAcquire("grande", 40 * 40) > 0);
+
+        // Una de 6x6 cuesta 36 celdas: entran 55 en la misma ráfaga
+        for (int i = 0; i < 55; i++) {
+            assertEquals(0, limiter.tryAcquire("chico", 6 * 6), "petición " + i);
+        }
+        assertTrue(limiter.tryAcquire("chico", 6 * 6) > 0);
+    }
+
+    @Test
+    @DisplayName("LÍMITE: Una matriz más grande que la ráfaga se cobra entera como deuda y el saldo no se acumula")
+    void testCostNotCappedAndIdleCapped() {
+        assertEquals(0, limiter.tryAcquire("a", 1_000_000));
+        // La deuda de 998.000 celdas más las 10 nuevas, a 1000 por segundo
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(998_010), limiter.tryAcquire("a", 10));
+        // Otra más grande que la ráfaga espera a que la ráfaga vuelva a estar llena
+        assertEquals(TimeUnit.SECONDS.toNanos(1_000), limiter.tryAcquire("a", 5_000));
+
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+
+        assertEquals(0, limiter.tryAcquire("a", 2_000));
+        assertTrue(limiter.tryAcquire("a", 10) > 0);
+    }
+
+    @Test
+    @DisplayName("LÍMITE: Con muchos hilos a la vez se admite exactamente la ráfaga")
+    void testConcurrentAcquire() throws InterruptedException {
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for (int i = 0; i < 100; i++) {
+                        if (limiter.tryAcquire("compartido", 10) == 0) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        }
+
+        // El reloj no avanza: entran 2000 / 10 peticiones
+        assertEquals(200, admitted.get());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.exception.DatabaseBusyException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DbConcurrencyLimiterTest {
+
+    @Test
+    @DisplayName("LIMITE BD: Nunca hay más accesos simultáneos que permisos, aun con miles de hilos virtuales")
+    void testLimitsConcurrency() throws Exception {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(3, Duration.ofSeconds(30));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                executor.submit(() -> limiter.run(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.onSpinWait();
+                    inFlight.decrementAndGet();
+                }));
+            }
+        }
+
+        assertTrue(maxInFlight.get() <= 3);
+        assertEquals(0, inFlight.get());
+    }
+
+    @Test
+    @DisplayName("LIMITE BD: Sin permisos libres dentro del timeout lanza DatabaseBusyException")
+    void testTimeout() throws Exception {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1, Duration.ofMillis(50));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> holder = executor.submit(() -> limiter.run(() -> {
+                holding.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            assertThrows(DatabaseBusyException.class, () -> limiter.call(() -> "consulta"));
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+
+        // El permiso se devolvió
+        assertEquals("consulta", limiter.call(() -> "consulta"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.examenmercado.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DeltaRunCounterTest {
+
+    private final MutantDetector detector = new MutantDetector();
+
+    @Test
+    @DisplayName("DELTA: El recuento por ventanas coincide con un conteo completo de la matriz editada")
+    void testDeltaMatchesFullCount() {
+        Random random = new Random(7);
+        for (int n : new int[]{4, 5, 33, 70}) {
+            // Pocas bases distintas: muchas secuencias, también superpuestas
+            PackedDnaMatrix matrix = PackedDnaMatrix.encode(randomDna(random, n, "AAAC"));
+            long runs = detector.countRuns(matrix);
+            for (int round = 0; round < 50; round++) {
+                int edits = 1 + random.nextInt(6);
+                int[] rows = new int[edits];
+                int[] cols = new int[edits];
+                int[] codes = new int[edits];
+                for (int i = 0; i < edits; i++) {
+                    // Ediciones vecinas para que compartan ventanas
+                    rows[i] = i > 0 && random.nextBoolean() ? Math.min(n - 1, rows[i - 1] + 1) : random.nextInt(n);
+                    cols[i] = i > 0 && random.nextBoolean() ? cols[i - 1] : random.nextInt(n);
+                    codes[i] = random.nextInt(4);
+                }
+
+                PackedDnaMatrix edited = matrix.withEdits(rows, cols, codes);
+                long[] windows = DeltaRunCounter.affectedWindows(n, rows, cols);
+                runs = runs - DeltaRunCounter.countRuns(matrix, windows) + DeltaRunCounter.countRuns(edited, windows);
+
+                assertEquals(detector.countRuns(edited), runs, "N=" + n + ", ronda " + round);
+                matrix = edited;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("DELTA: Una celda central está en 16 ventanas y una esquina en 3")
+    void testAffectedWindows() {
+        assertEquals(16, DeltaRunCounter.affectedWindows(10, new int[]{5}, new int[]{5}).length);
+        assertEquals(3, DeltaRunCounter.affectedWindows(10, new int[]{0}, new int[]{0}).length);
+        // Celdas repetidas no repiten ventanas
+        assertArrayEquals(DeltaRunCounter.affectedWindows(10, new int[]{5}, new int[]{5}),
+                DeltaRunCounter.affectedWindows(10, new int[]{5, 5}, new int[]{5, 5}));
+    }
+
+    private static String[] randomDna(Random random, int n, String alphabet) {
+        String[] dna = new String[n];
+        for (int row = 0; row < n; row++) {
+            StringBuilder line = new StringBuilder(n);
+            for (int col = 0; col < n; col++) {
+                line.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            dna[row] = line.toString();
+        }
+        return dna;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.HashFilterProperties;
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.repository.DnaRecordStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DnaHashFilterTest {
+
+    @Mock
+    private DnaRecordStore dnaRecordStore;
+
+    @Test
+    @DisplayName("FILTRO: Se carga en streaming desde la tabla y descarta solo hashes no guardados")
+    void testLoad_NoFalseNegatives() {
+        stored(hash(1), hash(2), hash(3));
+        DnaHashFilter filter = newFilter(1_000, 0.01);
+
+        assertFalse(filter.isReady());
+        assertFalse(filter.isDefinitelyAbsent(hash(99)));
+
+        filter.load();
+
+        assertTrue(filter.isReady());
+        assertFalse(filter.isDefinitelyAbsent(hash(1)));
+        assertFalse(filter.isDefinitelyAbsent(hash(3)));
+        assertTrue(filter.isDefinitelyAbsent(hash(99)));
+
+        filter.add(hash(99));
+        assertFalse(filter.isDefinitelyAbsent(hash(99)));
+    }
+
+    @Test
+    @DisplayName("FILTRO: Crece por tramos sin falsos negativos y con falsos positivos cerca del objetivo")
+    void testGrowth_FalsePositiveRate() {
+        stored();
+        DnaHashFilter filter = newFilter(1_000, 0.01);
+        filter.load();
+
+        int stored = 20_000;
+        for (int i = 0; i < stored; i++) {
+            filter.add(hash(i));
+        }
+
+        assertTrue(filter.segmentCount() > 1);
+        for (int i = 0; i < stored; i++) {
+            assertFalse(filter.isDefinitelyAbsent(hash(i)));
+        }
+        int falsePositives = 0;
+        int probes = 20_000;
+        for (int i = stored; i < stored + probes; i++) {
+            if (!filter.isDefinitelyAbsent(hash(i))) {
+                falsePositives++;
+            }
+        }
+        // Objetivo 1%, con margen para la varianza
+        assertTrue(falsePositives < probes * 0.02, "falsos positivos: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("FILTRO: Si la carga falla o está deshabilitado, siempre se consulta la base")
+    void testLoadFailureAndDisabled() {
+        doThrow(new IllegalStateException("base caída")).when(dnaRecordStore).forEachHash(any());
+        DnaHashFilter failed = newFilter(1_000, 0.01);
+        failed.load();
+        assertFalse(failed.isDefinitelyAbsent(hash(1)));
+
+        HashFilterProperties properties = new HashFilterProperties();
+        properties.setEnabled(false);
+        DnaHashFilter disabled = new DnaHashFilter(properties, dnaRecordStore,
+                new DbConcurrencyLimiter(10, Duration.ofSeconds(1)));
+        disabled.load();
+        assertFalse(disabled.isDefinitelyAbsent(hash(1)));
+        // Solo la carga que falló recorrió los registros
+        verify(dnaRecordStore, times(1)).forEachHash(any());
+    }
+
+    private DnaHashFilter newFilter(long expectedInsertions, double falsePositiveRate) {
+        HashFilterProperties properties = new HashFilterProperties();
+        properties.setExpectedInsertions(expectedInsertions);
+        properties.setFalsePositiveRate(falsePositiveRate);
+        return new DnaHashFilter(properties, dnaRecordStore, new DbConcurrencyLimiter(10, Duration.ofSeconds(1)));
+    }
+
+    private void stored(DnaHash... hashes) {
+        doAnswer(invocation -> {
+            List.of(hashes).forEach(invocation.<Consumer<DnaHash>>getArgument(0));
+            return null;
+        }).when(dnaRecordStore).forEachHash(any());
+    }
+
+    // Hash uniforme como los de DnaHasher, derivado de un entero
+    private static DnaHash hash(int value) {
+        Murmur3Hash128 murmur = new Murmur3Hash128();
+        for (byte b : ByteBuffer.allocate(Integer.BYTES).putInt(value).array()) {
+            murmur.update(b);
+        }
+        return DnaHash.wrap(murmur.digest());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.HashProperties;
+import com.example.examenmercado.entity.DnaHash;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DnaHasherTest {
+
+    private static final String[] DNA = {"ATGCGA", "CAGTGC", "TTATGT", "AGAAGG", "CCCCTA", "TCACTG"};
+
+    @Test
+    @DisplayName("HASH: SHA-256 coincide con el hash de la forma empaquetada canónica")
+    void testSha256_MatchesCanonicalForm() throws Exception {
+        // Filas largas (varias palabras, la última incompleta) para forzar varios vaciados del buffer
+        String[] dna = new String[1500];
+        char[] row = new char[1500];
+        for (int i = 0; i < dna.length; i++) {
+            Arrays.fill(row, "ACGT".charAt(i % 4));
+            dna[i] = new String(row);
+        }
+
+        DnaHash hash = new DnaHasher(new HashProperties()).hash(PackedDnaMatrix.encode(dna));
+
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(canonicalBytes(dna));
+        assertArrayEquals(expected, hash.toBytes());
+        assertEquals(64, hash.toString().length());
+    }
+
+    @Test
+    @DisplayName("HASH: Mayúsculas y minúsculas producen el mismo hash")
+    void testHash_CaseInsensitive() {
+        DnaHasher hasher = new DnaHasher(new HashProperties());
+        String[] lower = Arrays.stream(DNA).map(String::toLowerCase).toArray(String[]::new);
+
+        assertEquals(hasher.hash(PackedDnaMatrix.encode(DNA)), hasher.hash(PackedDnaMatrix.encode(lower)));
+    }
+
+    @Test
+    @DisplayName("HASH: Murmur3-128 produce claves de 16 bytes estables entre llamadas")
+    void testMurmur3_StableAndCompact() {
+        HashProperties properties = new HashProperties();
+        properties.setAlgorithm(HashProperties.Algorithm.MURMUR3_128);
+        DnaHasher hasher = new DnaHasher(properties);
+
+        DnaHash first = hasher.hash(PackedDnaMatrix.encode(DNA));
+        DnaHash second = hasher.hash(PackedDnaMatrix.encode(DNA.clone()));
+
+        assertEquals(16, first.length());
+        assertEquals(first, second);
+        assertNotEquals(first, hasher.hash(PackedDnaMatrix.encode(new String[]{"AAAA", "CCCC", "GGGG", "TTTT"})));
+    }
+
+    @Test
+    @DisplayName("HASH: Murmur3-128 coincide con el vector de referencia")
+    void testMurmur3_ReferenceVector() {
+        Murmur3Hash128 murmur = new Murmur3Hash128();
+        for (byte value : "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII)) {
+            murmur.update(value);
+        }
+
+        assertEquals("6c1b07bc7bbc4be347939ac4a93c437a", DnaHash.wrap(murmur.digest()).toString());
+    }
+
+    @Test
+    @DisplayName("HASH: Murmur3-128 por tramos da lo mismo que byte a byte, corte donde se corte")
+    void testMurmur3_BlockUpdateMatchesBytes() {
+        byte[] message = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII);
+        Murmur3Hash128 murmur = new Murmur3Hash128();
+
+        for (int split = 0; split <= message.length; split++) {
+            murmur.update(message, 0, split);
+            murmur.update(message, split, message.length - split);
+            assertEquals("6c1b07bc7bbc4be347939ac4a93c437a", DnaHash.wrap(murmur.digest()).toString(), "corte en " + split);
+        }
+    }
+
+    // N y luego cada fila en palabras de 32 bases (A=0, C=1, G=2, T=3), little-endian
+    private static byte[] canonicalBytes(String[] dna) {
+        int n = dna.length;
+        int wordsPerRow = (n + 31) / 32;
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * (1 + n * wordsPerRow)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(n);
+        for (String row : dna) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = 0L;
+                for (int col = w * 32; col < Math.min(n, (w + 1) * 32); col++) {
+                    word |= (long) "ACGT".indexOf(row.charAt(col)) << (2 * (col % 32));
+                }
+                buffer.putLong(word);
+            }
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.WriteBehindProperties;
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.entity.DnaRecord;
+import com.example.examenmercado.repository.DnaRecordStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DnaRecordWriterTest {
+
+    private static final DnaHash HASH_A = DnaHash.fromHex("0a");
+    private static final DnaHash HASH_B = DnaHash.fromHex("0b");
+    private static final DnaHash HASH_C = DnaHash.fromHex("0c");
+
+    @Mock
+    private DnaRecordStore dnaRecordStore;
+
+    @Mock
+    private StatsCounter statsCounter;
+
+    @Mock
+    private StatsTimeSeries statsTimeSeries;
+
+    @Mock
+    private DnaHashFilter dnaHashFilter;
+
+    @Test
+    @DisplayName("ESCRITURA: Sin escritura diferida guarda en el momento y actualiza contadores")
+    void testWrite_Synchronous() {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setEnabled(false);
+        DnaRecordWriter writer = new DnaRecordWriter(dnaRecordStore, statsCounter, statsTimeSeries, dnaHashFilter,
+                properties, new DbConcurrencyLimiter(10, Duration.ofSeconds(1)));
+
+        when(dnaRecordStore.saveIfAbsent(any(DnaRecord.class))).thenReturn(true);
+
+        writer.write(record(HASH_A, true));
+
+        verify(dnaRecordStore).saveIfAbsent(any(DnaRecord.class));
+        verify(statsCounter).record(true);
+        verify(statsTimeSeries).record(any(LocalDateTime.class), eq(true));
+        verify(dnaHashFilter).add(HASH_A);
+    }
+
+    @Test
+    @DisplayName("ESCRITURA: Un INSERT duplicado por una carrera no es un error ni suma a los contadores")
+    void testWrite_SynchronousDuplicate() {
+        when(dnaRecordStore.saveIfAbsent(any(DnaRecord.class))).thenReturn(false);
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setEnabled(false);
+        DnaRecordWriter writer = new DnaRecordWriter(dnaRecordStore, statsCounter, statsTimeSeries, dnaHashFilter,
+                properties, new DbConcurrencyLimiter(10, Duration.ofSeconds(1)));
+
+        assertDoesNotThrow(() -> writer.write(record(HASH_A, true)));
+
+        verify(statsCounter, never()).record(anyBoolean());
+        verify(statsTimeSeries, never()).record(any(LocalDateTime.class), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("ESCRITURA: Vuelca por lotes deduplicando en la cola y contra lo ya guardado")
+    @SuppressWarnings("unchecked")
+    void testWrite_BatchedAndDeduplicated() {
+        // HASH_C ya fue guardado por un lote anterior: el almacenamiento no lo inserta
+        when(dnaRecordStore.saveAllNew(anyCollection())).thenAnswer(invocation -> ((Collection<DnaRecord>) invocation.getArgument(0))
+                .stream()
+                .filter(record -> !record.getDnaHash().equals(HASH_C))
+                .toList());
+        WriteBehindProperties properties = new WriteBehindProperties();
+        // Solo el disparador por tamaño: los tres registros distintos forman un único lote
+        properties.setBatchSize(3);
+        properties.setFlushInterval(Duration.ofSeconds(30));
+        DnaRecordWriter writer = new DnaRecordWriter(dnaRecordStore, statsCounter, statsTimeSeries, dnaHashFilter,
+                properties, new DbConcurrencyLimiter(10, Duration.ofSeconds(1)));
+        writer.start();
+
+        try {
+            writer.write(record(HASH_A, true));
+            // Duplicado mientras el primero sigue pendiente: no se encola
+            writer.write(record(HASH_A, true));
+            writer.write(record(HASH_B, false));
+            writer.write(record(HASH_C, false));
+        } finally {
+            // Vacía la cola antes de terminar
+            writer.stop();
+        }
+
+        ArgumentCaptor<Collection<DnaRecord>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(dnaRecordStore, atLeastOnce()).saveAllNew(captor.capture());
+        List<DnaHash> offered = captor.getAllValues().stream()
+                .flatMap(Collection::stream)
+                .map(DnaRecord::getDnaHash)
+                .toList();
+        assertEquals(List.of(HASH_A, HASH_B, HASH_C), offered);
+        // Solo los realmente insertados suman a los contadores
+        verify(statsCounter).record(true);
+        verify(statsCounter).record(false);
+        assertTrue(writer.pendingVerdict(HASH_A).isEmpty());
+        verify(dnaRecordStore, never()).saveIfAbsent(any(DnaRecord.class));
+    }
+
+    @Test
+    @DisplayName("ESCRITURA: Con la base saturada el lote sigue pendiente y se guarda al liberarse, sin perder registros")
+    @SuppressWarnings("unchecked")
+    void testWrite_SaturatedLimiterRetriesBatch() throws Exception {
+        when(dnaRecordStore.saveAllNew(anyCollection()))
+                .thenAnswer(invocation -> List.copyOf((Collection<DnaRecord>) invocation.getArgument(0)));
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setBatchSize(2);
+        properties.setFlushInterval(Duration.ofSeconds(30));
+        properties.setRetryBackoff(Duration.ofMillis(10));
+        properties.setMaxRetryBackoff(Duration.ofMillis(20));
+        // Un solo permiso y timeout corto: cada intento de volcado falla con DatabaseBusyException
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1, Duration.ofMillis(20));
+        DnaRecordWriter writer = new DnaRecordWriter(dnaRecordStore, statsCounter, statsTimeSeries, dnaHashFilter,
+                properties, limiter);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> limiter.run(() -> {
+                holding.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            try {
+                assertTrue(holding.await(5, TimeUnit.SECONDS));
+                writer.start();
+
+                writer.write(record(HASH_A, true));
+                writer.write(record(HASH_B, false));
+                // Varios intentos vencidos: los registros siguen visibles y no se guardaron ni contaron
+                Thread.sleep(200);
+                assertEquals(true, writer.pendingVerdict(HASH_A).orElseThrow());
+                verify(dnaRecordStore, never()).saveAllNew(anyCollection());
+                verify(dnaRecordStore, never()).saveIfAbsent(any(DnaRecord.class));
+                verify(statsCounter, never()).record(anyBoolean());
+            } finally {
+                release.countDown();
+            }
+        } finally {
+            writer.stop();
+        }
+
+        verify(dnaRecordStore).saveAllNew(anyCollection());
+        verify(statsCounter).record(true);
+        verify(statsCounter).record(false);
+        assertTrue(writer.pendingVerdict(HASH_A).isEmpty());
+    }
+
+    private static DnaRecord record(DnaHash hash, boolean isMutant) {
+        DnaRecord record = new DnaRecord();
+        record.setDnaHash(hash);
+        record.setMutant(isMutant);
+        record.setCreatedAt(LocalDateTime.now());
+        return record;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.entity.DnaHash;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightVerdictsTest {
+
+    private static final DnaHash HASH = DnaHash.fromHex("0a0b0c0d");
+
+    private final InFlightVerdicts inFlightVerdicts = new InFlightVerdicts();
+
+    @Test
+    @DisplayName("SINGLE-FLIGHT: Los hilos que llegan durante el análisis esperan el veredicto del primero")
+    void testConcurrentCallersShareResult() throws Exception {
+        AtomicInteger analyses = new AtomicInteger();
+        CountDownLatch analyzing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger mutantVerdicts = new AtomicInteger();
+
+        Thread leader = Thread.ofPlatform().start(() -> {
+            boolean verdict = inFlightVerdicts.resolve(HASH, () -> {
+                analyses.incrementAndGet();
+                analyzing.countDown();
+                awaitQuietly(release);
+                return true;
+            });
+            if (verdict) {
+                mutantVerdicts.incrementAndGet();
+            }
+        });
+        assertTrue(analyzing.await(5, TimeUnit.SECONDS));
+
+        List<Thread> followers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            followers.add(Thread.ofPlatform().start(() -> {
+                if (inFlightVerdicts.resolve(HASH, () -> analyses.incrementAndGet() > 0)) {
+                    mutantVerdicts.incrementAndGet();
+                }
+            }));
+        }
+        // Todos bloqueados en el futuro del primero antes de liberarlo
+        for (Thread follower : followers) {
+            while (follower.getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+        }
+        release.countDown();
+
+        leader.join(5_000);
+        for (Thread follower : followers) {
+            follower.join(5_000);
+        }
+
+        assertEquals(1, analyses.get());
+        assertEquals(9, mutantVerdicts.get());
+        assertEquals(0, inFlightVerdicts.size());
+    }
+
+    @Test
+    @DisplayName("SINGLE-FLIGHT: Un error del análisis se propaga y el hash queda libre para reintentar")
+    void testFailureIsPropagatedAndReleased() {
+        assertThrows(IllegalStateException.class, () -> inFlightVerdicts.resolve(HASH, () -> {
+            throw new IllegalStateException("falla");
+        }));
+        assertEquals(0, inFlightVerdicts.size());
+
+        AtomicBoolean retried = new AtomicBoolean();
+        assertFalse(inFlightVerdicts.resolve(HASH, () -> {
+            retried.set(true);
+            return false;
+        }));
+        assertTrue(retried.get());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
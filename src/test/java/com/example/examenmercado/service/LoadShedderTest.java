@@ -0,0 +1,64 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadShedderTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private LoadShedder shedder;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxQueueDelay(Duration.ofMillis(500));
+        properties.setSheddingMinCost(1_000_000);
+        // Sin muestras se asume 10M de celdas por segundo
+        properties.setMinThroughput(10_000_000);
+        shedder = new LoadShedder(properties, clock::get);
+    }
+
+    @Test
+    @DisplayName("CARGA: Con la espera estimada sobre el umbral se rechazan primero las matrices grandes")
+    void testShedsLargeFirst() {
+        // 6M de celdas en curso a 10M por segundo: 600 ms de espera
+        assertEquals(0, shedder.tryAdmit(6_000_000));
+
+        long delay = shedder.tryAdmit(2_000_000);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(600), delay);
+        assertEquals(0, shedder.tryAdmit(36));
+    }
+
+    @Test
+    @DisplayName("CARGA: Con el doble de espera se rechaza todo, y al terminar se vuelve a admitir")
+    void testShedsEverythingThenRecovers() {
+        assertEquals(0, shedder.tryAdmit(11_000_000));
+        assertTrue(shedder.tryAdmit(36) > 0);
+
+        shedder.complete(11_000_000);
+
+        assertEquals(0, shedder.tryAdmit(2_000_000));
+    }
+
+    @Test
+    @DisplayName("CARGA: El throughput medido reemplaza al piso cuando es mayor")
+    void testMeasuredThroughput() {
+        assertEquals(0, shedder.tryAdmit(40_000_000));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        shedder.complete(40_000_000);
+
+        // 40M de celdas en 200 ms: 200M por segundo
+        assertEquals(200_000_000.0, shedder.throughput(), 1.0);
+        assertEquals(0, shedder.tryAdmit(60_000_000));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(300), shedder.estimatedDelayNanos());
+    }
+}
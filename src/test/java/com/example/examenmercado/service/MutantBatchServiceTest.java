@@ -0,0 +1,322 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.AsyncProperties;
+import com.example.examenmercado.config.BatchProperties;
+import com.example.examenmercado.config.DeltaProperties;
+import com.example.examenmercado.config.DnaRequestProperties;
+import com.example.examenmercado.config.HashProperties;
+import com.example.examenmercado.config.RateLimitProperties;
+import com.example.examenmercado.entity.DnaHash;
+import com.example.examenmercado.entity.DnaRecord;
+import com.example.examenmercado.repository.DnaRecordStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MutantBatchServiceTest {
+
+    private static final String MUTANT_DNA = "{\"dna\": [\"ATGCGA\",\"CAGTGC\",\"TTATGT\",\"AGAAGG\",\"CCCCTA\",\"TCACTG\"]}";
+    private static final String HUMAN_DNA = "{\"dna\": [\"ATGCGA\",\"CAGTGC\",\"TTATTT\",\"AGACGG\",\"GCGTCA\",\"TCACTG\"]}";
+    private static final String INVALID_DNA = "{\"dna\": [\"ATGCGA\",\"CAGTGC\",\"TTATGT\",\"AGAZGG\",\"CCCCTA\",\"TCACTG\"]}";
+
+    @Mock
+    private DnaRecordStore dnaRecordStore;
+
+    @Mock
+    private VerdictCache verdictCache;
+
+    @Mock
+    private DnaRecordWriter dnaRecordWriter;
+
+    @Mock
+    private DnaHashFilter dnaHashFilter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final AnalysisExecutors analysisExecutors = new AnalysisExecutors(new AsyncProperties());
+    private final DnaMatrixCache dnaMatrixCache = new DnaMatrixCache(new DeltaProperties());
+    private MutantBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        batchService = new MutantBatchService(new MutantDetector(), dnaRecordStore, verdictCache,
+                new DnaHasher(new HashProperties()), dnaRecordWriter,
+                new DbConcurrencyLimiter(10, Duration.ofSeconds(1)), analysisExecutors, new InFlightVerdicts(),
+                dnaHashFilter, dnaMatrixCache, new ClientRateLimiter(new RateLimitProperties()),
+                new MutantMetrics(new SimpleMeterRegistry()), validator, objectMapper, new BatchProperties(), new DnaRequestProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        analysisExecutors.shutdown();
+    }
+
+    @Test
+    @DisplayName("LOTE: NDJSON con duplicados y un elemento inválido")
+    void testAnalyzeBatch_Ndjson() throws Exception {
+        String body = MUTANT_DNA + "\n" + INVALID_DNA + "\n" + MUTANT_DNA + "\n" + HUMAN_DNA + "\n";
+
+        Map<Integer, JsonNode> results = analyze(body);
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).get("mutant").asBoolean());
+        assertTrue(results.get(1).get("error").asText().contains("dna"));
+        assertTrue(results.get(2).get("mutant").asBoolean());
+        assertFalse(results.get(3).get("mutant").asBoolean());
+        // Una consulta por tramo y un registro por hash distinto
+        verify(dnaRecordStore, times(1)).findByDnaHashIn(anyCollection());
+        verify(dnaRecordWriter, times(2)).write(any(DnaRecord.class));
+    }
+
+    @Test
+    @DisplayName("LOTE: Array JSON con un ADN ya guardado en la base")
+    void testAnalyzeBatch_JsonArrayWithStoredRecord() throws Exception {
+        DnaHash humanHash = new DnaHasher(new HashProperties())
+                .hash(PackedDnaMatrix.encode(new String[]{"ATGCGA", "CAGTGC", "TTATTT", "AGACGG", "GCGTCA", "TCACTG"}));
+        DnaRecord stored = new DnaRecord();
+        stored.setDnaHash(humanHash);
+        stored.setMutant(false);
+        when(dnaRecordStore.findByDnaHashIn(anyCollection())).thenReturn(List.of(stored));
+
+        Map<Integer, JsonNode> results = analyze("[" + HUMAN_DNA + "," + MUTANT_DNA + "]");
+
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).get("mutant").asBoolean());
+        assertEquals(humanHash.toString(), results.get(0).get("dna_hash").asText());
+        assertTrue(results.get(1).get("mutant").asBoolean());
+        verify(verdictCache).put(humanHash, false);
+        verify(dnaRecordWriter, times(1)).write(any(DnaRecord.class));
+    }
+
+    @Test
+    @DisplayName("LOTE: Sin consulta a la base si el filtro descarta todos los hashes del tramo")
+    void testAnalyzeBatch_FilterSkipsQuery() throws Exception {
+        when(dnaHashFilter.isDefinitelyAbsent(any(DnaHash.class))).thenReturn(true);
+
+        Map<Integer, JsonNode> results = analyze(MUTANT_DNA + "\n" + HUMAN_DNA + "\n");
+
+        assertEquals(2, results.size());
+        verify(dnaRecordStore, never()).findByDnaHashIn(anyCollection());
+        verify(dnaRecordWriter, times(2)).write(any(DnaRecord.class));
+    }
+
+    @Test
+    @DisplayName("LOTE: Un elemento con forma incorrecta no corta el lote")
+    void testAnalyzeBatch_MalformedItem() throws Exception {
+        Map<Integer, JsonNode> results = analyze("{\"dna\": \"ATGC\"}\n" + MUTANT_DNA + "\n");
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).has("error"));
+        assertTrue(results.get(1).get("mutant").asBoolean());
+    }
+
+    @Test
+    @DisplayName("LOTE: Formato binario con duplicados; un elemento cortado termina el lote")
+    void testAnalyzePackedBatch() throws Exception {
+        PackedDnaMatrix mutant = PackedDnaMatrix.encode(new String[]{"ATGCGA", "CAGTGC", "TTATGT", "AGAAGG", "CCCCTA", "TCACTG"});
+        PackedDnaMatrix human = PackedDnaMatrix.encode(new String[]{"ATGCGA", "CAGTGC", "TTATTT", "AGACGG", "GCGTCA", "TCACTG"});
+        ByteBuffer body = ByteBuffer.allocate(128).order(ByteOrder.LITTLE_ENDIAN);
+        for (PackedDnaMatrix dna : List.of(mutant, human, mutant)) {
+            body.putInt(dna.size()).put(dna.toPacked());
+        }
+        body.putInt(6).put(new byte[3]);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        batchService.analyzePackedBatch(new ByteArrayInputStream(body.array(), 0, body.position()), output, null);
+        Map<Integer, JsonNode> results = parse(output);
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).get("mutant").asBoolean());
+        assertFalse(results.get(1).get("mutant").asBoolean());
+        assertTrue(results.get(2).get("mutant").asBoolean());
+        assertTrue(results.get(3).get("error").asText().contains("dna"));
+        verify(dnaRecordWriter, times(2)).write(any(DnaRecord.class));
+    }
+
+    @Test
+    @DisplayName("LOTE: Los tramos se cierran por celdas; una matriz más grande que el máximo va sola")
+    void testAnalyzeBatch_ChunksBoundedByCells() throws Exception {
+        BatchProperties properties = new BatchProperties();
+        properties.setChunkMaxCells(100_000);
+        MutantBatchService bounded = new MutantBatchService(new MutantDetector(), dnaRecordStore, verdictCache,
+                new DnaHasher(new HashProperties()), dnaRecordWriter,
+                new DbConcurrencyLimiter(10, Duration.ofSeconds(1)), analysisExecutors, new InFlightVerdicts(),
+                dnaHashFilter, dnaMatrixCache, new ClientRateLimiter(new RateLimitProperties()),
+                new MutantMetrics(new SimpleMeterRegistry()), validator, objectMapper, properties, new DnaRequestProperties());
+        // 40.000 + 40.000 celdas | 160.000 | 40.000: tres tramos aunque chunk-size admite 256 elementos
+        String body = randomDna(200, 1) + "\n" + randomDna(200, 2) + "\n" + randomDna(400, 3) + "\n" + randomDna(200, 4) + "\n";
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bounded.analyzeBatch(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output, null);
+        Map<Integer, JsonNode> results = parse(output);
+
+        assertEquals(4, results.size());
+        results.values().forEach(result -> assertTrue(result.has("mutant")));
+        verify(dnaRecordStore, times(3)).findByDnaHashIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("LOTE: La matriz de cada elemento queda como base de /mutant/delta con el dna_hash de su línea")
+    void testAnalyzeBatch_RemembersDeltaBase() throws Exception {
+        // mutant.delta.min-size es 100 por defecto: las matrices más chicas no se guardan
+        Map<Integer, JsonNode> results = analyze(randomDna(100, 5) + "\n" + MUTANT_DNA + "\n");
+
+        assertTrue(dnaMatrixCache.get(DnaHash.fromHex(results.get(0).get("dna_hash").asText())).isPresent());
+        assertTrue(dnaMatrixCache.get(DnaHash.fromHex(results.get(1).get("dna_hash").asText())).isEmpty());
+    }
+
+    @Test
+    @DisplayName("LOTE: Con la cola de detección compartida llena el elemento lleva un error y el lote sigue")
+    void testAnalyzeBatch_DetectionQueueFull() throws Exception {
+        // Un hilo y un lugar en la cola, los dos ocupados por otras peticiones
+        AsyncProperties async = new AsyncProperties();
+        async.setDetectionThreads(1);
+        async.setQueueCapacity(1);
+        AnalysisExecutors busy = new AnalysisExecutors(async);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        busy.detect(cancelled -> {
+            running.countDown();
+            return awaitQuietly(release);
+        });
+        running.await();
+        busy.detect(cancelled -> awaitQuietly(release));
+        MutantBatchService batch = new MutantBatchService(new MutantDetector(), dnaRecordStore, verdictCache,
+                new DnaHasher(new HashProperties()), dnaRecordWriter,
+                new DbConcurrencyLimiter(10, Duration.ofSeconds(1)), busy, new InFlightVerdicts(),
+                dnaHashFilter, dnaMatrixCache, new ClientRateLimiter(new RateLimitProperties()),
+                new MutantMetrics(new SimpleMeterRegistry()), validator, objectMapper, new BatchProperties(), new DnaRequestProperties());
+        String body = MUTANT_DNA + "\n" + INVALID_DNA + "\n";
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            batch.analyzeBatch(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output, null);
+        } finally {
+            release.countDown();
+            busy.shutdown();
+        }
+        Map<Integer, JsonNode> results = parse(output);
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).get("error").asText().contains("cola de detección"));
+        assertTrue(results.get(1).has("error"));
+        verify(dnaRecordWriter, never()).write(any());
+    }
+
+    @Test
+    @DisplayName("LOTE: Cada elemento se cobra al cliente; sin saldo el lote termina con un error en ese elemento")
+    void testAnalyzeBatch_RateLimitedPerItem() throws Exception {
+        // Ráfaga de 100 celdas sin recarga apreciable: entran dos matrices de 6x6 (36 celdas cada una)
+        RateLimitProperties limits = new RateLimitProperties();
+        limits.setCellsPerSecond(1);
+        limits.setBurstCells(100);
+        limits.setMinCost(1);
+        BatchProperties properties = new BatchProperties();
+        properties.setRateLimitMaxWait(Duration.ZERO);
+        MutantBatchService limited = new MutantBatchService(new MutantDetector(), dnaRecordStore, verdictCache,
+                new DnaHasher(new HashProperties()), dnaRecordWriter,
+                new DbConcurrencyLimiter(10, Duration.ofSeconds(1)), analysisExecutors, new InFlightVerdicts(),
+                dnaHashFilter, dnaMatrixCache, new ClientRateLimiter(limits),
+                new MutantMetrics(new SimpleMeterRegistry()), validator, objectMapper, properties, new DnaRequestProperties());
+        String body = MUTANT_DNA + "\n" + HUMAN_DNA + "\n" + MUTANT_DNA + "\n" + HUMAN_DNA + "\n";
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        limited.analyzeBatch(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output, "a");
+        Map<Integer, JsonNode> results = parse(output);
+
+        // El cuarto elemento no se llega a leer
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).get("mutant").asBoolean());
+        assertFalse(results.get(1).get("mutant").asBoolean());
+        assertTrue(results.get(2).get("error").asText().contains("límite de celdas"));
+    }
+
+    @Test
+    @DisplayName("LOTE: Sin saldo el lote espera la recarga del cliente en lugar de cortar")
+    void testAnalyzeBatch_WaitsForRefill() throws Exception {
+        // Ráfaga de 40 celdas, una matriz de 6x6 por cada 36 ms
+        RateLimitProperties limits = new RateLimitProperties();
+        limits.setCellsPerSecond(1_000);
+        limits.setBurstCells(40);
+        limits.setMinCost(1);
+        MutantBatchService limited = new MutantBatchService(new MutantDetector(), dnaRecordStore, verdictCache,
+                new DnaHasher(new HashProperties()), dnaRecordWriter,
+                new DbConcurrencyLimiter(10, Duration.ofSeconds(1)), analysisExecutors, new InFlightVerdicts(),
+                dnaHashFilter, dnaMatrixCache, new ClientRateLimiter(limits),
+                new MutantMetrics(new SimpleMeterRegistry()), validator, objectMapper, new BatchProperties(), new DnaRequestProperties());
+        String body = MUTANT_DNA + "\n" + HUMAN_DNA + "\n" + MUTANT_DNA + "\n";
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        limited.analyzeBatch(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output, "a");
+        Map<Integer, JsonNode> results = parse(output);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).get("mutant").asBoolean());
+        assertFalse(results.get(1).get("mutant").asBoolean());
+        assertTrue(results.get(2).get("mutant").asBoolean());
+    }
+
+    // Las líneas llegan en orden de finalización: se indexan por "index"
+    private Map<Integer, JsonNode> analyze(String body) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        batchService.analyzeBatch(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output, null);
+        return parse(output);
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String randomDna(int size, long seed) {
+        Random random = new Random(seed);
+        StringBuilder json = new StringBuilder("{\"dna\": [");
+        for (int row = 0; row < size; row++) {
+            json.append(row == 0 ? "\"" : ",\"");
+            for (int col = 0; col < size; col++) {
+                json.append("ACGT".charAt(random.nextInt(4)));
+            }
+            json.append('"');
+        }
+        return json.append("]}").toString();
+    }
+
+    private Map<Integer, JsonNode> parse(ByteArrayOutputStream output) throws Exception {
+        Map<Integer, JsonNode> results = new HashMap<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode node = objectMapper.readTree(line);
+            results.put(node.get("index").asInt(), node);
+        }
+        return results;
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.examenmercado.service;
 
+import com.example.examenmercado.config.DetectorProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class MutantDetectorTest {
 
@@ -201,4 +209,249 @@ class MutantDetectorTest {
         };
         assertFalse(detector.isMutant(dna));
     }
+
+    @Test
+    @DisplayName("MUTANTE: Acepta minúsculas igual que mayúsculas")
+    void testMutant_LowerCaseBases() {
+        String[] dna = {
+                "aaaaat",
+                "cgcgta",
+                "attgac",
+                "attgta",
+                "cccccA",
+                "tcactg"
+        };
+        assertTrue(detector.isMutant(dna));
+    }
+
+    @Test
+    @DisplayName("MOTOR EMPAQUETADO: Mismo resultado que el recorrido celda a celda")
+    void testPackedEngine_MatchesCellByCellScan() {
+        Random random = new Random(42);
+
+        for (int iteration = 0; iteration < 500; iteration++) {
+            // Tamaños que cruzan los límites de palabra (32 bases) y alfabetos reducidos para forzar secuencias
+            int n = 4 + random.nextInt(iteration % 10 == 0 ? 100 : 40);
+            String[] dna = randomDna(random, n, 2 + random.nextInt(3));
+
+            assertEquals(referenceIsMutant(dna), detector.isMutant(dna), "Diferencia para N=" + n);
+        }
+    }
+
+    @Test
+    @DisplayName("MOTOR PARALELO: Mismo resultado que el recorrido secuencial, incluso entre bandas")
+    void testParallelEngine_MatchesSequentialScan() {
+        DetectorProperties properties = new DetectorProperties();
+        properties.setParallelEnabled(true);
+        properties.setParallelThreshold(4);
+        properties.setParallelism(4);
+        // Bandas pequeñas para que muchas secuencias crucen el borde entre bandas
+        properties.setParallelBandRows(2);
+        MutantDetector parallelDetector = new MutantDetector(properties);
+
+        try {
+            Random random = new Random(7);
+            for (int iteration = 0; iteration < 300; iteration++) {
+                int n = 4 + random.nextInt(80);
+                String[] dna = randomDna(random, n, 2 + random.nextInt(3));
+
+                assertEquals(referenceIsMutant(dna), parallelDetector.isMutant(dna), "Diferencia para N=" + n);
+            }
+        } finally {
+            parallelDetector.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("MOTOR VECTORIAL: Cuenta lo mismo que el motor escalar (si la Vector API está disponible)")
+    void testVectorEngine_MatchesScalarEngine() {
+        RunCounter vectorCounter = VectorRunScanner.createIfSupported();
+        assumeTrue(vectorCounter != null, "Vector API no disponible");
+
+        assertTrue(MutantDetector.enginesAgree(PackedRunScanner.INSTANCE, vectorCounter));
+
+        Random random = new Random(11);
+        for (int iteration = 0; iteration < 50; iteration++) {
+            int n = 100 + random.nextInt(500);
+            PackedDnaMatrix matrix = PackedDnaMatrix.encode(randomDna(random, n, 1 + random.nextInt(4)));
+
+            assertEquals(PackedRunScanner.INSTANCE.countRuns(matrix, 0, n, Integer.MAX_VALUE),
+                    vectorCounter.countRuns(matrix, 0, n, Integer.MAX_VALUE), "Diferencia para N=" + n);
+        }
+    }
+
+    @Test
+    @DisplayName("MOTOR POR TRAMOS: Mismo conteo y veredicto que el motor por filas, de N=4 en adelante")
+    void testRunLengthEngine_MatchesRowEngine() {
+        DetectorProperties rowProperties = new DetectorProperties();
+        rowProperties.setRunLengthEnabled(false);
+        DetectorProperties runLengthProperties = new DetectorProperties();
+        runLengthProperties.setRunLengthThreshold(4);
+        MutantDetector rowDetector = new MutantDetector(rowProperties);
+        MutantDetector runLengthDetector = new MutantDetector(runLengthProperties);
+        // El mismo autochequeo que decide al arrancar si se usa el recorrido por tramos
+        assertTrue(MutantDetector.runLengthAgrees());
+
+        Random random = new Random(23);
+        for (int iteration = 0; iteration < 400; iteration++) {
+            // Incluye tamaños justo antes y después de cada límite de palabra
+            int n = 4 + random.nextInt(iteration % 10 == 0 ? 200 : 70);
+            String[] dna = randomDna(random, n, 1 + random.nextInt(4));
+            PackedDnaMatrix matrix = PackedDnaMatrix.encode(dna);
+
+            assertEquals(rowDetector.countRuns(matrix), runLengthDetector.countRuns(matrix), "Diferencia para N=" + n);
+            assertEquals(referenceIsMutant(dna), runLengthDetector.isMutant(matrix), "Diferencia para N=" + n);
+        }
+    }
+
+    @Test
+    @DisplayName("MOTOR POR TRAMOS: Recorrido por bandas de filas suma lo mismo que la pasada completa")
+    void testRunLengthBands_AddUpToFullPass() {
+        Random random = new Random(29);
+        for (int iteration = 0; iteration < 200; iteration++) {
+            int n = 4 + random.nextInt(100);
+            PackedDnaMatrix matrix = PackedDnaMatrix.encode(randomDna(random, n, 1 + random.nextInt(4)));
+
+            // Bandas de 1 a 8 filas: muchas secuencias cruzan uno o dos bordes
+            long banded = 0;
+            for (int from = 0, to; from < n; from = to) {
+                to = Math.min(n, from + 1 + random.nextInt(8));
+                banded += RunLengthScanner.countRuns(matrix, from, to, Long.MAX_VALUE);
+            }
+
+            assertEquals(RunLengthScanner.countRuns(matrix, Long.MAX_VALUE), banded, "Diferencia para N=" + n);
+            assertEquals(PackedRunScanner.INSTANCE.countRuns(matrix, 0, n, Integer.MAX_VALUE), banded, "Diferencia para N=" + n);
+        }
+    }
+
+    @Test
+    @DisplayName("CANCELACIÓN: Los tres motores abandonan el recorrido cuando se cancela a mitad de la matriz")
+    void testCancellation_StopsEveryEngine() {
+        DetectorProperties rowProperties = new DetectorProperties();
+        rowProperties.setRunLengthEnabled(false);
+        DetectorProperties runLengthProperties = new DetectorProperties();
+        runLengthProperties.setRunLengthThreshold(4);
+        DetectorProperties parallelProperties = new DetectorProperties();
+        parallelProperties.setParallelEnabled(true);
+        parallelProperties.setParallelThreshold(4);
+        parallelProperties.setParallelism(2);
+        parallelProperties.setParallelBandRows(8);
+        List<MutantDetector> detectors = List.of(new MutantDetector(rowProperties),
+                new MutantDetector(runLengthProperties), new MutantDetector(parallelProperties));
+
+        // Sin ninguna secuencia: sin cancelación se recorrería la matriz entera
+        int n = 120;
+        String[] dna = new String[n];
+        for (int row = 0; row < n; row++) {
+            StringBuilder line = new StringBuilder(n);
+            for (int col = 0; col < n; col++) {
+                line.append("ACGT".charAt((col + 2 * row) % 4));
+            }
+            dna[row] = line.toString();
+        }
+        PackedDnaMatrix matrix = PackedDnaMatrix.encode(dna);
+
+        try {
+            for (MutantDetector engine : detectors) {
+                assertFalse(engine.isMutant(matrix, MutantDetector.NOT_CANCELLED));
+                assertThrows(CancellationException.class, () -> engine.isMutant(matrix, () -> true));
+
+                AtomicInteger checks = new AtomicInteger();
+                assertThrows(CancellationException.class,
+                        () -> engine.isMutant(matrix, () -> checks.incrementAndGet() > 5));
+                assertTrue(checks.get() < n, "Siguió recorriendo filas después de cancelar");
+            }
+        } finally {
+            detectors.forEach(MutantDetector::shutdown);
+        }
+    }
+
+    @Test
+    @DisplayName("ANÁLISIS COMPLETO: Informa dirección, celda de inicio y base de cada secuencia")
+    void testFindRuns_Locations() {
+        String[] dna = {"ATGCGA", "CAGTGC", "TTATGT", "AGAAGG", "CCCCTA", "TCACTG"};
+        List<String> runs = new ArrayList<>();
+
+        long found = detector.findRuns(PackedDnaMatrix.encode(dna),
+                (direction, row, col, base) -> runs.add(direction + " " + row + "," + col + " " + base));
+
+        assertEquals(3, found);
+        assertEquals(List.of("VERTICAL 0,4 G", "DIAGONAL_DOWN 0,0 A", "HORIZONTAL 4,0 C"), runs);
+    }
+
+    @Test
+    @DisplayName("ANÁLISIS COMPLETO: Coincide con el recorrido celda a celda, también después de la palabra 32")
+    void testFindRuns_MatchesReference() {
+        Random random = new Random(20);
+        for (int n : new int[]{4, 31, 37, 70}) {
+            for (int alphabet = 1; alphabet <= 4; alphabet++) {
+                String[] dna = randomDna(random, n, alphabet);
+                List<String> runs = new ArrayList<>();
+
+                long found = detector.findRuns(PackedDnaMatrix.encode(dna),
+                        (direction, row, col, base) -> runs.add(direction + " " + row + "," + col + " " + base));
+
+                List<String> expected = referenceRuns(dna);
+                assertEquals(expected.size(), found);
+                assertEquals(detector.countRuns(PackedDnaMatrix.encode(dna)), found);
+                assertEquals(expected.stream().sorted().toList(), runs.stream().sorted().toList(),
+                        "N=" + n + ", alfabeto " + alphabet);
+            }
+        }
+    }
+
+    private static String[] randomDna(Random random, int n, int alphabet) {
+        String[] dna = new String[n];
+        for (int row = 0; row < n; row++) {
+            StringBuilder line = new StringBuilder(n);
+            for (int col = 0; col < n; col++) {
+                line.append("ACGT".charAt(random.nextInt(alphabet)));
+            }
+            dna[row] = line.toString();
+        }
+        return dna;
+    }
+
+    // Algoritmo original celda a celda, usado como referencia
+    private static boolean referenceIsMutant(String[] dna) {
+        int n = dna.length;
+        int found = 0;
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                if (col <= n - 4 && sameBases(dna, row, col, 0, 1)) found++;
+                if (row <= n - 4 && sameBases(dna, row, col, 1, 0)) found++;
+                if (row <= n - 4 && col <= n - 4 && sameBases(dna, row, col, 1, 1)) found++;
+                if (row >= 3 && col <= n - 4 && sameBases(dna, row, col, -1, 1)) found++;
+                if (found >= 2) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<String> referenceRuns(String[] dna) {
+        int n = dna.length;
+        List<String> runs = new ArrayList<>();
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                String cell = " " + row + "," + col + " " + dna[row].charAt(col);
+                if (col <= n - 4 && sameBases(dna, row, col, 0, 1)) runs.add(RunDirection.HORIZONTAL + cell);
+                if (row <= n - 4 && sameBases(dna, row, col, 1, 0)) runs.add(RunDirection.VERTICAL + cell);
+                if (row <= n - 4 && col <= n - 4 && sameBases(dna, row, col, 1, 1)) runs.add(RunDirection.DIAGONAL_DOWN + cell);
+                if (row >= 3 && col <= n - 4 && sameBases(dna, row, col, -1, 1)) runs.add(RunDirection.DIAGONAL_UP + cell);
+            }
+        }
+        return runs;
+    }
+
+    private static boolean sameBases(String[] dna, int row, int col, int deltaRow, int deltaCol) {
+        char base = dna[row].charAt(col);
+        for (int k = 1; k < 4; k++) {
+            if (dna[row + k * deltaRow].charAt(col + k * deltaCol) != base) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -1,7 +1,20 @@
 package com.example.examenmercado.service;
 
+import com.example.examenmercado.config.AsyncProperties;
+import com.example.examenmercado.config.DeltaProperties;
+import com.example.examenmercado.config.DetectorProperties;
+import com.example.examenmercado.config.HashProperties;
+import com.example.examenmercado.dto.DnaDeltaRequest.CellEdit;
+import com.example.examenmercado.dto.DnaDeltaResponse;
+import com.example.examenmercado.dto.DnaRunsResponse;
+import com.example.examenmercado.entity.DnaHash;
 import com.example.examenmercado.entity.DnaRecord;
-import com.example.examenmercado.repository.DnaRecordRepository;
+import com.example.examenmercado.exception.DetectionUnavailableException;
+import com.example.examenmercado.exception.InvalidDnaException;
+import com.example.examenmercado.exception.UnknownDnaException;
+import com.example.examenmercado.repository.DnaRecordStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,11 +22,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -24,7 +50,45 @@ class MutantServiceTest {
     private MutantDetector mutantDetector;
 
     @Mock
-    private DnaRecordRepository dnaRecordRepository;
+    private DnaRecordStore dnaRecordStore;
+
+    @Mock
+    private VerdictCache verdictCache;
+
+    @Spy
+    private DnaHasher dnaHasher = new DnaHasher(new HashProperties());
+
+    @Mock
+    private DnaRecordWriter dnaRecordWriter;
+
+    @Spy
+    private DbConcurrencyLimiter dbLimiter = new DbConcurrencyLimiter(10, Duration.ofSeconds(1));
+
+    @Spy
+    private InFlightVerdicts inFlightVerdicts = new InFlightVerdicts();
+
+    @Mock
+    private DnaHashFilter dnaHashFilter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private MutantMetrics mutantMetrics = new MutantMetrics(meterRegistry);
+
+    @Spy
+    private DeltaProperties deltaProperties = deltaProperties();
+
+    @Spy
+    private DnaMatrixCache dnaMatrixCache = new DnaMatrixCache(deltaProperties);
+
+    @Spy
+    private DetectorProperties detectorProperties = new DetectorProperties();
+
+    @Spy
+    private AsyncProperties asyncProperties = asyncProperties();
+
+    @Spy
+    private AnalysisExecutors analysisExecutors = new AnalysisExecutors(asyncProperties);
 
     @InjectMocks
     private MutantService mutantService;
@@ -39,33 +103,33 @@ class MutantServiceTest {
     }
 
     @Test
-    @DisplayName("SERVICIO: Debe analizar ADN mutante, llamar al detector y guardarlo en BD")
+    @DisplayName("SERVICIO: Debe analizar ADN mutante, llamar al detector y enviarlo a guardar")
     void testAnalyzeDna_NewMutant() {
         // 1. Simular que el ADN no existe en BD (cache miss)
-        when(dnaRecordRepository.findByDnaHash(anyString())).thenReturn(Optional.empty());
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.empty());
         // 2. Simular que el algoritmo detecta mutante
-        when(mutantDetector.isMutant(mutantDna)).thenReturn(true);
+        when(mutantDetector.isMutant(any(PackedDnaMatrix.class))).thenReturn(true);
 
         boolean result = mutantService.analyzeDna(mutantDna);
 
         assertTrue(result);
         // Verificar que se llamó al detector y que se guardó
-        verify(mutantDetector, times(1)).isMutant(mutantDna);
-        verify(dnaRecordRepository, times(1)).save(any(DnaRecord.class));
+        verify(mutantDetector, times(1)).isMutant(any(PackedDnaMatrix.class));
+        verify(dnaRecordWriter, times(1)).write(any(DnaRecord.class));
     }
 
     @Test
-    @DisplayName("SERVICIO: Debe analizar ADN humano, llamar al detector y guardarlo en BD")
+    @DisplayName("SERVICIO: Debe analizar ADN humano, llamar al detector y enviarlo a guardar")
     void testAnalyzeDna_NewHuman() {
-        when(dnaRecordRepository.findByDnaHash(anyString())).thenReturn(Optional.empty());
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.empty());
         // Simular que el algoritmo detecta humano
-        when(mutantDetector.isMutant(humanDna)).thenReturn(false);
+        when(mutantDetector.isMutant(any(PackedDnaMatrix.class))).thenReturn(false);
 
         boolean result = mutantService.analyzeDna(humanDna);
 
         assertFalse(result);
-        verify(mutantDetector, times(1)).isMutant(humanDna);
-        verify(dnaRecordRepository, times(1)).save(any(DnaRecord.class));
+        verify(mutantDetector, times(1)).isMutant(any(PackedDnaMatrix.class));
+        verify(dnaRecordWriter, times(1)).write(any(DnaRecord.class));
     }
 
     @Test
@@ -73,22 +137,22 @@ class MutantServiceTest {
     void testAnalyzeDna_CacheHit() {
         // Simular que el ADN ya existe en BD y es mutante (cache hit)
         DnaRecord cachedRecord = new DnaRecord();
-        when(dnaRecordRepository.findByDnaHash(anyString())).thenReturn(Optional.of(cachedRecord));
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.of(cachedRecord));
 
         boolean result = mutantService.analyzeDna(mutantDna);
 
         assertFalse(result);
 
         // Debe evitar llamar al detector y a save (Optimización de caché)
-        verify(mutantDetector, never()).isMutant(any());
-        verify(dnaRecordRepository, never()).save(any(DnaRecord.class));
+        verify(mutantDetector, never()).isMutant(any(PackedDnaMatrix.class));
+        verify(dnaRecordWriter, never()).write(any(DnaRecord.class));
     }
 
     @Test
     @DisplayName("SERVICIO: Debe guardar el registro con el resultado correcto (mutante)")
     void testAnalyzeDna_SaveCorrectResult() {
-        when(dnaRecordRepository.findByDnaHash(anyString())).thenReturn(Optional.empty());
-        when(mutantDetector.isMutant(mutantDna)).thenReturn(true);
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.empty());
+        when(mutantDetector.isMutant(any(PackedDnaMatrix.class))).thenReturn(true);
 
         // Capturador para inspeccionar el objeto guardado
         ArgumentCaptor<DnaRecord> captor = ArgumentCaptor.forClass(DnaRecord.class);
@@ -96,22 +160,370 @@ class MutantServiceTest {
         mutantService.analyzeDna(mutantDna);
 
         // Verificar que el objeto guardado tiene isMutant = true
-        verify(dnaRecordRepository).save(captor.capture());
+        verify(dnaRecordWriter).write(captor.capture());
         assertTrue(captor.getValue().isMutant());
     }
 
     @Test
     @DisplayName("SERVICIO: Debe guardar el registro con el resultado correcto (humano)")
     void testAnalyzeDna_SaveCorrectResult_Human() {
-        when(dnaRecordRepository.findByDnaHash(anyString())).thenReturn(Optional.empty());
-        when(mutantDetector.isMutant(humanDna)).thenReturn(false);
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.empty());
+        when(mutantDetector.isMutant(any(PackedDnaMatrix.class))).thenReturn(false);
 
         ArgumentCaptor<DnaRecord> captor = ArgumentCaptor.forClass(DnaRecord.class);
 
         mutantService.analyzeDna(humanDna);
 
         // Verificar que el objeto guardado tiene isMutant = false
-        verify(dnaRecordRepository).save(captor.capture());
+        verify(dnaRecordWriter).write(captor.capture());
         assertFalse(captor.getValue().isMutant());
     }
+
+    @Test
+    @DisplayName("SERVICIO: Debe responder desde la cache en memoria sin consultar la BD")
+    void testAnalyzeDna_InMemoryCacheHit() {
+        when(verdictCache.get(any(DnaHash.class))).thenReturn(Optional.of(true));
+
+        boolean result = mutantService.analyzeDna(mutantDna);
+
+        assertTrue(result);
+        verify(dnaRecordStore, never()).findByDnaHash(any(DnaHash.class));
+        verify(mutantDetector, never()).isMutant(any(PackedDnaMatrix.class));
+        verify(dnaRecordWriter, never()).write(any(DnaRecord.class));
+    }
+
+    @Test
+    @DisplayName("SERVICIO: Debe completar la cache en memoria al leer de la BD y al guardar")
+    void testAnalyzeDna_PopulatesInMemoryCache() {
+        DnaRecord cachedRecord = new DnaRecord();
+        cachedRecord.setMutant(true);
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class)))
+                .thenReturn(Optional.of(cachedRecord))
+                .thenReturn(Optional.empty());
+        when(mutantDetector.isMutant(any(PackedDnaMatrix.class))).thenReturn(false);
+
+        mutantService.analyzeDna(mutantDna);
+        mutantService.analyzeDna(humanDna);
+
+        verify(verdictCache).put(any(DnaHash.class), eq(true));
+        verify(verdictCache).put(any(DnaHash.class), eq(false));
+        verify(verdictCache, times(2)).put(any(DnaHash.class), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("SERVICIO: Debe responder con el veredicto de un registro pendiente de escritura")
+    void testAnalyzeDna_PendingWrite() {
+        when(dnaRecordWriter.pendingVerdict(any(DnaHash.class))).thenReturn(Optional.of(true));
+
+        boolean result = mutantService.analyzeDna(mutantDna);
+
+        assertTrue(result);
+        verify(dnaRecordStore, never()).findByDnaHash(any(DnaHash.class));
+        verify(mutantDetector, never()).isMutant(any(PackedDnaMatrix.class));
+    }
+
+    @Test
+    @DisplayName("SERVICIO: Debe registrar métricas de etapas, origen del veredicto y resultado")
+    void testAnalyzeDna_Metrics() {
+        DnaRecord storedRecord = new DnaRecord();
+        storedRecord.setMutant(false);
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class)))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(storedRecord));
+        when(mutantDetector.isMutant(any(PackedDnaMatrix.class))).thenReturn(true);
+
+        mutantService.analyzeDna(mutantDna);
+        mutantService.analyzeDna(humanDna);
+
+        assertEquals(1.0, meterRegistry.get("mutant.lookup").tag("result", "miss").counter().count());
+        assertEquals(1.0, meterRegistry.get("mutant.lookup").tag("result", "database").counter().count());
+        assertEquals(1.0, meterRegistry.get("mutant.verdicts").tag("result", "mutant").counter().count());
+        assertEquals(1.0, meterRegistry.get("mutant.verdicts").tag("result", "human").counter().count());
+        assertEquals(2, meterRegistry.get("mutant.analyze.stage").tag("stage", "hash").timer().count());
+        assertEquals(2, meterRegistry.get("mutant.analyze.stage").tag("stage", "lookup").timer().count());
+        assertEquals(1, meterRegistry.get("mutant.analyze.stage").tag("stage", "detection").timer().count());
+        assertEquals(2, meterRegistry.get("mutant.dna.size").summary().count());
+        assertEquals(6.0, meterRegistry.get("mutant.dna.size").summary().max());
+    }
+
+    @Test
+    @DisplayName("SERVICIO: Con la matriz ya codificada al parsear, el detector no vuelve a leer las filas")
+    void testAnalyzeDna_PreEncodedMatrix() {
+        PackedDnaMatrix encoded = PackedDnaMatrix.encode(mutantDna);
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.empty());
+        when(mutantDetector.isMutant(encoded)).thenReturn(true);
+
+        assertTrue(mutantService.analyzeDna(encoded));
+
+        verify(mutantDetector).isMutant(encoded);
+        verify(mutantDetector, never()).isMutant(any(String[].class));
+    }
+
+    @Test
+    @DisplayName("SERVICIO: Si el filtro descarta el hash, no se consulta la base")
+    void testAnalyzeDna_FilterSkipsLookup() {
+        when(dnaHashFilter.isDefinitelyAbsent(any(DnaHash.class))).thenReturn(true);
+        when(mutantDetector.isMutant(any(PackedDnaMatrix.class))).thenReturn(true);
+
+        assertTrue(mutantService.analyzeDna(mutantDna));
+
+        verify(dnaRecordStore, never()).findByDnaHash(any(DnaHash.class));
+        verify(dnaRecordWriter).write(any(DnaRecord.class));
+    }
+
+    @Test
+    @DisplayName("SERVICIO: Un ADN inválido se rechaza antes de hashear o guardar")
+    void testAnalyzeDna_InvalidDna() {
+        String[] invalidDna = {"ATGC", "CAGT", "TTXT", "AGAA"};
+
+        assertThrows(InvalidDnaException.class, () -> mutantService.analyzeDna(invalidDna));
+
+        verify(dnaRecordStore, never()).findByDnaHash(any(DnaHash.class));
+        verify(dnaRecordWriter, never()).write(any(DnaRecord.class));
+    }
+
+    @Test
+    @DisplayName("DELTA: Editar un ADN humano ya enviado da el veredicto y el conteo de la matriz completa")
+    void testAnalyzeDelta_HumanToMutant() {
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.empty());
+        when(mutantDetector.countRuns(any(PackedDnaMatrix.class)))
+                .thenAnswer(invocation -> new MutantDetector().countRuns(invocation.getArgument(0)));
+        mutantService.analyzeDna(humanDna);
+        DnaHash baseHash = dnaHasher.hash(PackedDnaMatrix.encode(humanDna));
+
+        // "TTATTT" -> "TTTTTT": tres secuencias horizontales nuevas
+        DnaDeltaResponse response = mutantService.analyzeDelta(baseHash, List.of(new CellEdit(2, 2, "T")));
+
+        String[] editedDna = humanDna.clone();
+        editedDna[2] = "TTTTTT";
+        PackedDnaMatrix edited = PackedDnaMatrix.encode(editedDna);
+        assertTrue(response.isMutant());
+        assertEquals(new MutantDetector().countRuns(edited), response.getRunCount());
+        assertEquals(dnaHasher.hash(edited).toString(), response.getDnaHash());
+        ArgumentCaptor<DnaRecord> captor = ArgumentCaptor.forClass(DnaRecord.class);
+        verify(dnaRecordWriter, times(2)).write(captor.capture());
+        assertTrue(captor.getValue().isMutant());
+        assertEquals(dnaHasher.hash(edited), captor.getValue().getDnaHash());
+        // El detector solo contó la matriz base; la editada se resolvió por ventanas
+        verify(mutantDetector, times(1)).countRuns(any(PackedDnaMatrix.class));
+    }
+
+    @Test
+    @DisplayName("DELTA: Un hash base que no está en memoria se rechaza sin guardar nada")
+    void testAnalyzeDelta_UnknownBase() {
+        DnaHash unknown = dnaHasher.hash(PackedDnaMatrix.encode(mutantDna));
+
+        assertThrows(UnknownDnaException.class,
+                () -> mutantService.analyzeDelta(unknown, List.of(new CellEdit(0, 0, "A"))));
+
+        verify(dnaRecordWriter, never()).write(any(DnaRecord.class));
+    }
+
+    @Test
+    @DisplayName("DELTA: Una celda fuera de la matriz o demasiadas ediciones son un ADN inválido")
+    void testAnalyzeDelta_InvalidEdits() {
+        PackedDnaMatrix base = PackedDnaMatrix.encode(humanDna);
+        DnaHash baseHash = dnaHasher.hash(base);
+        dnaMatrixCache.remember(baseHash, base);
+        deltaProperties.setMaxEdits(2);
+
+        assertThrows(InvalidDnaException.class,
+                () -> mutantService.analyzeDelta(baseHash, List.of(new CellEdit(6, 0, "A"))));
+        assertThrows(InvalidDnaException.class, () -> mutantService.analyzeDelta(baseHash,
+                List.of(new CellEdit(0, 0, "A"), new CellEdit(0, 1, "A"), new CellEdit(0, 2, "A"))));
+        verify(dnaRecordWriter, never()).write(any(DnaRecord.class));
+    }
+
+    @Test
+    @DisplayName("ANÁLISIS COMPLETO: Agrupa las secuencias por dirección sin guardar el veredicto")
+    void testFindRuns_GroupsByDirection() {
+        PackedDnaMatrix dna = PackedDnaMatrix.encode(mutantDna);
+        when(mutantDetector.findRuns(eq(dna), any(RunListener.class))).thenAnswer(invocation ->
+                new MutantDetector().findRuns(dna, invocation.getArgument(1)));
+
+        DnaRunsResponse response = mutantService.findRuns(dna);
+
+        assertTrue(response.isMutant());
+        assertEquals(3, response.getRunCount());
+        assertFalse(response.isTruncated());
+        assertEquals(List.of(RunDirection.HORIZONTAL, RunDirection.VERTICAL, RunDirection.DIAGONAL_DOWN),
+                response.getRuns().stream().map(DnaRunsResponse.RunList::getDirection).toList());
+        DnaRunsResponse.RunList horizontal = response.getRuns().get(0);
+        assertEquals(4, horizontal.getRows()[0]);
+        assertEquals(0, horizontal.getCols()[0]);
+        assertEquals("C", horizontal.getBases());
+        verify(dnaRecordWriter, never()).write(any(DnaRecord.class));
+        verify(dnaRecordStore, never()).findByDnaHash(any(DnaHash.class));
+    }
+
+    @Test
+    @DisplayName("ANÁLISIS COMPLETO: Corta la lista en max-reported-runs pero informa el total")
+    void testFindRuns_Truncated() {
+        PackedDnaMatrix dna = PackedDnaMatrix.encode(new String[]{"AAAA", "AAAA", "AAAA", "AAAA"});
+        when(mutantDetector.findRuns(eq(dna), any(RunListener.class))).thenAnswer(invocation ->
+                new MutantDetector().findRuns(dna, invocation.getArgument(1)));
+        detectorProperties.setMaxReportedRuns(5);
+
+        DnaRunsResponse response = mutantService.findRuns(dna);
+
+        // 4 horizontales, 4 verticales y las 2 diagonales
+        assertEquals(10, response.getRunCount());
+        assertTrue(response.isTruncated());
+        assertEquals(5, response.getRuns().stream().mapToInt(runs -> runs.getRows().length).sum());
+    }
+
+    @AfterEach
+    void tearDown() {
+        analysisExecutors.shutdown();
+    }
+
+    @Test
+    @DisplayName("ASÍNCRONO: Un ADN nuevo se detecta en el pool de CPU y se envía a guardar")
+    void testAnalyzeDnaAsync_NewMutant() {
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.empty());
+        when(mutantDetector.isMutant(any(PackedDnaMatrix.class), any(BooleanSupplier.class))).thenReturn(true);
+
+        assertTrue(mutantService.analyzeDnaAsync(PackedDnaMatrix.encode(mutantDna)).join().mutant());
+
+        verify(dnaRecordWriter).write(any(DnaRecord.class));
+        assertEquals(1.0, meterRegistry.get("mutant.verdicts").tag("result", "mutant").counter().count());
+        assertEquals(1, meterRegistry.get("mutant.analyze.stage").tag("stage", "detection").timer().count());
+    }
+
+    @Test
+    @DisplayName("ASÍNCRONO: Un ADN en la cache en memoria se responde sin ocupar el pool, aun con la cola llena")
+    void testAnalyzeDnaAsync_KnownVerdictSkipsDetection() {
+        when(verdictCache.get(any(DnaHash.class))).thenReturn(Optional.of(true));
+        CountDownLatch release = new CountDownLatch(1);
+        // Un hilo ocupado y la única posición de la cola tomada
+        analysisExecutors.detect(cancelled -> await(release));
+        analysisExecutors.detect(cancelled -> await(release));
+        clearInvocations(analysisExecutors);
+
+        try {
+            assertTrue(mutantService.analyzeDnaAsync(PackedDnaMatrix.encode(mutantDna)).join().mutant());
+
+            verify(analysisExecutors, never()).detect(any());
+            verify(mutantDetector, never()).isMutant(any(PackedDnaMatrix.class), any(BooleanSupplier.class));
+            verify(dnaRecordWriter, never()).write(any(DnaRecord.class));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("ASÍNCRONO: Si la base ya tenía el veredicto, la detección que corría en paralelo se cancela")
+    void testAnalyzeDnaAsync_DatabaseHitCancelsDetection() throws Exception {
+        DnaRecord storedRecord = new DnaRecord();
+        storedRecord.setMutant(true);
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.of(storedRecord));
+        // La detección puede llegar a empezar o no: si empieza, recorre "filas" hasta la cancelación
+        lenient().when(mutantDetector.isMutant(any(PackedDnaMatrix.class), any(BooleanSupplier.class)))
+                .thenAnswer(invocation -> untilCancelled(invocation.getArgument(1)));
+
+        assertTrue(mutantService.analyzeDnaAsync(PackedDnaMatrix.encode(mutantDna)).join().mutant());
+
+        verify(dnaRecordWriter, never()).write(any(DnaRecord.class));
+        // El único hilo de detección quedó libre
+        assertTrue(analysisExecutors.detect(cancelled -> true).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("ASÍNCRONO: Al vencer el plazo responde no disponible y la detección deja de correr")
+    void testAnalyzeDnaAsync_DeadlineExceeded() throws Exception {
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.empty());
+        when(mutantDetector.isMutant(any(PackedDnaMatrix.class), any(BooleanSupplier.class)))
+                .thenAnswer(invocation -> untilCancelled(invocation.getArgument(1)));
+
+        CompletableFuture<DnaVerdict> verdict = mutantService.analyzeDnaAsync(PackedDnaMatrix.encode(humanDna));
+
+        CompletionException failure = assertThrows(CompletionException.class, verdict::join);
+        assertInstanceOf(DetectionUnavailableException.class, failure.getCause());
+        assertEquals(1.0, meterRegistry.get("mutant.analyze.deadline.exceeded").counter().count());
+        verify(dnaRecordWriter, never()).write(any(DnaRecord.class));
+        assertTrue(analysisExecutors.detect(cancelled -> true).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("ASÍNCRONO: Con la cola de detección llena responde no disponible sin guardar")
+    void testAnalyzeDnaAsync_QueueFull() {
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.empty());
+        CountDownLatch release = new CountDownLatch(1);
+        // Un hilo ocupado y la única posición de la cola tomada
+        analysisExecutors.detect(cancelled -> await(release));
+        analysisExecutors.detect(cancelled -> await(release));
+
+        try {
+            CompletableFuture<DnaVerdict> verdict = mutantService.analyzeDnaAsync(PackedDnaMatrix.encode(mutantDna));
+
+            CompletionException failure = assertThrows(CompletionException.class, verdict::join);
+            assertInstanceOf(DetectionUnavailableException.class, failure.getCause());
+            verify(mutantDetector, never()).isMutant(any(PackedDnaMatrix.class), any(BooleanSupplier.class));
+            verify(dnaRecordWriter, never()).write(any(DnaRecord.class));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("DELTA: El hash que devuelve el análisis asíncrono sirve de base para editar el ADN")
+    void testAnalyzeDnaAsync_HashIsDeltaBase() {
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.empty());
+        when(mutantDetector.isMutant(any(PackedDnaMatrix.class), any(BooleanSupplier.class))).thenReturn(false);
+        when(mutantDetector.countRuns(any(PackedDnaMatrix.class)))
+                .thenAnswer(invocation -> new MutantDetector().countRuns(invocation.getArgument(0)));
+
+        DnaVerdict verdict = mutantService.analyzeDnaAsync(PackedDnaMatrix.encode(humanDna)).join();
+
+        assertFalse(verdict.mutant());
+        assertEquals(dnaHasher.hash(PackedDnaMatrix.encode(humanDna)), verdict.dnaHash());
+        // "TTATTT" -> "TTTTTT": tres secuencias horizontales nuevas
+        assertTrue(mutantService.analyzeDelta(verdict.dnaHash(), List.of(new CellEdit(2, 2, "T"))).isMutant());
+    }
+
+    @Test
+    @DisplayName("ASÍNCRONO: Deshabilitado, analiza en el hilo de la petición")
+    void testAnalyzeDnaAsync_Disabled() {
+        asyncProperties.setEnabled(false);
+        when(dnaRecordStore.findByDnaHash(any(DnaHash.class))).thenReturn(Optional.empty());
+        when(mutantDetector.isMutant(any(PackedDnaMatrix.class))).thenReturn(false);
+
+        CompletableFuture<DnaVerdict> verdict = mutantService.analyzeDnaAsync(PackedDnaMatrix.encode(humanDna));
+
+        assertTrue(verdict.isDone());
+        assertFalse(verdict.join().mutant());
+        verify(analysisExecutors, never()).detect(any());
+    }
+
+    private static boolean untilCancelled(BooleanSupplier cancelled) {
+        while (!cancelled.getAsBoolean()) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        throw new CancellationException("Detección cancelada");
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static AsyncProperties asyncProperties() {
+        AsyncProperties properties = new AsyncProperties();
+        // Un solo hilo y una posición en la cola para poder llenarla; plazo corto para los tests
+        properties.setDetectionThreads(1);
+        properties.setQueueCapacity(1);
+        properties.setDeadline(Duration.ofMillis(300));
+        return properties;
+    }
+
+    private static DeltaProperties deltaProperties() {
+        DeltaProperties properties = new DeltaProperties();
+        // Las matrices de los tests son chicas
+        properties.setMinSize(4);
+        return properties;
+    }
 }
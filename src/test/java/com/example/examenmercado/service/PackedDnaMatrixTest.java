@@ -0,0 +1,107 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.exception.InvalidDnaException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedDnaMatrixTest {
+
+    @Test
+    @DisplayName("CODIFICACIÓN: Conserva cada base, también después del límite de palabra (32)")
+    void testEncode_RoundTrip() {
+        int n = 40;
+        String[] dna = new String[n];
+        for (int row = 0; row < n; row++) {
+            StringBuilder line = new StringBuilder();
+            for (int col = 0; col < n; col++) {
+                line.append("ACGT".charAt((row + col * 3) % 4));
+            }
+            dna[row] = line.toString();
+        }
+
+        PackedDnaMatrix matrix = PackedDnaMatrix.encode(dna);
+
+        assertEquals(n, matrix.size());
+        assertEquals(2, matrix.wordsPerRow());
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                assertEquals(dna[row].charAt(col), matrix.baseAt(row, col));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("CODIFICACIÓN: Informa fila y columna del primer carácter inválido")
+    void testEncode_InvalidCharacterPosition() {
+        String[] dna = {"ATGC", "CAGT", "TTXT", "AGAA"};
+
+        InvalidDnaException ex = assertThrows(InvalidDnaException.class, () -> PackedDnaMatrix.encode(dna));
+
+        assertEquals(2, ex.getRow());
+        assertEquals(2, ex.getColumn());
+    }
+
+    @Test
+    @DisplayName("CODIFICACIÓN: Rechaza filas de longitud incorrecta")
+    void testEncode_NonSquareMatrix() {
+        String[] dna = {"ATGC", "CAGT", "TTA", "AGAA"};
+
+        InvalidDnaException ex = assertThrows(InvalidDnaException.class, () -> PackedDnaMatrix.encode(dna));
+
+        assertEquals(2, ex.getRow());
+        assertEquals(-1, ex.getColumn());
+    }
+
+    @Test
+    @DisplayName("CODIFICACIÓN: El builder codifica filas desde un tramo de char[] y exige las N filas")
+    void testBuilder_CharSlicesAndRowCount() {
+        char[] buffer = "xxATGCCAGTTTATAGAAxx".toCharArray();
+        PackedDnaMatrix.Builder builder = new PackedDnaMatrix.Builder(4);
+        for (int row = 0; row < 3; row++) {
+            builder.appendRow(buffer, 2 + row * 4, 4);
+        }
+
+        InvalidDnaException missing = assertThrows(InvalidDnaException.class, builder::build);
+        assertEquals(3, missing.getRow());
+
+        builder.appendRow(buffer, 14, 4);
+        PackedDnaMatrix matrix = builder.build();
+        assertEquals('A', matrix.baseAt(3, 0));
+        assertEquals('A', matrix.baseAt(3, 3));
+        assertEquals(4, assertThrows(InvalidDnaException.class, () -> builder.appendRow("ATGC")).getRow());
+    }
+
+    @Test
+    @DisplayName("CODIFICACIÓN: El formato binario denso ida y vuelta, con filas que no caen en bytes enteros")
+    void testPacked_RoundTrip() {
+        int n = 37;
+        String[] dna = new String[n];
+        for (int row = 0; row < n; row++) {
+            StringBuilder line = new StringBuilder();
+            for (int col = 0; col < n; col++) {
+                line.append("ACGT".charAt((row * 7 + col * 5 + row * col) % 4));
+            }
+            dna[row] = line.toString();
+        }
+        PackedDnaMatrix expected = PackedDnaMatrix.encode(dna);
+
+        byte[] packed = expected.toPacked();
+        assertEquals(PackedDnaMatrix.packedLength(n), packed.length);
+
+        // Buffer reutilizado: los bytes sobrantes al final no deben filtrarse en la matriz
+        byte[] buffer = Arrays.copyOf(packed, packed.length + 16);
+        Arrays.fill(buffer, packed.length, buffer.length, (byte) 0xFF);
+        PackedDnaMatrix decoded = PackedDnaMatrix.fromPacked(n, buffer);
+
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                assertEquals(dna[row].charAt(col), decoded.baseAt(row, col));
+            }
+        }
+        assertArrayEquals(expected.words(), decoded.words());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.StatsProperties;
+import com.example.examenmercado.entity.DnaStatsSummary;
+import com.example.examenmercado.repository.DnaRecordStore;
+import com.example.examenmercado.repository.DnaStatsSummaryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatsCounterTest {
+
+    @Mock
+    private DnaRecordStore dnaRecordStore;
+
+    @Mock
+    private DnaStatsSummaryRepository dnaStatsSummaryRepository;
+
+    @Test
+    @DisplayName("CONTADORES: Se reconstruyen desde dna_records y se incrementan en memoria")
+    void testRebuildFromRecordsAndRecord() {
+        when(dnaRecordStore.countByIsMutant(true)).thenReturn(4L);
+        when(dnaRecordStore.countByIsMutant(false)).thenReturn(10L);
+        StatsCounter statsCounter = new StatsCounter(dnaRecordStore, dnaStatsSummaryRepository, new StatsProperties());
+
+        statsCounter.rebuild();
+        statsCounter.record(true);
+        statsCounter.record(false);
+        statsCounter.record(false);
+
+        assertEquals(5, statsCounter.getMutantCount());
+        assertEquals(12, statsCounter.getHumanCount());
+        verify(dnaStatsSummaryRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("CONTADORES: Pueden partir de la fila de resumen sin contar la tabla")
+    void testRebuildFromSummary() {
+        StatsProperties properties = new StatsProperties();
+        properties.setRebuildOnStartup(false);
+        when(dnaStatsSummaryRepository.findById(DnaStatsSummary.SUMMARY_ID))
+                .thenReturn(Optional.of(new DnaStatsSummary(DnaStatsSummary.SUMMARY_ID, 7, 3, LocalDateTime.now())));
+        StatsCounter statsCounter = new StatsCounter(dnaRecordStore, dnaStatsSummaryRepository, properties);
+
+        statsCounter.rebuild();
+
+        assertEquals(7, statsCounter.getMutantCount());
+        assertEquals(3, statsCounter.getHumanCount());
+        verify(dnaRecordStore, never()).countByIsMutant(anyBoolean());
+    }
+
+    @Test
+    @DisplayName("CONTADORES: El volcado guarda los valores actuales en la fila de resumen")
+    void testFlushSavesSummary() {
+        StatsProperties properties = new StatsProperties();
+        properties.setRebuildOnStartup(false);
+        StatsCounter statsCounter = new StatsCounter(dnaRecordStore, dnaStatsSummaryRepository, properties);
+        statsCounter.record(true);
+        statsCounter.record(false);
+        ArgumentCaptor<DnaStatsSummary> captor = ArgumentCaptor.forClass(DnaStatsSummary.class);
+
+        statsCounter.flush();
+
+        verify(dnaStatsSummaryRepository).save(captor.capture());
+        assertEquals(DnaStatsSummary.SUMMARY_ID, captor.getValue().getId());
+        assertEquals(1, captor.getValue().getCountMutantDna());
+        assertEquals(1, captor.getValue().getCountHumanDna());
+    }
+}
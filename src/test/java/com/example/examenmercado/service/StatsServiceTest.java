@@ -1,22 +1,43 @@
 package com.example.examenmercado.service;
 
+import com.example.examenmercado.config.StatsProperties;
 import com.example.examenmercado.dto.StatsResponse;
-import com.example.examenmercado.repository.DnaRecordRepository;
+import com.example.examenmercado.dto.StatsTimeSeriesResponse;
+import com.example.examenmercado.entity.StatsGranularity;
+import com.example.examenmercado.exception.InvalidStatsQueryException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class StatsServiceTest {
 
     @Mock
-    private DnaRecordRepository dnaRecordRepository;
+    private StatsCounter statsCounter;
+
+    @Spy
+    private MutantMetrics mutantMetrics = new MutantMetrics(new SimpleMeterRegistry());
+
+    @Mock
+    private StatsTimeSeries statsTimeSeries;
+
+    @Spy
+    private StatsProperties statsProperties = new StatsProperties();
 
     @InjectMocks
     private StatsService statsService;
@@ -27,8 +48,8 @@ class StatsServiceTest {
     @Test
     @DisplayName("ESTADÍSTICAS: Debe calcular el ratio correctamente (40/100 = 0.4)")
     void testGetStats_StandardRatio() {
-        when(dnaRecordRepository.countByIsMutant(true)).thenReturn(40L);
-        when(dnaRecordRepository.countByIsMutant(false)).thenReturn(100L);
+        when(statsCounter.getMutantCount()).thenReturn(40L);
+        when(statsCounter.getHumanCount()).thenReturn(100L);
 
         StatsResponse stats = statsService.getStats();
 
@@ -40,8 +61,8 @@ class StatsServiceTest {
     @Test
     @DisplayName("ESTADÍSTICAS: Debe retornar ratio 0.0 cuando no hay mutantes")
     void testGetStats_ZeroMutants() {
-        when(dnaRecordRepository.countByIsMutant(true)).thenReturn(0L);
-        when(dnaRecordRepository.countByIsMutant(false)).thenReturn(50L);
+        when(statsCounter.getMutantCount()).thenReturn(0L);
+        when(statsCounter.getHumanCount()).thenReturn(50L);
 
         StatsResponse stats = statsService.getStats();
 
@@ -53,8 +74,8 @@ class StatsServiceTest {
     @Test
     @DisplayName("ESTADÍSTICAS: Debe manejar el caso de CERO HUMANOS (ratio = countMutant)")
     void testGetStats_ZeroHumans() {
-        when(dnaRecordRepository.countByIsMutant(true)).thenReturn(10L);
-        when(dnaRecordRepository.countByIsMutant(false)).thenReturn(0L);
+        when(statsCounter.getMutantCount()).thenReturn(10L);
+        when(statsCounter.getHumanCount()).thenReturn(0L);
 
         StatsResponse stats = statsService.getStats();
 
@@ -66,8 +87,8 @@ class StatsServiceTest {
     @Test
     @DisplayName("ESTADÍSTICAS: Debe retornar ratio 0.0 cuando no hay datos")
     void testGetStats_NoData() {
-        when(dnaRecordRepository.countByIsMutant(true)).thenReturn(0L);
-        when(dnaRecordRepository.countByIsMutant(false)).thenReturn(0L);
+        when(statsCounter.getMutantCount()).thenReturn(0L);
+        when(statsCounter.getHumanCount()).thenReturn(0L);
 
         StatsResponse stats = statsService.getStats();
 
@@ -79,8 +100,8 @@ class StatsServiceTest {
     @Test
     @DisplayName("ESTADÍSTICAS: Debe calcular ratio > 1 correctamente (100/50 = 2.0)")
     void testGetStats_RatioGreaterThanOne() {
-        when(dnaRecordRepository.countByIsMutant(true)).thenReturn(100L);
-        when(dnaRecordRepository.countByIsMutant(false)).thenReturn(50L);
+        when(statsCounter.getMutantCount()).thenReturn(100L);
+        when(statsCounter.getHumanCount()).thenReturn(50L);
 
         StatsResponse stats = statsService.getStats();
 
@@ -88,4 +109,37 @@ class StatsServiceTest {
         assertEquals(50, stats.getCountHumanDna());
         assertEquals(2.0, stats.getRatio(), DELTA);
     }
+
+    @Test
+    @DisplayName("SERIE: Lleva el inicio al tramo, incluye completo el último y calcula el ratio por tramo")
+    void testGetTimeSeries_AlignsRangeAndComputesRatio() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 10, 20);
+        LocalDateTime to = LocalDateTime.of(2024, 5, 1, 11, 30);
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(statsTimeSeries.query(StatsGranularity.HOUR, start, end)).thenReturn(List.of(
+                new StatsTimeSeries.Bucket(start, 4, 10),
+                new StatsTimeSeries.Bucket(start.plusHours(1), 3, 0)));
+
+        StatsTimeSeriesResponse series = statsService.getTimeSeries("hour", from, to);
+
+        assertEquals("hour", series.getGranularity());
+        assertEquals(start, series.getFrom());
+        assertEquals(end, series.getTo());
+        assertEquals(2, series.getPoints().size());
+        assertEquals(0.4, series.getPoints().get(0).getRatio(), DELTA);
+        assertEquals(3.0, series.getPoints().get(1).getRatio(), DELTA);
+    }
+
+    @Test
+    @DisplayName("SERIE: Rechaza granularidad desconocida, rango vacío y demasiados tramos")
+    void testGetTimeSeries_InvalidQueries() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+        assertThrows(InvalidStatsQueryException.class, () -> statsService.getTimeSeries("week", null, null));
+        assertThrows(InvalidStatsQueryException.class, () -> statsService.getTimeSeries("day", now, now));
+        assertThrows(InvalidStatsQueryException.class,
+                () -> statsService.getTimeSeries("minute", now.minusDays(30), now));
+        verify(statsTimeSeries, never()).query(any(), any(), any());
+    }
 }
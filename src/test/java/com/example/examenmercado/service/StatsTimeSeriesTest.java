@@ -0,0 +1,116 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.StatsProperties;
+import com.example.examenmercado.entity.DnaStatsBucket;
+import com.example.examenmercado.entity.DnaStatsBucketId;
+import com.example.examenmercado.entity.StatsGranularity;
+import com.example.examenmercado.repository.DnaRecordStore;
+import com.example.examenmercado.repository.DnaStatsBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatsTimeSeriesTest {
+
+    private static final LocalDateTime HOUR_START = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    @Mock
+    private DnaStatsBucketRepository bucketRepository;
+
+    @Mock
+    private DnaRecordStore dnaRecordStore;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private StatsTimeSeries timeSeries;
+
+    @BeforeEach
+    void setUp() {
+        timeSeries = new StatsTimeSeries(bucketRepository, dnaRecordStore, transactionTemplate,
+                new DbConcurrencyLimiter(10, Duration.ofSeconds(1)), new StatsProperties());
+    }
+
+    @Test
+    @DisplayName("SERIE: La consulta suma la tabla y lo pendiente, con un punto por tramo aunque esté vacío")
+    void testQuery_MergesTableAndPending() {
+        when(bucketRepository.findRange(StatsGranularity.MINUTE, HOUR_START, HOUR_START.plusMinutes(3)))
+                .thenReturn(List.of(bucket(StatsGranularity.MINUTE, HOUR_START, 2, 5)));
+        timeSeries.record(HOUR_START.plusSeconds(10), true);
+        timeSeries.record(HOUR_START.plusMinutes(2).plusSeconds(59), false);
+        // Fuera del rango consultado
+        timeSeries.record(HOUR_START.plusMinutes(3), true);
+
+        List<StatsTimeSeries.Bucket> series = timeSeries.query(StatsGranularity.MINUTE, HOUR_START, HOUR_START.plusMinutes(3));
+
+        assertEquals(List.of(
+                new StatsTimeSeries.Bucket(HOUR_START, 3, 5),
+                new StatsTimeSeries.Bucket(HOUR_START.plusMinutes(1), 0, 0),
+                new StatsTimeSeries.Bucket(HOUR_START.plusMinutes(2), 0, 1)), series);
+        verify(dnaRecordStore, never()).findCreatedBetween(any(), any());
+    }
+
+    @Test
+    @DisplayName("SERIE: El volcado suma lo pendiente a los tramos existentes y crea los nuevos")
+    @SuppressWarnings("unchecked")
+    void testFlush_AddsToExistingBuckets() {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(bucketRepository.findAllById(any()))
+                .thenReturn(List.of(bucket(StatsGranularity.DAY, HOUR_START.toLocalDate().atStartOfDay(), 10, 20)));
+        timeSeries.record(HOUR_START.plusMinutes(5), true);
+        timeSeries.record(HOUR_START.plusMinutes(5), false);
+
+        timeSeries.flush();
+
+        ArgumentCaptor<Iterable<DnaStatsBucket>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(bucketRepository).saveAll(captor.capture());
+        Map<StatsGranularity, DnaStatsBucket> saved = StreamSupport.stream(captor.getValue().spliterator(), false)
+                .collect(Collectors.toMap(bucket -> bucket.getId().getGranularity(), bucket -> bucket));
+        assertEquals(3, saved.size());
+        assertEquals(11, saved.get(StatsGranularity.DAY).getCountMutantDna());
+        assertEquals(21, saved.get(StatsGranularity.DAY).getCountHumanDna());
+        assertEquals(HOUR_START.plusMinutes(5), saved.get(StatsGranularity.MINUTE).getId().getBucketStart());
+        assertEquals(1, saved.get(StatsGranularity.HOUR).getCountMutantDna());
+        verify(bucketRepository).deleteOlderThan(eq(StatsGranularity.MINUTE), any(LocalDateTime.class));
+        verify(bucketRepository).deleteOlderThan(eq(StatsGranularity.HOUR), any(LocalDateTime.class));
+
+        // Lo volcado ya no está pendiente
+        assertEquals(0, timeSeries.query(StatsGranularity.HOUR, HOUR_START, HOUR_START.plusHours(1)).get(0).mutants());
+    }
+
+    @Test
+    @DisplayName("SERIE: Si el volcado falla, las sumas vuelven a pendientes")
+    void testFlush_FailureKeepsPending() {
+        doThrow(new IllegalStateException("base caída")).when(transactionTemplate).executeWithoutResult(any());
+        timeSeries.record(HOUR_START, true);
+
+        timeSeries.flush();
+
+        assertEquals(1, timeSeries.query(StatsGranularity.HOUR, HOUR_START, HOUR_START.plusHours(1)).get(0).mutants());
+    }
+
+    private static DnaStatsBucket bucket(StatsGranularity granularity, LocalDateTime start, long mutants, long humans) {
+        return new DnaStatsBucket(new DnaStatsBucketId(granularity, start), mutants, humans);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.examenmercado.service;
+
+import com.example.examenmercado.config.VerdictCacheProperties;
+import com.example.examenmercado.entity.DnaHash;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerdictCacheTest {
+
+    private static final DnaHash MUTANT_HASH = DnaHash.fromHex("0a0b0c0d");
+    private static final DnaHash HUMAN_HASH = DnaHash.fromHex("01020304");
+    private static final DnaHash UNKNOWN_HASH = DnaHash.fromHex("ffffffff");
+
+    private VerdictCache verdictCache;
+
+    @BeforeEach
+    void setUp() {
+        verdictCache = new VerdictCache(new VerdictCacheProperties());
+    }
+
+    @Test
+    @DisplayName("CACHE: Devuelve el veredicto guardado y vacío para hashes desconocidos")
+    void testGetAndPut() {
+        verdictCache.put(MUTANT_HASH, true);
+        verdictCache.put(HUMAN_HASH, false);
+
+        assertEquals(Boolean.TRUE, verdictCache.get(MUTANT_HASH).orElseThrow());
+        assertEquals(Boolean.FALSE, verdictCache.get(HUMAN_HASH).orElseThrow());
+        assertTrue(verdictCache.get(UNKNOWN_HASH).isEmpty());
+    }
+
+    @Test
+    @DisplayName("CACHE: Cuenta aciertos y fallos")
+    void testStats() {
+        verdictCache.put(MUTANT_HASH, true);
+
+        verdictCache.get(MUTANT_HASH);
+        verdictCache.get(MUTANT_HASH);
+        verdictCache.get(UNKNOWN_HASH);
+
+        assertEquals(2, verdictCache.stats().hitCount());
+        assertEquals(1, verdictCache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("CACHE: Publica aciertos y fallos como métricas de Micrometer")
+    void testMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        verdictCache.bindTo(registry);
+
+        verdictCache.put(MUTANT_HASH, true);
+        verdictCache.get(MUTANT_HASH);
+        verdictCache.get(UNKNOWN_HASH);
+
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "verdicts", "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "verdicts", "result", "miss").functionCounter().count());
+    }
+}
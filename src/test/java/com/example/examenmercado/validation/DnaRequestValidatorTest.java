@@ -0,0 +1,49 @@
+package com.example.examenmercado.validation;
+
+import com.example.examenmercado.dto.DnaRequest;
+import com.example.examenmercado.service.PackedDnaMatrix;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DnaRequestValidatorTest {
+
+    private static final String INVALID_DNA_MESSAGE =
+            "La secuencia de ADN es inválida: debe ser una matriz NxN con al menos 4x4 y contener solo caracteres A, T, C, G.";
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    @DisplayName("VALIDACIÓN: Una matriz de 4x4 o más es válida")
+    void testValidDna() {
+        DnaRequest request = new DnaRequest(PackedDnaMatrix.encode(
+                new String[]{"ATGCGA", "CAGTGC", "TTATGT", "AGAAGG", "CCCCTA", "tcactg"}));
+
+        assertTrue(validator.validate(request).isEmpty());
+    }
+
+    @Test
+    @DisplayName("VALIDACIÓN: Una matriz menor a 4x4 se informa sobre 'dna' con el mensaje de siempre")
+    void testTooSmall_SameMessage() {
+        DnaRequest request = new DnaRequest(PackedDnaMatrix.encode(new String[]{"ATG", "CAG", "TTA"}));
+
+        Set<ConstraintViolation<DnaRequest>> violations = validator.validate(request);
+
+        assertEquals(1, violations.size());
+        ConstraintViolation<DnaRequest> violation = violations.iterator().next();
+        assertEquals("dna", violation.getPropertyPath().toString());
+        assertEquals(INVALID_DNA_MESSAGE, violation.getMessage());
+    }
+
+    @Test
+    @DisplayName("VALIDACIÓN: Rechaza un request sin matriz")
+    void testNullDna() {
+        assertFalse(validator.validate(new DnaRequest(null)).isEmpty());
+    }
+}